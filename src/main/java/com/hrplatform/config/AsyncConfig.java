@@ -1,24 +1,32 @@
 package com.hrplatform.config;
 
+import com.hrplatform.util.FairQueueExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    // Default for @Async without a qualifier; audit writes and uploads have their own pools,
+    // mail and image processing run on the durable job queue (JobQueueServiceImpl)
     @Bean(name = "taskExecutor")
-    public ThreadPoolTaskExecutor taskExecutor() {  // ← Return type is ThreadPoolTaskExecutor
+    public ThreadPoolTaskExecutor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
 
-        executor.setCorePoolSize(6);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(400);
-        executor.setThreadNamePrefix("Upload worker-");
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("Async worker-");
         executor.setKeepAliveSeconds(60);
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(120);
@@ -29,4 +37,89 @@ public class AsyncConfig {
 
         return executor;
     }
+
+    // Audit log inserts. A full queue makes the caller write its own row rather than lose it,
+    // which is also the back-pressure if the audit tables slow down
+    @Bean(name = "auditExecutor")
+    public ThreadPoolTaskExecutor auditExecutor(
+            @Value("${async.audit.workers:4}") int workers,
+            @Value("${async.audit.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("Audit writer-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        executor.initialize();
+
+        return executor;
+    }
+
+    // Multi-file uploads, scheduled fairly across departments so one department's mass
+    // onboarding cannot queue everyone else behind it. Cost is the file size, so the share is
+    // by bytes uploaded rather than by number of files.
+    @Bean(name = "uploadExecutor", destroyMethod = "close")
+    public FairQueueExecutor uploadExecutor(
+            @Value("${upload.executor.workers:10}") int workers,
+            @Value("${upload.executor.queue-capacity:400}") int queueCapacity,
+            @Value("${upload.executor.quantum-bytes:1048576}") long quantumBytes,
+            @Value("${upload.executor.department-weights:}") String departmentWeights,
+            MeterRegistry meterRegistry) {
+
+        Map<String, Integer> weights = parseWeights(departmentWeights);
+
+        FairQueueExecutor executor = new FairQueueExecutor("Upload worker-", workers, queueCapacity,
+                quantumBytes, department -> weights.getOrDefault(department, 1), 120);
+
+        Gauge.builder("upload.executor.queued", executor, FairQueueExecutor::getQueued)
+                .description("Upload tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("upload.executor.active", executor, FairQueueExecutor::getActive)
+                .register(meterRegistry);
+        Gauge.builder("upload.executor.pool_size", executor, FairQueueExecutor::getPoolSize)
+                .register(meterRegistry);
+
+        return executor;
+    }
+
+    // Opens document streams ahead of the ZIP writer for bundle downloads
+    @Bean(name = "bundleExecutor")
+    public ThreadPoolTaskExecutor bundleExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("Bundle reader-");
+        executor.setKeepAliveSeconds(60);
+
+        // the writer opens the stream itself rather than failing the download
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        executor.initialize();
+
+        return executor;
+    }
+
+    // "Human Resources:2,Finance:3"; departments not listed get weight 1
+    public static Map<String, Integer> parseWeights(String spec) {
+        Map<String, Integer> weights = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return weights;
+        }
+
+        for (String entry : spec.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid upload.executor.department-weights entry: " + entry);
+            }
+            weights.put(entry.substring(0, separator).trim(), Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+        return weights;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.hrplatform.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Route-group bulkheads, see RouteBulkheadFilter. Groups are matched in order, so the
+ * specific upload and export paths come before the HR catch-all.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean
+    public FilterRegistrationBean<RouteBulkheadFilter> routeBulkheadFilter(
+            MeterRegistry meterRegistry,
+            @Value("${bulkhead.upload.paths:/api/documents/upload/**,/api/staff/**}") String uploadPaths,
+            @Value("${bulkhead.upload.max-concurrent:80}") int uploadMaxConcurrent,
+            @Value("${bulkhead.export.paths:/api/export/**,/api/audit/*/export,/api/submissions/**/bundle.zip}") String exportPaths,
+            @Value("${bulkhead.export.max-concurrent:8}") int exportMaxConcurrent,
+            @Value("${bulkhead.hr.paths:/api/**}") String hrPaths,
+            @Value("${bulkhead.hr.max-concurrent:80}") int hrMaxConcurrent,
+            @Value("${bulkhead.max-wait-ms:500}") long maxWaitMs,
+            @Value("${bulkhead.retry-after-seconds:5}") long retryAfterSeconds) {
+
+        List<RouteBulkheadFilter.Group> groups = List.of(
+                new RouteBulkheadFilter.Group("upload", split(uploadPaths), uploadMaxConcurrent,
+                        RoutingDataSource.Route.PRIMARY),
+                new RouteBulkheadFilter.Group("export", split(exportPaths), exportMaxConcurrent,
+                        RoutingDataSource.Route.EXPORT),
+                new RouteBulkheadFilter.Group("hr", split(hrPaths), hrMaxConcurrent,
+                        RoutingDataSource.Route.PRIMARY)
+        );
+
+        FilterRegistrationBean<RouteBulkheadFilter> registration = new FilterRegistrationBean<>(
+                new RouteBulkheadFilter(groups, maxWaitMs, retryAfterSeconds, meterRegistry));
+
+        // after Spring Security, so unauthenticated requests never take a slot and a 503
+        // still carries the CORS headers the frontend needs to read Retry-After
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    private static List<String> split(String paths) {
+        return Arrays.stream(paths.split(","))
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .toList();
+    }
+}
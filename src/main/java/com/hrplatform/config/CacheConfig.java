@@ -0,0 +1,27 @@
+package com.hrplatform.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-node caches of small, read-mostly reference data. Writes go through
+ * CacheInvalidationService so every node drops the stale entry when the change commits.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // DepartmentResponse by id, and the full list under ALL_KEY
+    public static final String DEPARTMENTS = "departments";
+
+    // active DocumentRequirementResponses by department id
+    public static final String ACTIVE_REQUIREMENTS = "activeRequirements";
+
+    public static final String ALL_KEY = "all";
+
+    @Bean
+    public CoherentCacheManager cacheManager() {
+        return new CoherentCacheManager(DEPARTMENTS, ACTIVE_REQUIREMENTS);
+    }
+}
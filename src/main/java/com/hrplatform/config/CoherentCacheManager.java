@@ -0,0 +1,56 @@
+package com.hrplatform.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local in-memory caches that only fill while this node receives cross-node invalidations
+ * (see CacheInvalidationServiceImpl). While the listener is disconnected every lookup goes
+ * to the database, because an entry cached then could be changed by another node without
+ * this node ever hearing about it.
+ */
+public class CoherentCacheManager extends ConcurrentMapCacheManager {
+
+    private volatile boolean storing;
+
+    public CoherentCacheManager(String... cacheNames) {
+        super(cacheNames);
+        setAllowNullValues(false);
+    }
+
+    public void setStoring(boolean storing) {
+        this.storing = storing;
+    }
+
+    public void clearAll() {
+        for (String name : getCacheNames()) {
+            Cache cache = getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    @Override
+    protected Cache createConcurrentMapCache(String name) {
+        return new ConcurrentMapCache(name, new ConcurrentHashMap<>(64), isAllowNullValues()) {
+            @Override
+            public void put(Object key, Object value) {
+                if (storing) {
+                    super.put(key, value);
+                }
+            }
+
+            @Override
+            public ValueWrapper putIfAbsent(Object key, Object value) {
+                if (storing) {
+                    return super.putIfAbsent(key, value);
+                }
+                return null;
+            }
+        };
+    }
+}
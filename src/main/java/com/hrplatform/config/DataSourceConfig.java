@@ -0,0 +1,97 @@
+package com.hrplatform.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Two Hikari pools on the same database: the main pool (spring.datasource.hikari.*) for
+ * interactive and upload traffic, and a small export pool (export.datasource.hikari.*)
+ * for exports, bundles and audit archiving, so long-running reads cannot hold every
+ * connection. With replica.enabled a third pool (replica.datasource.hikari.*) on a read
+ * replica takes read-only transactions. JPA, Flyway and plain DataSource injection get
+ * the routing DataSource.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource mainDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("export.datasource.hikari")
+    public HikariDataSource exportDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // same driver and credentials as the primary unless replica.datasource.hikari.* says otherwise
+    @Bean
+    @ConditionalOnProperty(name = "replica.enabled", havingValue = "true")
+    @ConfigurationProperties("replica.datasource.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("mainDataSource") DataSource mainDataSource,
+                                               @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                               @Value("${replica.max-lag-ms:5000}") long maxLagMs,
+                                               @Value("${replica.check-interval-ms:1000}") long checkIntervalMs,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(mainDataSource, replicaDataSource.getIfAvailable(), maxLagMs, checkIntervalMs,
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("mainDataSource") DataSource mainDataSource,
+                                 @Qualifier("exportDataSource") DataSource exportDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(RoutingDataSource.Route.PRIMARY, mainDataSource);
+        targets.put(RoutingDataSource.Route.EXPORT, exportDataSource);
+        replicaDataSource.ifAvailable(replica -> targets.put(RoutingDataSource.Route.REPLICA, replica));
+
+        RoutingDataSource routing = new RoutingDataSource(replicaLagMonitor::isUsable);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(mainDataSource);
+        routing.afterPropertiesSet();
+
+        // JPA asks for a connection when the transaction begins, before Spring has marked it
+        // read-only; the proxy holds off the real one until the first statement
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "replica.enabled", havingValue = "true")
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${replica.read-your-writes-seconds:15}") long stickySeconds) {
+
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(stickySeconds));
+
+        // after Spring Security, so the HR login is known
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
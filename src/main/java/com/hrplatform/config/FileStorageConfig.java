@@ -0,0 +1,57 @@
+package com.hrplatform.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Getter
+public class FileStorageConfig {
+
+    // "cloudinary" (default) keeps the remote uploads, "local" writes to localRootDir
+    @Value("${file.storage.backend:cloudinary}")
+    private String backend;
+
+    @Value("${file.storage.local.root-dir:./uploads}")
+    private String localRootDir;
+
+    // fsync file + directory before acknowledging an upload; only turn off on throwaway environments
+    @Value("${file.storage.local.fsync:true}")
+    private boolean fsyncEnabled;
+
+    // upper bound per transferFrom call so one huge file does not pin a kernel copy for too long
+    @Value("${file.storage.local.transfer-chunk-bytes:8388608}")
+    private long transferChunkBytes;
+
+    @Value("${file.image-processing.enabled:true}")
+    private boolean imageProcessingEnabled;
+
+    @Value("${file.image-processing.max-dimension:2048}")
+    private int maxImageDimension;
+
+    // explicit quality used when re-encoding JPEGs (0.0 - 1.0)
+    @Value("${file.image-processing.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    // images decoded at once; each one can take up to (2 * max-dimension)^2 * 4 bytes of heap
+    @Value("${file.image-processing.max-concurrent:2}")
+    private int maxConcurrentImageOperations;
+
+    // refuse anything bigger (read from the header, before decoding)
+    @Value("${file.image-processing.max-source-pixels:100000000}")
+    private long maxSourcePixels;
+
+    @Value("${file.thumbnail.cache-dir:./uploads/.thumbnails}")
+    private String thumbnailCacheDir;
+
+    // longest side of a thumbnail in pixels
+    @Value("${file.thumbnail.size:256}")
+    private int thumbnailSize;
+
+    // least recently viewed thumbnails are deleted once the directory grows past this
+    @Value("${file.thumbnail.cache-max-bytes:268435456}")
+    private long thumbnailCacheMaxBytes;
+
+    @Value("${file.thumbnail.max-concurrent:2}")
+    private int maxConcurrentThumbnails;
+}
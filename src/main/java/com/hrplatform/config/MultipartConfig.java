@@ -0,0 +1,154 @@
+package com.hrplatform.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps container multipart parsing away from the streaming upload endpoint so it sees the
+ * raw request body. Every other endpoint keeps the standard (container-parsed) behaviour.
+ *
+ * Skipping the resolver is not enough on its own: the DispatcherServlet is registered with
+ * a multipart config, so the first getParameter call on that path (a @RequestParam, a
+ * filter, request logging) would make Tomcat parse and spool the whole body. The filter
+ * below answers parameters from the query string instead and never lets the call through.
+ */
+@Configuration
+public class MultipartConfig {
+
+    // parsed by DocumentSubmissionController itself, one part at a time
+    public static final String STREAMING_UPLOAD_PATH = "/api/documents/upload/stream";
+
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public StandardServletMultipartResolver multipartResolver(MultipartProperties multipartProperties) {
+        StandardServletMultipartResolver resolver = new StandardServletMultipartResolver() {
+            @Override
+            public boolean isMultipart(HttpServletRequest request) {
+                return !isStreamingUpload(request) && super.isMultipart(request);
+            }
+        };
+        resolver.setResolveLazily(multipartProperties.isResolveLazily());
+        return resolver;
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> streamingUploadParametersFilter() {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                chain.doFilter(new QueryStringOnlyRequest(request), response);
+            }
+        };
+
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        // before anything else in the chain can ask for a parameter
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.addUrlPatterns(STREAMING_UPLOAD_PATH);
+        return registration;
+    }
+
+    private static boolean isStreamingUpload(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return STREAMING_UPLOAD_PATH.equals(path);
+    }
+
+    /**
+     * Parameters come from the query string only, decoded here; the body is left for the
+     * controller to read.
+     */
+    static class QueryStringOnlyRequest extends HttpServletRequestWrapper {
+
+        private final Map<String, String[]> parameters;
+
+        QueryStringOnlyRequest(HttpServletRequest request) {
+            super(request);
+            this.parameters = Collections.unmodifiableMap(parseQueryString(request.getQueryString()));
+        }
+
+        @Override
+        public String getParameter(String name) {
+            String[] values = parameters.get(name);
+            return values == null ? null : values[0];
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return parameters;
+        }
+
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(parameters.keySet());
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            String[] values = parameters.get(name);
+            return values == null ? null : values.clone();
+        }
+
+        @Override
+        public Collection<Part> getParts() throws ServletException {
+            throw new ServletException("Multipart parsing is disabled for " + STREAMING_UPLOAD_PATH);
+        }
+
+        @Override
+        public Part getPart(String name) throws ServletException {
+            throw new ServletException("Multipart parsing is disabled for " + STREAMING_UPLOAD_PATH);
+        }
+
+        static Map<String, String[]> parseQueryString(String queryString) {
+            Map<String, String[]> parameters = new LinkedHashMap<>();
+            if (queryString == null || queryString.isEmpty()) {
+                return parameters;
+            }
+
+            for (String pair : queryString.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int equals = pair.indexOf('=');
+                String name = decode(equals < 0 ? pair : pair.substring(0, equals));
+                String value = equals < 0 ? "" : decode(pair.substring(equals + 1));
+
+                parameters.merge(name, new String[]{value}, (existing, added) -> {
+                    String[] merged = new String[existing.length + 1];
+                    System.arraycopy(existing, 0, merged, 0, existing.length);
+                    merged[existing.length] = added[0];
+                    return merged;
+                });
+            }
+            return parameters;
+        }
+
+        // a malformed escape is passed through as is and fails type conversion (400) later
+        private static String decode(String value) {
+            try {
+                return URLDecoder.decode(value, StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.hrplatform.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-your-writes for the replica: after a client sends a write (any non-GET request, an
+ * upload most of all), its read-only transactions stay on the primary for a short window,
+ * so a staff member who has just uploaded sees the submission on the next page load.
+ *
+ * A client is recognised by its staff session token or its HR login, never by its
+ * address: behind NAT or a load balancer one address is many clients, and one upload
+ * would pin all of them to the primary. The request that selects a department has no
+ * session token yet, so the controller hands the token it issues to the filter through
+ * the ISSUED_SESSION_TOKEN request attribute and the next request is covered. Like the
+ * staff sessions themselves this is per node.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute holding a session token issued by this request, which the client
+     * will send from its next request on.
+     */
+    public static final String ISSUED_SESSION_TOKEN = ReadYourWritesFilter.class.getName() + ".issuedSessionToken";
+
+    private static final String SESSION_HEADER = "X-Session-Token";
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final long stickyNanos;
+    private final Map<String, Long> primaryUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(long stickySeconds) {
+        this.stickyNanos = TimeUnit.SECONDS.toNanos(stickySeconds);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        List<String> clientKeys = clientKeys(request);
+
+        if (!isSticky(clientKeys)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                recordWrite(request, clientKeys);
+            }
+            return;
+        }
+
+        try (RoutingDataSource.Scope ignored = RoutingDataSource.pinReadsToPrimary()) {
+            filterChain.doFilter(request, response);
+        } finally {
+            recordWrite(request, clientKeys);
+        }
+    }
+
+    private List<String> clientKeys(HttpServletRequest request) {
+        List<String> keys = new ArrayList<>(2);
+
+        String sessionToken = request.getHeader(SESSION_HEADER);
+        if (sessionToken != null && !sessionToken.isBlank()) {
+            keys.add("session:" + sessionToken);
+        }
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            keys.add("user:" + principal.getName());
+        }
+        return keys;
+    }
+
+    private boolean isSticky(List<String> clientKeys) {
+        long now = System.nanoTime();
+        for (String key : clientKeys) {
+            Long until = primaryUntil.get(key);
+            if (until != null && until - now > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordWrite(HttpServletRequest request, List<String> clientKeys) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return;
+        }
+
+        // uploads are synchronous, so by now their transactions have committed and the
+        // window covers the time the replica needs to replay them
+        long until = System.nanoTime() + stickyNanos;
+        for (String key : clientKeys) {
+            primaryUntil.put(key, until);
+        }
+        if (request.getAttribute(ISSUED_SESSION_TOKEN) instanceof String issued) {
+            primaryUntil.put("session:" + issued, until);
+        }
+
+        if (primaryUntil.size() > PRUNE_THRESHOLD) {
+            long now = System.nanoTime();
+            primaryUntil.values().removeIf(expiry -> expiry - now <= 0);
+        }
+    }
+}
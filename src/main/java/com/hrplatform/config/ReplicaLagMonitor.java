@@ -0,0 +1,118 @@
+package com.hrplatform.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether read-only transactions may use the replica. The replica is polled on
+ * its own thread (not the Spring scheduler, which can be busy with a long job for an
+ * hour) and is usable only while its replay lag is at most maxLagMs. A failed check, or
+ * no check for three intervals, sends reads back to the primary.
+ *
+ * Each check first reads the primary's current WAL position. A replica that has replayed
+ * up to that position has no lag, however old its last replayed transaction (an idle
+ * primary). Otherwise the lag is the age of that transaction. The replica's own view of
+ * what it has received is not trusted: with the WAL receiver stalled or disconnected,
+ * received and replayed positions are equal and it would look caught up.
+ *
+ * A server that is not in recovery reports no lag, so a second standalone PostgreSQL
+ * instance works as a "replica" for local testing.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final String PRIMARY_WAL_LSN = "SELECT pg_current_wal_lsn()::text";
+
+    // NULL when behind the primary with nothing replayed since startup: lag unknown
+    private static final String LAG_MS =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000 END";
+
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxLagMs;
+    private final long staleAfterNanos;
+    private final ScheduledExecutorService checker;
+
+    private volatile double lagMs = Double.NaN;
+    private volatile long checkedAtNanos;
+    private volatile boolean caughtUp;
+
+    /**
+     * @param primary a pool on the primary, to read its WAL position from
+     * @param replica the replica pool, or null when no replica is configured
+     */
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMs, long checkIntervalMs,
+                             MeterRegistry meterRegistry) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primary);
+        this.jdbcTemplate = replica == null ? null : new JdbcTemplate(replica);
+        this.maxLagMs = maxLagMs;
+        this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalMs * 3);
+
+        if (replica == null) {
+            this.checker = null;
+            return;
+        }
+
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMs)
+                .baseUnit("milliseconds")
+                .description("Replay lag of the read replica at the last check")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.isUsable() ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("Replica lag monitor-");
+        threadFactory.setDaemon(true);
+        this.checker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.checker.scheduleWithFixedDelay(this::check, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isUsable() {
+        return caughtUp && System.nanoTime() - checkedAtNanos < staleAfterNanos;
+    }
+
+    private void check() {
+        boolean wasUsable = isUsable();
+        try {
+            // read before the replica's position, so a replica that is keeping up is at or past it
+            String primaryLsn = primaryJdbcTemplate.queryForObject(PRIMARY_WAL_LSN, String.class);
+            Double lag = jdbcTemplate.queryForObject(LAG_MS, Double.class, primaryLsn);
+            lagMs = lag == null ? Double.POSITIVE_INFINITY : lag;
+            caughtUp = lagMs <= maxLagMs;
+        } catch (RuntimeException e) {
+            lagMs = Double.NaN;
+            caughtUp = false;
+            if (wasUsable) {
+                log.warn("Replica check failed, routing reads to the primary: {}", e.getMessage());
+            }
+        }
+        checkedAtNanos = System.nanoTime();
+
+        boolean usable = isUsable();
+        if (usable != wasUsable && !Double.isNaN(lagMs)) {
+            if (usable) {
+                log.info("Replica caught up ({} ms behind), routing read-only transactions to it", (long) lagMs);
+            } else {
+                log.warn("Replica is {} ms behind (limit {} ms), routing reads to the primary",
+                        Double.isInfinite(lagMs) ? "an unknown number of" : (long) lagMs, maxLagMs);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.hrplatform.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrplatform.dto.response.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps how many requests of each route group (staff uploads, HR exports, HR interactive)
+ * may be in progress at once, so a spike in one group cannot take every Tomcat thread and
+ * DB connection from the others. Over the cap a request waits briefly, then gets 503 with
+ * Retry-After. Export requests also have their JPA work routed to the export pool.
+ *
+ * A permit is held until the response is complete, including StreamingResponseBody and
+ * other async responses that outlive the request thread.
+ */
+@Slf4j
+public class RouteBulkheadFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<Group> groups;
+    private final long maxWaitMs;
+    private final long retryAfterSeconds;
+
+    public RouteBulkheadFilter(List<Group> groups, long maxWaitMs, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.groups = groups;
+        this.maxWaitMs = maxWaitMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        for (Group group : groups) {
+            Gauge.builder("bulkhead.in_flight", group, Group::getInFlight)
+                    .tag("group", group.name)
+                    .description("Requests of this route group in progress")
+                    .register(meterRegistry);
+            Gauge.builder("bulkhead.max_concurrent", group, g -> g.maxConcurrent)
+                    .tag("group", group.name)
+                    .register(meterRegistry);
+            group.rejected = Counter.builder("bulkhead.rejected")
+                    .tag("group", group.name)
+                    .description("Requests shed with 503 because the route group was full")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        Group group = groupFor(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!group.tryAcquire(maxWaitMs)) {
+            group.rejected.increment();
+            log.warn("Bulkhead {} full ({} in flight), rejecting {} {}",
+                    group.name, group.maxConcurrent, request.getMethod(), request.getRequestURI());
+            reject(response);
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                group.permits.release();
+            }
+        };
+
+        try (RoutingDataSource.Scope ignored = RoutingDataSource.bind(group.route)) {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // the response is still being written on another thread
+                request.getAsyncContext().addListener(new ReleaseOnComplete(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private Group groupFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Group group : groups) {
+            for (String pattern : group.paths) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        ApiResponse<Void> apiResponse = ApiResponse.<Void>builder()
+                .success(false)
+                .message("The server is busy, please try again shortly")
+                .timestamp(System.currentTimeMillis())
+                .build();
+
+        response.getWriter().write(objectMapper.writeValueAsString(apiResponse));
+    }
+
+    /**
+     * One route group: the first group whose pattern matches the request path takes it.
+     */
+    public static class Group {
+
+        private final String name;
+        private final List<String> paths;
+        private final int maxConcurrent;
+        private final RoutingDataSource.Route route;
+        private final Semaphore permits;
+        private Counter rejected;
+
+        public Group(String name, List<String> paths, int maxConcurrent, RoutingDataSource.Route route) {
+            this.name = name;
+            this.paths = paths;
+            this.maxConcurrent = maxConcurrent;
+            this.route = route;
+            this.permits = new Semaphore(maxConcurrent, true);
+        }
+
+        int getInFlight() {
+            return maxConcurrent - permits.availablePermits();
+        }
+
+        boolean tryAcquire(long maxWaitMs) {
+            try {
+                return permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private static class ReleaseOnComplete implements AsyncListener {
+
+        private final Runnable release;
+
+        ReleaseOnComplete(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // a new async cycle drops registered listeners, keep watching for the end
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
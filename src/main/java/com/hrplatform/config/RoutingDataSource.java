@@ -0,0 +1,93 @@
+package com.hrplatform.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Primary DataSource that hands out connections from one of several Hikari pools,
+ * picked by the route bound to the current thread. Unbound threads use PRIMARY.
+ *
+ * Read-only transactions go to the REPLICA pool instead, while the replica is within its
+ * lag limit and the thread has not been pinned to the primary (read-your-writes). A
+ * thread bound to a pool other than PRIMARY (an export) keeps using that pool for its
+ * read-only transactions too, so long-running reads stay off the shared pools. The
+ * router sits behind a LazyConnectionDataSourceProxy, so the choice is made at the first
+ * statement, once the transaction's read-only flag is known.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        // long-running reads (exports, bundles) so they cannot drain the interactive pool
+        EXPORT,
+        // read-only transactions, when a replica is configured and caught up
+        REPLICA
+    }
+
+    private static final ThreadLocal<Route> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> READS_ON_PRIMARY = new ThreadLocal<>();
+
+    private final BooleanSupplier replicaUsable;
+
+    public RoutingDataSource(BooleanSupplier replicaUsable) {
+        this.replicaUsable = replicaUsable;
+    }
+
+    /**
+     * Routes this thread's new connections to route until the returned scope is closed,
+     * then restores whatever was bound before.
+     */
+    public static Scope bind(Route route) {
+        Route previous = CURRENT.get();
+        CURRENT.set(route);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Keeps this thread's read-only transactions off the replica until the returned scope
+     * is closed, for a client that has just written and must see its own writes.
+     */
+    public static Scope pinReadsToPrimary() {
+        Boolean previous = READS_ON_PRIMARY.get();
+        READS_ON_PRIMARY.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                READS_ON_PRIMARY.remove();
+            } else {
+                READS_ON_PRIMARY.set(previous);
+            }
+        };
+    }
+
+    public static Route current() {
+        Route route = CURRENT.get();
+        return route == null ? Route.PRIMARY : route;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route bound = current();
+        if (bound != Route.PRIMARY) {
+            return bound;
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && READS_ON_PRIMARY.get() == null
+                && replicaUsable.getAsBoolean()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,36 @@
+package com.hrplatform.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a @Scheduled method on one node at a time across the cluster. Nodes that find the
+ * lock held skip the run; see SchedulerLockAspect.
+ *
+ * Only for jobs whose work is shared (database cleanup, partition maintenance), not for
+ * jobs that tidy up state local to each node.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SchedulerLock {
+
+    /**
+     * Lock name, unique per job.
+     */
+    String name();
+
+    /**
+     * Lease taken on acquire and renewed while the job runs. If the node dies, another
+     * node can take the lock this long after the last renewal.
+     */
+    long leaseSeconds() default 120;
+
+    /**
+     * Minimum time the lock stays taken after the job started, even if it finished sooner.
+     * For fixedRate jobs this keeps nodes whose timers are out of phase from repeating the
+     * run within the same interval; for cron jobs it covers clock skew between nodes.
+     */
+    long lockAtLeastSeconds() default 0;
+}
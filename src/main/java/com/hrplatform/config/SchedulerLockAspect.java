@@ -0,0 +1,45 @@
+package com.hrplatform.config;
+
+import com.hrplatform.service.SchedulerLockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerLockAspect {
+
+    private final SchedulerLockService schedulerLockService;
+
+    @Around("@annotation(schedulerLock)")
+    public Object runLocked(ProceedingJoinPoint joinPoint, SchedulerLock schedulerLock) throws Throwable {
+        Optional<SchedulerLockService.Lease> lease;
+        try {
+            lease = schedulerLockService.tryAcquire(schedulerLock.name(),
+                    Duration.ofSeconds(schedulerLock.leaseSeconds()),
+                    Duration.ofSeconds(schedulerLock.lockAtLeastSeconds()));
+        } catch (DataAccessException e) {
+            // never run unlocked; the next trigger tries again
+            log.warn("Skipping scheduled job {}, could not take its lock: {}", schedulerLock.name(), e.getMessage());
+            return null;
+        }
+
+        if (lease.isEmpty()) {
+            log.debug("Scheduled job {} is running or has run on another node, skipping", schedulerLock.name());
+            return null;
+        }
+
+        try (SchedulerLockService.Lease ignored = lease.get()) {
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.hrplatform.controller;
 
 import com.hrplatform.dto.response.ApiResponse;
 import com.hrplatform.dto.response.AuditLogResponse;
+import com.hrplatform.dto.response.CursorPageResponse;
+import com.hrplatform.service.AuditExportService;
 import com.hrplatform.service.AuditService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -13,10 +16,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -29,15 +35,20 @@ import java.util.List;
 public class AuditController {
 
     private final AuditService auditService;
+    private final AuditExportService auditExportService;
 
+    // offset paging (COUNT + OFFSET) kept for existing clients; new code uses /api/audit/hr-activity/cursor
+    @Deprecated
     @GetMapping("/hr-activity")
     @PreAuthorize("hasRole('HR')")
-    @Operation(summary = "Get HR activity logs", description = "Retrieve HR activity audit logs (HR only)")
+    @Operation(deprecated = true, summary = "Get HR activity logs", description = "Retrieve HR activity audit logs within a date window, last 90 days by default (HR only)")
     public ResponseEntity<ApiResponse<Page<AuditLogResponse>>> getHrActivityLogs(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDirection) {
+            @RequestParam(defaultValue = "DESC") String sortDirection,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
 
         log.info("Fetching HR activity logs - page: {}, size: {}", page, size);
 
@@ -47,19 +58,23 @@ public class AuditController {
         );
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<AuditLogResponse> response = auditService.getHrActivityLogs(pageable);
+        Page<AuditLogResponse> response = auditService.getHrActivityLogs(startDate, endDate, pageable);
 
-        return ResponseEntity.ok(ApiResponse.success(response, "HR activity logs retrieved successfully"));
+        return deprecated("/api/audit/hr-activity/cursor").body(ApiResponse.success(response, "HR activity logs retrieved successfully"));
     }
 
+    // offset paging (COUNT + OFFSET) kept for existing clients; new code uses /api/audit/staff-submission/cursor
+    @Deprecated
     @GetMapping("/staff-submission")
     @PreAuthorize("hasRole('HR')")
-    @Operation(summary = "Get staff submission logs", description = "Retrieve staff submission audit logs (HR only)")
+    @Operation(deprecated = true, summary = "Get staff submission logs", description = "Retrieve staff submission audit logs within a date window, last 90 days by default (HR only)")
     public ResponseEntity<ApiResponse<Page<AuditLogResponse>>> getStaffSubmissionLogs(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDirection) {
+            @RequestParam(defaultValue = "DESC") String sortDirection,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
 
         log.info("Fetching staff submission logs - page: {}, size: {}", page, size);
 
@@ -69,19 +84,23 @@ public class AuditController {
         );
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<AuditLogResponse> response = auditService.getStaffSubmissionLogs(pageable);
+        Page<AuditLogResponse> response = auditService.getStaffSubmissionLogs(startDate, endDate, pageable);
 
-        return ResponseEntity.ok(ApiResponse.success(response, "Staff submission logs retrieved successfully"));
+        return deprecated("/api/audit/staff-submission/cursor").body(ApiResponse.success(response, "Staff submission logs retrieved successfully"));
     }
 
+    // offset paging (COUNT + OFFSET) kept for existing clients; new code uses /api/audit/document-config/cursor
+    @Deprecated
     @GetMapping("/document-config")
     @PreAuthorize("hasRole('HR')")
-    @Operation(summary = "Get document config logs", description = "Retrieve document configuration audit logs (HR only)")
+    @Operation(deprecated = true, summary = "Get document config logs", description = "Retrieve document configuration audit logs within a date window, last 90 days by default (HR only)")
     public ResponseEntity<ApiResponse<Page<AuditLogResponse>>> getDocumentConfigLogs(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDirection) {
+            @RequestParam(defaultValue = "DESC") String sortDirection,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
 
         log.info("Fetching document config logs - page: {}, size: {}", page, size);
 
@@ -91,14 +110,16 @@ public class AuditController {
         );
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<AuditLogResponse> response = auditService.getDocumentConfigLogs(pageable);
+        Page<AuditLogResponse> response = auditService.getDocumentConfigLogs(startDate, endDate, pageable);
 
-        return ResponseEntity.ok(ApiResponse.success(response, "Document config logs retrieved successfully"));
+        return deprecated("/api/audit/document-config/cursor").body(ApiResponse.success(response, "Document config logs retrieved successfully"));
     }
 
+    // returns the whole range as before; new code pages with /hr-activity/cursor or streams with /hr-activity/export
+    @Deprecated
     @GetMapping("/hr-activity/date-range")
     @PreAuthorize("hasRole('HR')")
-    @Operation(summary = "Get HR activity logs by date range", description = "Retrieve HR activity logs within a date range (HR only)")
+    @Operation(deprecated = true, summary = "Get HR activity logs by date range", description = "Retrieve HR activity logs within a date range (HR only). Deprecated: use /hr-activity/cursor")
     public ResponseEntity<ApiResponse<List<AuditLogResponse>>> getHrActivityLogsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
@@ -107,6 +128,96 @@ public class AuditController {
 
         List<AuditLogResponse> response = auditService.getHrActivityLogsByDateRange(startDate, endDate);
 
+        return deprecated("/api/audit/hr-activity/cursor").body(ApiResponse.success(response, "HR activity logs retrieved successfully"));
+    }
+
+    @GetMapping("/hr-activity/cursor")
+    @PreAuthorize("hasRole('HR')")
+    @Operation(summary = "Get HR activity logs by cursor", description = "Keyset-paged HR activity logs, newest first. Pass nextCursor back as cursor (HR only)")
+    public ResponseEntity<ApiResponse<CursorPageResponse<AuditLogResponse>>> getHrActivityLogsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        log.info("Fetching HR activity logs by cursor - size: {}", size);
+
+        CursorPageResponse<AuditLogResponse> response = auditService.getHrActivityLogsAfter(startDate, endDate, cursor, size);
+
         return ResponseEntity.ok(ApiResponse.success(response, "HR activity logs retrieved successfully"));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/staff-submission/cursor")
+    @PreAuthorize("hasRole('HR')")
+    @Operation(summary = "Get staff submission logs by cursor", description = "Keyset-paged staff submission logs, newest first. Pass nextCursor back as cursor (HR only)")
+    public ResponseEntity<ApiResponse<CursorPageResponse<AuditLogResponse>>> getStaffSubmissionLogsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        log.info("Fetching staff submission logs by cursor - size: {}", size);
+
+        CursorPageResponse<AuditLogResponse> response = auditService.getStaffSubmissionLogsAfter(startDate, endDate, cursor, size);
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Staff submission logs retrieved successfully"));
+    }
+
+    @GetMapping("/document-config/cursor")
+    @PreAuthorize("hasRole('HR')")
+    @Operation(summary = "Get document config logs by cursor", description = "Keyset-paged document configuration logs, newest first. Pass nextCursor back as cursor (HR only)")
+    public ResponseEntity<ApiResponse<CursorPageResponse<AuditLogResponse>>> getDocumentConfigLogsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        log.info("Fetching document config logs by cursor - size: {}", size);
+
+        CursorPageResponse<AuditLogResponse> response = auditService.getDocumentConfigLogsAfter(startDate, endDate, cursor, size);
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Document config logs retrieved successfully"));
+    }
+
+    @GetMapping("/{logType}/export")
+    @PreAuthorize("hasRole('HR')")
+    @Operation(summary = "Export audit logs", description = "Stream audit logs (hr-activity, staff-submission or document-config) for a date range as NDJSON or CSV (HR only)")
+    public void exportAuditLogs(
+            @PathVariable String logType,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            HttpServletResponse response,
+            Authentication authentication) throws IOException {
+
+        log.info("Audit export of {} as {} from {} to {} by {}", logType, format, startDate, endDate, authentication.getName());
+
+        // fail with a proper 400 before any bytes are committed
+        auditExportService.validateExport(logType, format);
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        String fileName = String.format("%s_audit_%s_%s.%s", logType,
+                startDate.toLocalDate(), endDate.toLocalDate(), csv ? "csv" : "ndjson");
+
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        // written on the request thread, like the document bundles: an async StreamingResponseBody
+        // would be cut off by spring.mvc.async.request-timeout long before audit.export.timeout-seconds
+        long rows = auditExportService.streamLogs(logType, format, startDate, endDate, response.getOutputStream());
+
+        auditService.logHrActivity(
+                authentication.getName(),
+                "AUDIT_EXPORT",
+                null,
+                String.format("Exported %d %s audit records from %s to %s", rows, logType, startDate, endDate)
+        );
+    }
+
+    // Deprecation and Link headers point clients at the keyset-paged replacement
+    private ResponseEntity.BodyBuilder deprecated(String successor) {
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "<" + successor + ">; rel=\"successor-version\"");
+    }
+}
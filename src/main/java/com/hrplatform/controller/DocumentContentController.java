@@ -0,0 +1,218 @@
+package com.hrplatform.controller;
+
+import com.hrplatform.exception.FileStorageException;
+import com.hrplatform.service.DocumentContentService;
+import com.hrplatform.service.DocumentContentService.DocumentContent;
+import com.hrplatform.service.ThumbnailService;
+import com.hrplatform.service.ThumbnailService.Thumbnail;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/documents")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Document Content", description = "Document download endpoints (HR Only)")
+@SecurityRequirement(name = "Bearer Authentication")
+public class DocumentContentController {
+
+    // Tomcat's sendfile hand-off (same mechanism DefaultServlet uses for static files)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final DocumentContentService documentContentService;
+    private final ThumbnailService thumbnailService;
+
+    @Value("${document.download.cache-max-age-seconds:3600}")
+    private long cacheMaxAgeSeconds;
+
+    @GetMapping("/{submissionId}/content")
+    @PreAuthorize("hasRole('HR')")
+    @Operation(summary = "Download document content",
+            description = "Stream a submitted document. Supports Range, ETag and If-None-Match (HR only)")
+    public void getDocumentContent(@PathVariable UUID submissionId,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException, FileStorageException {
+
+        DocumentContent content = documentContentService.getContent(submissionId);
+
+        if (content.getRemoteUrl() != null) {
+            response.sendRedirect(content.getRemoteUrl());
+            return;
+        }
+
+        String etag = content.getEtag();
+        long length = content.getSize();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=" + cacheMaxAgeSeconds);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, content.getLastModified().toEpochMilli());
+
+        if (matchesIfNoneMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+
+        if (rangeHeader != null && ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                rejectRange(response, length);
+                return;
+            }
+
+            // getRangeStart/getRangeEnd accept a start at or past the end of the file
+            for (HttpRange range : ranges) {
+                long rangeStart = range.getRangeStart(length);
+                if (rangeStart >= length || rangeStart > range.getRangeEnd(length)) {
+                    rejectRange(response, length);
+                    return;
+                }
+            }
+
+            // multi-range requests are rare for PDFs; answering with the full body is allowed
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+
+        response.setContentType(content.getMimeType() != null
+                ? content.getMimeType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(content.getFileName(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setContentLengthLong(count);
+
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // the connector writes the file straight to the socket once this request returns
+            request.setAttribute(SENDFILE_FILENAME, content.getLocalPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(content.getLocalPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    @GetMapping("/{submissionId}/thumbnail")
+    @PreAuthorize("hasRole('HR')")
+    @Operation(summary = "Get document thumbnail",
+            description = "Small JPEG preview of an image or the first page of a PDF, rendered on first view (HR only)")
+    public void getDocumentThumbnail(@PathVariable UUID submissionId,
+                                     HttpServletRequest request,
+                                     HttpServletResponse response) throws IOException, FileStorageException {
+
+        Thumbnail thumbnail = thumbnailService.getThumbnail(submissionId);
+
+        if (thumbnail.getRemoteUrl() != null) {
+            response.sendRedirect(thumbnail.getRemoteUrl());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, thumbnail.getEtag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=" + cacheMaxAgeSeconds);
+
+        if (matchesIfNoneMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH), thumbnail.getEtag())) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setContentLengthLong(thumbnail.getSize());
+
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        // thumbnails are a few KB, a plain copy is cheaper than setting up sendfile
+        Files.copy(thumbnail.getPath(), response.getOutputStream());
+    }
+
+    private void rejectRange(HttpServletResponse response, long length) {
+        response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        response.setContentLengthLong(0);
+    }
+
+    private boolean matchesIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // a Range only applies if If-Range is absent or still names the current (strong) ETag
+    private boolean ifRangeMatches(String ifRange, String etag) {
+        return ifRange == null || ifRange.trim().equals(etag);
+    }
+}
@@ -1,23 +1,39 @@
 package com.hrplatform.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.hrplatform.dto.request.DocumentUploadRequest;
 import com.hrplatform.dto.response.ApiResponse;
 import com.hrplatform.dto.response.DocumentUploadResponse;
 import com.hrplatform.entity.Staff;
+import com.hrplatform.exception.BadRequestException;
 import com.hrplatform.exception.FileStorageException;
 import com.hrplatform.service.DocumentSubmissionService;
+import com.hrplatform.service.IdempotencyService;
 import com.hrplatform.service.SessionService;
 import com.hrplatform.service.StaffService;
+import com.hrplatform.service.UploadAdmissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadException;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -32,13 +48,22 @@ public class DocumentSubmissionController {
     private final DocumentSubmissionService documentSubmissionService;
     private final SessionService sessionService;
     private final StaffService staffService;
+    private final IdempotencyService idempotencyService;
+    private final UploadAdmissionService uploadAdmissionService;
+    private final MultipartProperties multipartProperties;
+    private final ServerProperties serverProperties;
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 200;
+    private static final String STREAMING_FILE_PART = "file";
 
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Upload document", description = "Upload a single document for a staff member (staffIdNumber is passed as path parameter)")
     public ResponseEntity<ApiResponse<DocumentUploadResponse>> uploadDocument(
             @RequestParam("staffIdNumber") String staffIdNumber,
             @RequestParam("documentRequirementId") UUID documentRequirementId,
-            @RequestParam("file") MultipartFile file) throws FileStorageException {
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws FileStorageException {
 
         log.info("Document upload request for staff: {}", staffIdNumber);
 
@@ -47,18 +72,116 @@ public class DocumentSubmissionController {
                 .file(file)
                 .build();
 
-        DocumentUploadResponse response = documentSubmissionService.uploadDocument(staffIdNumber, request);
+        DocumentUploadResponse response;
+
+        // admission is shared out by department
+        String department = staffService.findDepartmentName(staffIdNumber);
+
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            response = admitted(department, 1, () -> documentSubmissionService.uploadDocument(staffIdNumber, request));
+        } else {
+            // retries with the same key replay (or wait for) the first attempt instead of uploading again
+            String fingerprint = idempotencyService.fingerprint(
+                    staffIdNumber.toLowerCase(), documentRequirementId,
+                    file.getOriginalFilename(), file.getSize(), file.getContentType());
+
+            response = idempotencyService.execute(
+                    scopedKey("upload", staffIdNumber.toLowerCase(), idempotencyKey),
+                    fingerprint,
+                    new TypeReference<DocumentUploadResponse>() {},
+                    () -> admitted(department, 1, () -> documentSubmissionService.uploadDocument(staffIdNumber, request)));
+        }
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(response, "Document uploaded successfully"));
+    }
+
+    /**
+     * Same as /upload, but the body is parsed here part by part instead of being spooled by
+     * the container first (see MultipartConfig). staffIdNumber and documentRequirementId go
+     * in the query string because they are needed before the file part is read; on this path
+     * request parameters are decoded from the query string by MultipartConfig's filter, so
+     * resolving them does not make the container consume the body.
+     */
+    @PostMapping(value = "/upload/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload document (streaming)",
+            description = "Single document upload that is read once, without temp-file staging. Send the file in a part named 'file'")
+    public ResponseEntity<ApiResponse<DocumentUploadResponse>> uploadDocumentStream(
+            @RequestParam("staffIdNumber") String staffIdNumber,
+            @RequestParam("documentRequirementId") UUID documentRequirementId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) throws FileStorageException {
+
+        log.info("Streamed document upload request for staff: {}", staffIdNumber);
+
+        DocumentUploadResponse response;
+
+        String department = staffService.findDepartmentName(staffIdNumber);
+
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            response = admitted(department, 1, () -> uploadFilePart(staffIdNumber, documentRequirementId, httpRequest));
+        } else {
+            // the file name is inside the body, so the request length stands in for it
+            String fingerprint = idempotencyService.fingerprint(
+                    staffIdNumber.toLowerCase(), documentRequirementId, httpRequest.getContentLengthLong());
+
+            response = idempotencyService.execute(
+                    scopedKey("upload", staffIdNumber.toLowerCase(), idempotencyKey),
+                    fingerprint,
+                    new TypeReference<DocumentUploadResponse>() {},
+                    () -> admitted(department, 1, () -> uploadFilePart(staffIdNumber, documentRequirementId, httpRequest)));
+        }
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success(response, "Document uploaded successfully"));
     }
 
+    private DocumentUploadResponse uploadFilePart(String staffIdNumber, UUID documentRequirementId,
+                                                  HttpServletRequest httpRequest) throws FileStorageException {
+        if (!JakartaServletFileUpload.isMultipartContent(httpRequest)) {
+            throw new BadRequestException("Expected a multipart/form-data request");
+        }
+
+        // the container limits do not apply on this path, so the same ones are enforced here
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload = new JakartaServletFileUpload<>();
+        upload.setSizeMax(multipartProperties.getMaxRequestSize().toBytes());
+        upload.setFileSizeMax(multipartProperties.getMaxFileSize().toBytes());
+        upload.setFileCountMax(serverProperties.getTomcat().getMaxPartCount());
+        upload.setPartHeaderSizeMax((int) serverProperties.getTomcat().getMaxPartHeaderSize().toBytes());
+
+        try {
+            FileItemInputIterator parts = upload.getItemIterator(httpRequest);
+
+            while (parts.hasNext()) {
+                FileItemInput part = parts.next();
+
+                // anything before the file (stray form fields) is skipped, never buffered
+                if (part.isFormField() || !STREAMING_FILE_PART.equals(part.getFieldName())) {
+                    continue;
+                }
+
+                try (InputStream content = part.getInputStream()) {
+                    return documentSubmissionService.uploadDocumentStream(
+                            staffIdNumber, documentRequirementId, part.getName(), content);
+                }
+            }
+
+        } catch (FileUploadException e) {
+            throw new BadRequestException("Malformed multipart request: " + e.getMessage());
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to read upload", e);
+        }
+
+        throw new BadRequestException("Missing '" + STREAMING_FILE_PART + "' part");
+    }
+
     @PostMapping(value = "/upload/multiple", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Upload multiple documents using session token")
     public ResponseEntity<ApiResponse<List<DocumentUploadResponse>>> uploadMultipleDocuments(
             @RequestHeader("X-Session-Token") String sessionToken,
             @RequestParam("requirementIds") List<UUID> requirementIds,
-            @RequestParam("files") List<MultipartFile> files) throws FileStorageException {
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws FileStorageException {
 
         log.info("Multiple document upload with session token ({} files)", files.size());
 
@@ -69,10 +192,51 @@ public class DocumentSubmissionController {
         // ✅ CHANGED: Use findByIdWithDepartment instead of findById
         Staff staff = staffService.findByIdWithDepartment(staffId);
 
-        List<DocumentUploadResponse> responses = documentSubmissionService
-                .uploadMultipleDocumentsWithStaff(staff, requirementIds, files);
+        List<DocumentUploadResponse> responses;
+        String department = staff.getDepartment() != null ? staff.getDepartment().getName() : null;
+
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            responses = admitted(department, files.size(),
+                    () -> documentSubmissionService.uploadMultipleDocumentsWithStaff(staff, requirementIds, files));
+        } else {
+            List<Object> parts = new ArrayList<>();
+            parts.add(staffId);
+            parts.addAll(requirementIds);
+            for (MultipartFile file : files) {
+                parts.add(file.getOriginalFilename());
+                parts.add(file.getSize());
+                parts.add(file.getContentType());
+            }
+
+            responses = idempotencyService.execute(
+                    scopedKey("upload-multiple", staffId.toString(), idempotencyKey),
+                    idempotencyService.fingerprint(parts.toArray()),
+                    new TypeReference<List<DocumentUploadResponse>>() {},
+                    () -> admitted(department, files.size(),
+                            () -> documentSubmissionService.uploadMultipleDocumentsWithStaff(staff, requirementIds, files)));
+        }
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success(responses, "Documents uploaded successfully"));
     }
+
+    /**
+     * Runs the upload under an admission permit, shedding load with 503 + Retry-After before
+     * any upload work is taken on. Inside idempotencyService.execute this only runs for the
+     * attempt that actually uploads: a retry that replays or waits for the first attempt
+     * holds no permit while it waits.
+     */
+    private <T> T admitted(String department, int files,
+                           IdempotencyService.IdempotentCall<T, FileStorageException> upload) throws FileStorageException {
+        try (UploadAdmissionService.Permit ignored = uploadAdmissionService.admit(department, files)) {
+            return upload.call();
+        }
+    }
+
+    private String scopedKey(String operation, String owner, String idempotencyKey) {
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        return operation + ":" + owner + ":" + idempotencyKey.trim();
+    }
 }
\ No newline at end of file
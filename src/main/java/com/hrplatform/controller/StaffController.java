@@ -1,5 +1,6 @@
 package com.hrplatform.controller;
 
+import com.hrplatform.config.ReadYourWritesFilter;
 import com.hrplatform.dto.request.SelectDepartmentRequest;
 import com.hrplatform.dto.request.StaffValidationRequest;
 import com.hrplatform.dto.response.*;
@@ -7,6 +8,7 @@ import com.hrplatform.service.SessionService;
 import com.hrplatform.service.StaffService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -44,7 +46,8 @@ public class StaffController {
     @Operation(summary = "Select department and create session",
             description = "Staff selects their department and receives a session token")
     public ResponseEntity<ApiResponse<SessionResponse>> selectDepartment(
-            @Valid @RequestBody SelectDepartmentRequest request) {
+            @Valid @RequestBody SelectDepartmentRequest request,
+            HttpServletRequest httpRequest) {
 
         log.info("Department selection request for staff: {}", request.getStaffIdNumber());
 
@@ -55,6 +58,8 @@ public class StaffController {
                 response.getStaffId(),
                 response.getDepartmentId()
         );
+        // the client's next request reads what was just written, under this token
+        httpRequest.setAttribute(ReadYourWritesFilter.ISSUED_SESSION_TOKEN, sessionToken);
 
         SessionResponse sessionResponse = SessionResponse.builder()
                 .sessionToken(sessionToken)
@@ -5,16 +5,24 @@ import com.hrplatform.dto.response.ApiResponse;
 import com.hrplatform.dto.response.PagedResponse;
 import com.hrplatform.dto.response.SubmissionDetailsResponse;
 import com.hrplatform.dto.response.SubmissionListResponse;
+import com.hrplatform.service.AuditService;
+import com.hrplatform.service.DocumentBundleService;
+import com.hrplatform.service.DocumentBundleService.DocumentBundle;
 import com.hrplatform.service.SubmissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,6 +35,8 @@ import java.util.UUID;
 public class SubmissionController {
 
     private final SubmissionService submissionService;
+    private final DocumentBundleService documentBundleService;
+    private final AuditService auditService;
 
     @PostMapping("/filter")
     @PreAuthorize("hasRole('HR')")
@@ -55,6 +65,33 @@ public class SubmissionController {
     }
 
 
+    @GetMapping("/{staffId}/bundle.zip")
+    @PreAuthorize("hasRole('HR')")
+    @Operation(summary = "Download staff documents as ZIP", description = "Stream every document submitted by a staff member as one ZIP (HR only)")
+    public void downloadStaffBundle(@PathVariable UUID staffId,
+                                    HttpServletResponse response,
+                                    Authentication authentication) throws IOException {
+
+        log.info("Staff document bundle for {} requested by {}", staffId, authentication.getName());
+
+        // resolve everything (and fail with a proper 4xx) before the first byte is committed
+        DocumentBundle bundle = documentBundleService.prepareStaffBundle(staffId);
+        streamBundle(bundle, response, authentication);
+    }
+
+    @GetMapping("/department/{departmentId}/bundle.zip")
+    @PreAuthorize("hasRole('HR')")
+    @Operation(summary = "Download department documents as ZIP", description = "Stream every document submitted in a department as one ZIP, one folder per staff member (HR only)")
+    public void downloadDepartmentBundle(@PathVariable UUID departmentId,
+                                         HttpServletResponse response,
+                                         Authentication authentication) throws IOException {
+
+        log.info("Department document bundle for {} requested by {}", departmentId, authentication.getName());
+
+        DocumentBundle bundle = documentBundleService.prepareDepartmentBundle(departmentId);
+        streamBundle(bundle, response, authentication);
+    }
+
     @GetMapping("/recent")
     @PreAuthorize("hasRole('HR')")
     @Operation(summary = "Get recent submissions", description = "Retrieve last 5 staff submissions (HR only)")
@@ -136,5 +173,24 @@ public class SubmissionController {
 
     }
 
-
-}
\ No newline at end of file
+    // Written on the request thread rather than as StreamingResponseBody so large
+    // department bundles are not cut off by spring.mvc.async.request-timeout
+    private void streamBundle(DocumentBundle bundle, HttpServletResponse response,
+                              Authentication authentication) throws IOException {
+
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(bundle.getFileName())
+                .build()
+                .toString());
+
+        int documents = documentBundleService.writeBundle(bundle, response.getOutputStream());
+
+        auditService.logHrActivity(
+                authentication.getName(),
+                "DOCUMENT_BUNDLE_DOWNLOAD",
+                bundle.getDepartmentName(),
+                String.format("Downloaded %s (%d documents)", bundle.getFileName(), documents)
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.hrplatform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private Integer size;
+    private String nextCursor;   // pass back as ?cursor= to fetch the next page, null on the last page
+    private Boolean hasNext;
+}
@@ -30,6 +30,8 @@ public class SubmissionDetailsResponse {
         private UUID submissionId;
         private String documentName;
         private String cloudinaryUrl;
+        // small JPEG preview for the review screen; null when the type has no preview
+        private String thumbnailUrl;
         private String fileName;
         private Long fileSize;
         private LocalDateTime uploadedAt;
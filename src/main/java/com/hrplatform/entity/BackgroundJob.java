@@ -0,0 +1,56 @@
+package com.hrplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+// the claim and lease queries use partial indexes, which only exist in V7__background_jobs.sql
+@Table(name = "background_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BackgroundJob {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false, length = 50)
+    private String jobType;
+
+    // handler-defined; a plain id or a JSON document
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false, length = 20)
+    private String status; // PENDING, RUNNING, DEAD (finished jobs are deleted)
+
+    // claims so far, including the current one
+    @Column(nullable = false)
+    private Integer attempts;
+
+    // not handed out before this time; pushed back by the retry backoff
+    @Column(nullable = false)
+    private LocalDateTime runAt;
+
+    // node and claim holding a RUNNING job; completion only counts if the token still matches
+    @Column(length = 100)
+    private String lockedBy;
+
+    private UUID lockToken;
+
+    private LocalDateTime lockedUntil;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
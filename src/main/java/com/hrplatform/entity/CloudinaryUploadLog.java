@@ -20,8 +20,9 @@ import java.util.UUID;
 @Builder
 public class CloudinaryUploadLog {
 
+    // only unique because it is generated: the partitioned primary key is (id, created_at), see V11
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @Column(nullable = false, length = 50)
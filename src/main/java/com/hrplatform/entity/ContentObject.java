@@ -0,0 +1,44 @@
+package com.hrplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "content_objects", indexes = {
+        @Index(name = "uk_content_hash_backend", columnList = "contentHash, storageBackend", unique = true)
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentObject {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false, length = 64)
+    private String contentHash; // SHA-256 hex of the file bytes
+
+    @Column(nullable = false, length = 20)
+    private String storageBackend; // local, cloudinary
+
+    @Column(nullable = false, length = 500)
+    private String storageKey;
+
+    @Column(length = 500)
+    private String fileUrl;
+
+    @Column(nullable = false)
+    private Long size;
+
+    // number of document submissions pointing at this object; deleted when it reaches 0
+    @Column(nullable = false)
+    private Integer refCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
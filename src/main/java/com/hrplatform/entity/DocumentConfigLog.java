@@ -11,7 +11,8 @@ import java.util.UUID;
 @Table(name = "document_config_logs", indexes = {
         @Index(name = "idx_doc_config_hr_user", columnList = "hrUserEmail"),
         @Index(name = "idx_doc_config_department", columnList = "departmentName"),
-        @Index(name = "idx_doc_config_created", columnList = "createdAt")
+        @Index(name = "idx_doc_config_created", columnList = "createdAt"),
+        @Index(name = "idx_doc_config_created_id", columnList = "createdAt, id")
 })
 @Getter
 @Setter
@@ -20,8 +21,9 @@ import java.util.UUID;
 @Builder
 public class DocumentConfigLog {
 
+    // only unique because it is generated: the partitioned primary key is (id, created_at), see V11
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @Column(nullable = false, length = 100)
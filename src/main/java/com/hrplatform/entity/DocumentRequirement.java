@@ -21,7 +21,7 @@ import java.util.UUID;
 public class DocumentRequirement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -12,7 +12,9 @@ import java.util.UUID;
 @Table(name = "document_submissions", indexes = {
         @Index(name = "idx_doc_sub_staff", columnList = "staff_id"),
         @Index(name = "idx_doc_sub_requirement", columnList = "requirement_id"),
-        @Index(name = "idx_doc_sub_created", columnList = "createdAt")
+        @Index(name = "idx_doc_sub_created", columnList = "createdAt"),
+        // one submission per requirement per staff member, enforced even across nodes
+        @Index(name = "uk_doc_sub_staff_requirement", columnList = "staff_id, requirement_id", unique = true)
 })
 @Getter
 @Setter
@@ -22,7 +24,7 @@ import java.util.UUID;
 public class DocumentSubmission {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,6 +39,22 @@ public class DocumentSubmission {
     @Column(nullable = false, length = 500, name = "file_path")
     private String filePath;
 
+    // StorageBackend that holds filePath ("local" or "cloudinary")
+    @Column(length = 20, name = "storage_backend")
+    private String storageBackend;
+
+    // Public URL for remotely stored files, null when served by this application
+    @Column(length = 500, name = "file_url")
+    private String fileUrl;
+
+    // hex SHA-256 of the stored bytes, used as the download ETag
+    @Column(length = 64)
+    private String checksum;
+
+    // background image sanitization: PENDING, COMPLETED, FAILED (null for documents that need none)
+    @Column(length = 20)
+    private String processingStatus;
+
     // ❌ REMOVE THIS - Not needed for local storage
     // @Column(nullable = false, length = 200, name = "public_id")
     // private String publicId;
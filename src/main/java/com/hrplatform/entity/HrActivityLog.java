@@ -11,6 +11,7 @@ import java.util.UUID;
 @Table(name = "hr_activity_logs", indexes = {
         @Index(name = "idx_hr_activity_email", columnList = "hrUserEmail"),
         @Index(name = "idx_hr_activity_created", columnList = "createdAt"),
+        @Index(name = "idx_hr_activity_created_id", columnList = "createdAt, id"),
         @Index(name = "idx_hr_activity_action", columnList = "action")
 })
 @Getter
@@ -20,8 +21,9 @@ import java.util.UUID;
 @Builder
 public class HrActivityLog {
 
+    // only unique because it is generated: the partitioned primary key is (id, created_at), see V11
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @Column(nullable = false, length = 100)
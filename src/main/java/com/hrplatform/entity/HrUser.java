@@ -20,7 +20,7 @@ import java.util.UUID;
 public class HrUser {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @Column(nullable = false, unique = true, length = 100)
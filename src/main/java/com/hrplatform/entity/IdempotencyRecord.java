@@ -0,0 +1,38 @@
+package com.hrplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_expires", columnList = "expiresAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    // scoped key, e.g. "upload:<staffIdNumber>:<Idempotency-Key header>"
+    @Id
+    @Column(length = 300)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 64)
+    private String requestFingerprint; // SHA-256 hex of the request parameters
+
+    @Column(nullable = false, length = 20)
+    private String status; // IN_PROGRESS, COMPLETED
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody; // JSON of the final response, set when COMPLETED
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,51 @@
+package com.hrplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "image_processing_jobs", indexes = {
+        // one job per stored object; deduplicated submissions share it
+        @Index(name = "uk_image_job_storage_key", columnList = "storageBackend, storageKey", unique = true),
+        @Index(name = "idx_image_job_status", columnList = "status, updatedAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageProcessingJob {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false, length = 20)
+    private String storageBackend;
+
+    @Column(nullable = false, length = 500)
+    private String storageKey;
+
+    @Column(nullable = false, length = 20)
+    private String status; // PENDING, RUNNING, COMPLETED, FAILED
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    // checksum and size of the processed file, copied onto the submissions
+    @Column(length = 64)
+    private String resultChecksum;
+
+    private Long resultSize;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
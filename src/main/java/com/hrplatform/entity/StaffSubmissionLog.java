@@ -10,7 +10,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "staff_submission_logs", indexes = {
         @Index(name = "idx_staff_sub_log_staff", columnList = "staffIdNumber"),
-        @Index(name = "idx_staff_sub_log_created", columnList = "createdAt")
+        @Index(name = "idx_staff_sub_log_created", columnList = "createdAt"),
+        @Index(name = "idx_staff_sub_log_created_id", columnList = "createdAt, id")
 })
 @Getter
 @Setter
@@ -19,8 +20,9 @@ import java.util.UUID;
 @Builder
 public class StaffSubmissionLog {
 
+    // only unique because it is generated: the partitioned primary key is (id, created_at), see V11
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @Column(nullable = false, length = 50)
@@ -2,6 +2,8 @@ package com.hrplatform.exception;
 
 import com.hrplatform.dto.response.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -54,6 +56,13 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiResponse<Void>> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        log.error("Data integrity violation: {}", ex.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("The request conflicts with existing data. Please refresh and try again."));
+    }
+
     @ExceptionHandler(CloudinaryUploadException.class)
     public ResponseEntity<ApiResponse<Void>> handleCloudinaryUploadException(CloudinaryUploadException ex) {
         log.error("Cloudinary upload error: {}", ex.getMessage());
@@ -61,6 +70,27 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(VirusScanException.class)
+    public ResponseEntity<ApiResponse<Void>> handleVirusScanException(VirusScanException ex) {
+        if (ex.isInfected()) {
+            log.warn("Upload rejected by virus scan: {}", ex.getVirusName());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(ex.getMessage()));
+        }
+
+        log.error("Virus scan unavailable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error("Virus scanning is temporarily unavailable, please try again"));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<Void>> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        log.warn("Request shed: {} (retry after {}s)", ex.getMessage(), ex.getRetryAfterSeconds());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(InvalidFileTypeException.class)
     public ResponseEntity<ApiResponse<Void>> handleInvalidFileTypeException(InvalidFileTypeException ex) {
         log.error("Invalid file type: {}", ex.getMessage());
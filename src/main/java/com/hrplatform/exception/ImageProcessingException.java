@@ -0,0 +1,12 @@
+package com.hrplatform.exception;
+
+public class ImageProcessingException extends Exception {
+
+    public ImageProcessingException(String message) {
+        super(message);
+    }
+
+    public ImageProcessingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
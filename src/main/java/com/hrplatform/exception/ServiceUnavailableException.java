@@ -0,0 +1,17 @@
+package com.hrplatform.exception;
+
+import lombok.Getter;
+
+/**
+ * Load shedding: the request was not started and can be retried after retryAfterSeconds.
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,31 @@
+package com.hrplatform.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a file is infected (virusName set) or could not be scanned (virusName null).
+ */
+@Getter
+public class VirusScanException extends RuntimeException {
+
+    private final String virusName;
+
+    public VirusScanException(String message) {
+        super(message);
+        this.virusName = null;
+    }
+
+    public VirusScanException(String message, Throwable cause) {
+        super(message, cause);
+        this.virusName = null;
+    }
+
+    public VirusScanException(String message, String virusName) {
+        super(message);
+        this.virusName = virusName;
+    }
+
+    public boolean isInfected() {
+        return virusName != null;
+    }
+}
@@ -2,20 +2,33 @@ package com.hrplatform.mapper;
 
 import com.hrplatform.dto.response.DocumentUploadResponse;
 import com.hrplatform.entity.DocumentSubmission;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 public class DocumentSubmissionMapper {
 
+    @Value("${app.base-url:http://localhost:9090}")
+    private String baseUrl;
+
     public DocumentUploadResponse toUploadResponse(DocumentSubmission submission, String message) {
         return DocumentUploadResponse.builder()
                 .submissionId(submission.getId())
                 .documentName(submission.getDocumentRequirement().getDocumentName())
-                .cloudinaryUrl(submission.getCloudinaryUrl())
+                .cloudinaryUrl(resolveFileUrl(submission))
                 .fileName(submission.getFileName())
                 .fileSize(submission.getFileSize())
                 .uploadedAt(submission.getCreatedAt())
                 .message(message)
                 .build();
     }
-}
\ No newline at end of file
+
+    // Same URL StaffMapper builds: remote URL if there is one, otherwise our content endpoint
+    private String resolveFileUrl(DocumentSubmission submission) {
+        if (submission.getFileUrl() != null) {
+            return submission.getFileUrl();
+        }
+
+        return String.format("%s/api/documents/%s/content", baseUrl, submission.getId());
+    }
+}
@@ -5,6 +5,8 @@ import com.hrplatform.dto.response.SubmissionDetailsResponse;
 import com.hrplatform.dto.response.SubmissionListResponse;
 import com.hrplatform.entity.DocumentSubmission;
 import com.hrplatform.entity.Staff;
+import com.hrplatform.service.ThumbnailService;
+import com.hrplatform.util.CloudinaryFolderUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -24,6 +26,9 @@ public class StaffMapper {
     // @Value("${app.base-url:https://www.hrpo.ec.ng}")
     // private String baseUrl;
 
+    @Value("${file.thumbnail.size:256}")
+    private int thumbnailSize;
+
     public StaffValidationResponse toValidationResponse(Staff staff, Boolean isValid, String message) {
         return StaffValidationResponse.builder()
                 .staffId(staff.getId())
@@ -71,19 +76,46 @@ public class StaffMapper {
      * Constructs full file URL from relative path stored in database
      */
     private SubmissionDetailsResponse.DocumentSubmissionInfo toDocumentSubmissionInfo(DocumentSubmission submission) {
-        // CHANGED: Build full URL from filePath instead of using cloudinaryUrl
-        String fileUrl = buildFileUrl(submission.getFilePath());
+        // Local files are streamed by DocumentContentController; remote backends
+        // such as Cloudinary hand back their own public URL
+        String fileUrl = submission.getFileUrl() != null
+                ? submission.getFileUrl()
+                : buildContentUrl(submission);
 
         return SubmissionDetailsResponse.DocumentSubmissionInfo.builder()
                 .submissionId(submission.getId())
                 .documentName(submission.getDocumentRequirement().getDocumentName())
-                .cloudinaryUrl(fileUrl)  // CHANGED: Now contains local server URL
+                .cloudinaryUrl(fileUrl)  // the storage backend's URL, whichever backend that is
+                .thumbnailUrl(buildThumbnailUrl(submission))
                 .fileName(submission.getFileName())
                 .fileSize(submission.getFileSize())
                 .uploadedAt(submission.getCreatedAt())
                 .build();
     }
 
+    /**
+     * Build the download URL served by GET /api/documents/{submissionId}/content
+     */
+    private String buildContentUrl(DocumentSubmission submission) {
+        return String.format("%s/api/documents/%s/content", baseUrl, submission.getId());
+    }
+
+    /**
+     * Build the preview URL: GET /api/documents/{submissionId}/thumbnail for local files,
+     * a Cloudinary transformation URL for remote ones
+     */
+    private String buildThumbnailUrl(DocumentSubmission submission) {
+        if (!ThumbnailService.supports(submission.getMimeType())) {
+            return null;
+        }
+
+        if (submission.getFileUrl() != null) {
+            return CloudinaryFolderUtil.buildThumbnailUrl(submission.getFileUrl(), thumbnailSize);
+        }
+
+        return String.format("%s/api/documents/%s/thumbnail", baseUrl, submission.getId());
+    }
+
     /**
      * Build full file URL from relative path
      *
@@ -95,6 +127,7 @@ public class StaffMapper {
      *   Input:  "engineering/john_doe_resume_12345.pdf"
      *   Output: "https://www.hrpo.ec.ng/api/files/view?path=engineering/john_doe_resume_12345.pdf"
      */
+    @SuppressWarnings("unused")
     private String buildFileUrl(String filePath) {
         if (filePath == null || filePath.isEmpty()) {
             log.warn("⚠️ File path is null or empty");
@@ -163,7 +196,8 @@ public class StaffMapper {
  * MIGRATION NOTES:
  *
  * 1. The field name "cloudinaryUrl" is kept in DTO for backward compatibility
- * 2. The actual value now contains your server URL, not Cloudinary
+ * 2. The value is the configured StorageBackend's URL: Cloudinary's by default, the
+ *    /api/documents/{id}/content for locally stored files
  * 3. Frontend code doesn't need changes - it still receives a full URL
  * 4. Just switch the base-url property when deploying to production
  *
@@ -0,0 +1,101 @@
+package com.hrplatform.repository;
+
+import com.hrplatform.entity.BackgroundJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BackgroundJobRepository extends JpaRepository<BackgroundJob, UUID> {
+
+    // All job timestamps come from the database clock (LOCALTIMESTAMP), never from the JVM:
+    // leases are compared across nodes, so a node with a skewed clock must not be able to
+    // hand out leases that are already expired, or steal jobs whose lease has not run out.
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO background_jobs (id, job_type, payload, status, attempts, run_at, created_at, updated_at) " +
+            "VALUES (:id, :jobType, :payload, 'PENDING', 0, LOCALTIMESTAMP, LOCALTIMESTAMP, LOCALTIMESTAMP)",
+            nativeQuery = true)
+    void insertPending(@Param("id") UUID id,
+                       @Param("jobType") String jobType,
+                       @Param("payload") String payload);
+
+    // Row-locks up to :limit due jobs, skipping rows another node is claiming right now.
+    // Only meaningful inside a transaction that marks them claimed before it commits.
+    @Query(value = "SELECT id FROM background_jobs " +
+            "WHERE job_type = :jobType AND status = 'PENDING' AND run_at <= LOCALTIMESTAMP " +
+            "ORDER BY run_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockDue(@Param("jobType") String jobType,
+                       @Param("limit") int limit);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE background_jobs SET status = 'RUNNING', attempts = attempts + 1, locked_by = :owner, " +
+            "lock_token = :token, locked_until = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds), " +
+            "updated_at = LOCALTIMESTAMP WHERE id IN (:ids)", nativeQuery = true)
+    void markClaimed(@Param("ids") Collection<UUID> ids,
+                     @Param("owner") String owner,
+                     @Param("token") UUID token,
+                     @Param("leaseSeconds") long leaseSeconds);
+
+    // Heartbeat for jobs this node is still running, one call per claim. Fenced on the claim
+    // token, so a run whose lease expired cannot keep renewing a later claim of its job.
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE background_jobs SET locked_until = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds) " +
+            "WHERE id IN (:ids) AND status = 'RUNNING' AND lock_token = :token", nativeQuery = true)
+    int extendLeases(@Param("ids") Collection<UUID> ids,
+                     @Param("token") UUID token,
+                     @Param("leaseSeconds") long leaseSeconds);
+
+    // The fencing check: a worker whose lease ran out and whose job was claimed again must not finish it
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BackgroundJob j WHERE j.id = :id AND j.lockToken = :token")
+    int deleteCompleted(@Param("id") UUID id, @Param("token") UUID token);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE background_jobs SET status = 'PENDING', " +
+            "run_at = LOCALTIMESTAMP + make_interval(secs => :delaySeconds), last_error = :error, " +
+            "locked_by = NULL, lock_token = NULL, locked_until = NULL, updated_at = LOCALTIMESTAMP " +
+            "WHERE id = :id AND lock_token = :token", nativeQuery = true)
+    int scheduleRetry(@Param("id") UUID id,
+                      @Param("token") UUID token,
+                      @Param("delaySeconds") double delaySeconds,
+                      @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE background_jobs SET status = 'DEAD', last_error = :error, " +
+            "locked_by = NULL, lock_token = NULL, locked_until = NULL, updated_at = LOCALTIMESTAMP " +
+            "WHERE id = :id AND lock_token = :token", nativeQuery = true)
+    int markDead(@Param("id") UUID id,
+                 @Param("token") UUID token,
+                 @Param("error") String error);
+
+    // RUNNING jobs whose worker stopped renewing the lease (crash, kill -9) go back to the queue
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE background_jobs SET status = 'PENDING', run_at = LOCALTIMESTAMP, last_error = 'Lease expired', " +
+            "locked_by = NULL, lock_token = NULL, locked_until = NULL, updated_at = LOCALTIMESTAMP " +
+            "WHERE status = 'RUNNING' AND locked_until < LOCALTIMESTAMP", nativeQuery = true)
+    int requeueExpired();
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM background_jobs WHERE status = 'DEAD' " +
+            "AND updated_at < LOCALTIMESTAMP - make_interval(days => :retentionDays)", nativeQuery = true)
+    int deleteDeadBefore(@Param("retentionDays") int retentionDays);
+
+    @Query("SELECT j.jobType, j.status, COUNT(j) FROM BackgroundJob j GROUP BY j.jobType, j.status")
+    List<Object[]> countByTypeAndStatus();
+}
@@ -0,0 +1,52 @@
+package com.hrplatform.repository;
+
+import com.hrplatform.entity.ContentObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ContentObjectRepository extends JpaRepository<ContentObject, UUID> {
+
+    Optional<ContentObject> findByContentHashAndStorageBackend(String contentHash, String storageBackend);
+
+    // Returns 1 if the row was created, 0 if another upload indexed the same content first
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO content_objects (id, content_hash, storage_backend, storage_key, file_url, size, ref_count, created_at) " +
+            "VALUES (:id, :contentHash, :storageBackend, :storageKey, :fileUrl, :size, 1, :now) " +
+            "ON CONFLICT (content_hash, storage_backend) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+                       @Param("contentHash") String contentHash,
+                       @Param("storageBackend") String storageBackend,
+                       @Param("storageKey") String storageKey,
+                       @Param("fileUrl") String fileUrl,
+                       @Param("size") long size,
+                       @Param("now") LocalDateTime now);
+
+    // Only live objects can gain references; a row at 0 is about to be deleted
+    @Modifying
+    @Transactional
+    @Query("UPDATE ContentObject c SET c.refCount = c.refCount + 1 " +
+            "WHERE c.contentHash = :contentHash AND c.storageBackend = :storageBackend AND c.refCount > 0")
+    int acquire(@Param("contentHash") String contentHash, @Param("storageBackend") String storageBackend);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ContentObject c SET c.refCount = c.refCount - 1 " +
+            "WHERE c.contentHash = :contentHash AND c.storageBackend = :storageBackend AND c.refCount > 0")
+    int release(@Param("contentHash") String contentHash, @Param("storageBackend") String storageBackend);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ContentObject c " +
+            "WHERE c.contentHash = :contentHash AND c.storageBackend = :storageBackend AND c.refCount <= 0")
+    int deleteUnreferenced(@Param("contentHash") String contentHash, @Param("storageBackend") String storageBackend);
+}
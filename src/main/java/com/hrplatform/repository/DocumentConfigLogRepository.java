@@ -26,6 +26,31 @@ public interface DocumentConfigLogRepository extends JpaRepository<DocumentConfi
     List<DocumentConfigLog> findByDateRange(@Param("startDate") LocalDateTime startDate,
                                             @Param("endDate") LocalDateTime endDate);
 
+    // Bounded on the partition key so only the matching monthly partitions are scanned
+    @Query("SELECT dcl FROM DocumentConfigLog dcl " +
+            "WHERE dcl.createdAt >= :startDate AND dcl.createdAt < :endDate")
+    Page<DocumentConfigLog> findByDateRange(@Param("startDate") LocalDateTime startDate,
+                                            @Param("endDate") LocalDateTime endDate,
+                                            Pageable pageable);
+
+    // Keyset paging over (createdAt, id), newest first
+    @Query("SELECT dcl FROM DocumentConfigLog dcl " +
+            "WHERE dcl.createdAt >= :startDate AND dcl.createdAt < :endDate " +
+            "ORDER BY dcl.createdAt DESC, dcl.id DESC")
+    List<DocumentConfigLog> findFirstPage(@Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate,
+                                          Pageable pageable);
+
+    @Query("SELECT dcl FROM DocumentConfigLog dcl " +
+            "WHERE dcl.createdAt >= :startDate AND dcl.createdAt < :endDate " +
+            "AND (dcl.createdAt, dcl.id) < (:cursorCreatedAt, :cursorId) " +
+            "ORDER BY dcl.createdAt DESC, dcl.id DESC")
+    List<DocumentConfigLog> findPageAfter(@Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate,
+                                          @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                          @Param("cursorId") UUID cursorId,
+                                          Pageable pageable);
+
     @Query("SELECT dcl FROM DocumentConfigLog dcl " +
             "WHERE dcl.departmentName = :departmentName " +
             "AND dcl.createdAt BETWEEN :startDate AND :endDate")
@@ -27,5 +27,9 @@ public interface DocumentRequirementRepository extends JpaRepository<DocumentReq
     @Query("SELECT COUNT(dr) FROM DocumentRequirement dr WHERE dr.department.id = :departmentId AND dr.isRequired = true")
     Long countRequiredDocumentsByDepartment(@Param("departmentId") UUID departmentId);
 
-    boolean existsByDepartmentIdAndDocumentNameIgnoreCase(UUID departmentId, String documentName);
+    // LOWER rather than the derived query's UPPER, to use idx_doc_req_dept_name_lower
+    @Query("SELECT COUNT(dr) > 0 FROM DocumentRequirement dr WHERE dr.department.id = :departmentId " +
+            "AND LOWER(dr.documentName) = LOWER(:documentName)")
+    boolean existsByDepartmentIdAndDocumentNameIgnoreCase(@Param("departmentId") UUID departmentId,
+                                                          @Param("documentName") String documentName);
 }
\ No newline at end of file
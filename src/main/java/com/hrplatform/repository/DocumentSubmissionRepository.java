@@ -4,11 +4,14 @@ import com.hrplatform.entity.DocumentSubmission;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -46,8 +49,37 @@ public interface DocumentSubmissionRepository extends JpaRepository<DocumentSubm
             "WHERE s.id = :staffId")
     List<DocumentSubmission> findByStaffIdWithDetails(@Param("staffId") UUID staffId);
 
+    @Query("SELECT ds FROM DocumentSubmission ds " +
+            "JOIN FETCH ds.staff s " +
+            "JOIN FETCH ds.documentRequirement dr " +
+            "WHERE s.department.id = :departmentId " +
+            "ORDER BY s.fullName, s.staffIdNumber, dr.documentName")
+    List<DocumentSubmission> findByDepartmentIdWithDetails(@Param("departmentId") UUID departmentId);
+
     boolean existsByStaffIdAndDocumentRequirementId(UUID staffId, UUID requirementId);
 
+    @Query("SELECT ds.documentRequirement.id FROM DocumentSubmission ds " +
+            "WHERE ds.staff.id = :staffId AND ds.documentRequirement.id IN :requirementIds")
+    List<UUID> findSubmittedRequirementIds(@Param("staffId") UUID staffId,
+                                           @Param("requirementIds") Collection<UUID> requirementIds);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE DocumentSubmission ds SET ds.processingStatus = :status WHERE ds.id = :id")
+    void updateProcessingStatus(@Param("id") UUID id, @Param("status") String status);
+
+    // Applies to every submission sharing the processed object (see ContentStoreService)
+    @Modifying
+    @Transactional
+    @Query("UPDATE DocumentSubmission ds SET ds.processingStatus = :status, " +
+            "ds.checksum = COALESCE(:checksum, ds.checksum), ds.fileSize = COALESCE(:size, ds.fileSize) " +
+            "WHERE ds.storageBackend = :storageBackend AND ds.filePath = :filePath")
+    int applyProcessingResult(@Param("storageBackend") String storageBackend,
+                              @Param("filePath") String filePath,
+                              @Param("status") String status,
+                              @Param("checksum") String checksum,
+                              @Param("size") Long size);
+
     // New method to support re-upload functionality
     Optional<DocumentSubmission> findByStaffIdAndDocumentRequirementId(UUID staffId, UUID requirementId);
 
@@ -27,6 +27,31 @@ public interface HrActivityLogRepository extends JpaRepository<HrActivityLog, UU
     List<HrActivityLog> findByDateRange(@Param("startDate") LocalDateTime startDate,
                                         @Param("endDate") LocalDateTime endDate);
 
+    // Bounded on the partition key so only the matching monthly partitions are scanned
+    @Query("SELECT hal FROM HrActivityLog hal " +
+            "WHERE hal.createdAt >= :startDate AND hal.createdAt < :endDate")
+    Page<HrActivityLog> findByDateRange(@Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate,
+                                        Pageable pageable);
+
+    // Keyset paging over (createdAt, id), newest first
+    @Query("SELECT hal FROM HrActivityLog hal " +
+            "WHERE hal.createdAt >= :startDate AND hal.createdAt < :endDate " +
+            "ORDER BY hal.createdAt DESC, hal.id DESC")
+    List<HrActivityLog> findFirstPage(@Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate,
+                                      Pageable pageable);
+
+    @Query("SELECT hal FROM HrActivityLog hal " +
+            "WHERE hal.createdAt >= :startDate AND hal.createdAt < :endDate " +
+            "AND (hal.createdAt, hal.id) < (:cursorCreatedAt, :cursorId) " +
+            "ORDER BY hal.createdAt DESC, hal.id DESC")
+    List<HrActivityLog> findPageAfter(@Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate,
+                                      @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                      @Param("cursorId") UUID cursorId,
+                                      Pageable pageable);
+
     @Query("SELECT hal FROM HrActivityLog hal WHERE hal.hrUserEmail = :email " +
             "AND hal.createdAt BETWEEN :startDate AND :endDate")
     List<HrActivityLog> findByHrUserEmailAndDateRange(@Param("email") String email,
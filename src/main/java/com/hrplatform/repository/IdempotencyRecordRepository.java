@@ -0,0 +1,54 @@
+package com.hrplatform.repository;
+
+import com.hrplatform.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Atomic claim: returns 1 if this caller now owns the key, 0 if someone else already does.
+    // An expired row the cleanup job has not deleted yet is taken over as if it were absent.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, request_fingerprint, status, created_at, expires_at) " +
+            "VALUES (:key, :fingerprint, 'IN_PROGRESS', :now, :expiresAt) " +
+            "ON CONFLICT (idempotency_key) DO UPDATE SET request_fingerprint = EXCLUDED.request_fingerprint, " +
+            "status = 'IN_PROGRESS', response_body = NULL, created_at = EXCLUDED.created_at, " +
+            "expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at <= EXCLUDED.created_at", nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("fingerprint") String fingerprint,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseBody = :responseBody, " +
+            "r.expiresAt = :expiresAt WHERE r.idempotencyKey = :key")
+    void markCompleted(@Param("key") String key,
+                       @Param("responseBody") String responseBody,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.status = 'IN_PROGRESS'")
+    int releaseInProgress(@Param("key") String key);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.status = 'IN_PROGRESS' " +
+            "AND r.createdAt < :staleBefore")
+    int releaseStale(@Param("key") String key, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
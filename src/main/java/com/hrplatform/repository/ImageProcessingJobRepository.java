@@ -0,0 +1,53 @@
+package com.hrplatform.repository;
+
+import com.hrplatform.entity.ImageProcessingJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ImageProcessingJobRepository extends JpaRepository<ImageProcessingJob, UUID> {
+
+    Optional<ImageProcessingJob> findByStorageBackendAndStorageKey(String storageBackend, String storageKey);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO image_processing_jobs (id, storage_backend, storage_key, status, attempts, created_at, updated_at) " +
+            "VALUES (:id, :storageBackend, :storageKey, 'PENDING', 0, :now, :now) " +
+            "ON CONFLICT (storage_backend, storage_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+                       @Param("storageBackend") String storageBackend,
+                       @Param("storageKey") String storageKey,
+                       @Param("now") LocalDateTime now);
+
+    // A redelivered queue job for an object that is already processed finds nothing to do
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImageProcessingJob j SET j.status = 'RUNNING', j.attempts = j.attempts + 1, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.status <> 'COMPLETED'")
+    int markRunning(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImageProcessingJob j SET j.status = 'COMPLETED', j.resultChecksum = :checksum, " +
+            "j.resultSize = :size, j.lastError = null, j.updatedAt = :now WHERE j.id = :id")
+    void markCompleted(@Param("id") UUID id,
+                       @Param("checksum") String checksum,
+                       @Param("size") long size,
+                       @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImageProcessingJob j SET j.status = :status, j.lastError = :error, j.updatedAt = :now WHERE j.id = :id")
+    void markFailedAttempt(@Param("id") UUID id,
+                           @Param("status") String status,
+                           @Param("error") String error,
+                           @Param("now") LocalDateTime now);
+}
@@ -19,6 +19,9 @@ public interface StaffRepository extends JpaRepository<Staff, UUID> {
     @Query("SELECT s FROM Staff s WHERE LOWER(s.staffIdNumber) = LOWER(:staffIdNumber)")
     Optional<Staff> findByStaffIdNumberIgnoreCase(@Param("staffIdNumber") String staffIdNumber);
 
+    @Query("SELECT d.name FROM Staff s JOIN s.department d WHERE LOWER(s.staffIdNumber) = LOWER(:staffIdNumber)")
+    Optional<String> findDepartmentNameByStaffIdNumber(@Param("staffIdNumber") String staffIdNumber);
+
     @Query("SELECT s FROM Staff s WHERE LOWER(s.email) = LOWER(:email)")
     Optional<Staff> findByEmailIgnoreCase(@Param("email") String email);
 
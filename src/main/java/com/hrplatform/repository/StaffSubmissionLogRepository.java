@@ -26,4 +26,29 @@ public interface StaffSubmissionLogRepository extends JpaRepository<StaffSubmiss
             "WHERE ssl.createdAt BETWEEN :startDate AND :endDate")
     List<StaffSubmissionLog> findByDateRange(@Param("startDate") LocalDateTime startDate,
                                              @Param("endDate") LocalDateTime endDate);
+
+    // Bounded on the partition key so only the matching monthly partitions are scanned
+    @Query("SELECT ssl FROM StaffSubmissionLog ssl " +
+            "WHERE ssl.createdAt >= :startDate AND ssl.createdAt < :endDate")
+    Page<StaffSubmissionLog> findByDateRange(@Param("startDate") LocalDateTime startDate,
+                                             @Param("endDate") LocalDateTime endDate,
+                                             Pageable pageable);
+
+    // Keyset paging over (createdAt, id), newest first
+    @Query("SELECT ssl FROM StaffSubmissionLog ssl " +
+            "WHERE ssl.createdAt >= :startDate AND ssl.createdAt < :endDate " +
+            "ORDER BY ssl.createdAt DESC, ssl.id DESC")
+    List<StaffSubmissionLog> findFirstPage(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate,
+                                           Pageable pageable);
+
+    @Query("SELECT ssl FROM StaffSubmissionLog ssl " +
+            "WHERE ssl.createdAt >= :startDate AND ssl.createdAt < :endDate " +
+            "AND (ssl.createdAt, ssl.id) < (:cursorCreatedAt, :cursorId) " +
+            "ORDER BY ssl.createdAt DESC, ssl.id DESC")
+    List<StaffSubmissionLog> findPageAfter(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate,
+                                           @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                           @Param("cursorId") UUID cursorId,
+                                           Pageable pageable);
 }
\ No newline at end of file
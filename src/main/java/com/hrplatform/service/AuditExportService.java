@@ -0,0 +1,13 @@
+package com.hrplatform.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface AuditExportService {
+
+    void validateExport(String logType, String format);
+
+    long streamLogs(String logType, String format, LocalDateTime startDate, LocalDateTime endDate,
+                    OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,10 @@
+package com.hrplatform.service;
+
+import java.util.List;
+
+public interface AuditPartitionService {
+
+    void ensureFuturePartitions();
+
+    List<String> archiveExpiredPartitions();
+}
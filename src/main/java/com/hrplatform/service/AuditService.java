@@ -1,6 +1,7 @@
 package com.hrplatform.service;
 
 import com.hrplatform.dto.response.AuditLogResponse;
+import com.hrplatform.dto.response.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -21,11 +22,17 @@ public interface AuditService {
 
     void logExport(String hrUserEmail, String departmentFilter, Integer totalRecords);
 
-    Page<AuditLogResponse> getHrActivityLogs(Pageable pageable);
+    Page<AuditLogResponse> getHrActivityLogs(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
 
-    Page<AuditLogResponse> getStaffSubmissionLogs(Pageable pageable);
+    Page<AuditLogResponse> getStaffSubmissionLogs(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
 
-    Page<AuditLogResponse> getDocumentConfigLogs(Pageable pageable);
+    Page<AuditLogResponse> getDocumentConfigLogs(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
 
     List<AuditLogResponse> getHrActivityLogsByDateRange(LocalDateTime startDate, LocalDateTime endDate);
+
+    CursorPageResponse<AuditLogResponse> getHrActivityLogsAfter(LocalDateTime startDate, LocalDateTime endDate, String cursor, int size);
+
+    CursorPageResponse<AuditLogResponse> getStaffSubmissionLogsAfter(LocalDateTime startDate, LocalDateTime endDate, String cursor, int size);
+
+    CursorPageResponse<AuditLogResponse> getDocumentConfigLogsAfter(LocalDateTime startDate, LocalDateTime endDate, String cursor, int size);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.hrplatform.service;
+
+public interface CacheInvalidationService {
+
+    /**
+     * Drops key from cacheName on every node once the current transaction commits (right
+     * away outside a transaction). Nothing is dropped if the transaction rolls back.
+     */
+    void evict(String cacheName, Object key);
+
+    /**
+     * Like {@link #evict}, for every entry of cacheName.
+     */
+    void clear(String cacheName);
+}
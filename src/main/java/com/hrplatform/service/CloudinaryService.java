@@ -12,6 +12,8 @@ public interface CloudinaryService {
 
     Map<String, Object> uploadFile(MultipartFile file, String folder, String customPublicId) throws Exception;
 
+    Map<String, Object> uploadFile(byte[] content, String folder, String customPublicId) throws Exception;
+
     void deleteFile(String publicId) throws Exception;
 
     CloudinarySignatureResponse generateUploadSignature(String staffIdNumber, UUID departmentId, String fileName);
@@ -0,0 +1,30 @@
+package com.hrplatform.service;
+
+import com.hrplatform.exception.FileStorageException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+
+/**
+ * Content-addressed layer over the StorageBackend: identical files are stored once and
+ * shared between submissions by reference count.
+ */
+public interface ContentStoreService {
+
+    /**
+     * Stores the file, or takes another reference to an existing object with the same SHA-256.
+     * The returned StoredFile always carries the checksum.
+     */
+    StorageBackend.StoredFile store(MultipartFile file, String folder, String fileName) throws FileStorageException;
+
+    /**
+     * Single-pass variant for streamed uploads: the content is hashed while it is written,
+     * so duplicates are only detected afterwards and the fresh copy is then dropped.
+     */
+    StorageBackend.StoredFile store(InputStream content, String folder, String fileName, String extension) throws FileStorageException;
+
+    /**
+     * Drops one reference; the underlying object is deleted once nothing points at it.
+     */
+    void release(String checksum, String storageKey) throws FileStorageException;
+}
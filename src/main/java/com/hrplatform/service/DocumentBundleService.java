@@ -0,0 +1,38 @@
+package com.hrplatform.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+
+public interface DocumentBundleService {
+
+    DocumentBundle prepareStaffBundle(UUID staffId);
+
+    DocumentBundle prepareDepartmentBundle(UUID departmentId);
+
+    /**
+     * Streams the bundle as a ZIP. Returns the number of documents written.
+     */
+    int writeBundle(DocumentBundle bundle, OutputStream outputStream) throws IOException;
+
+    @Getter
+    @Builder
+    class DocumentBundle {
+        private final String fileName;
+        private final String departmentName;
+        private final List<BundleEntry> entries;
+    }
+
+    @Getter
+    @Builder
+    class BundleEntry {
+        private final String entryName;
+        private final String storageBackend;
+        private final String filePath;
+        private final String fileUrl;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hrplatform.service;
+
+import com.hrplatform.exception.FileStorageException;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+public interface DocumentContentService {
+
+    DocumentContent getContent(UUID submissionId) throws FileStorageException;
+
+    @Getter
+    @Builder
+    class DocumentContent {
+        private final String fileName;
+        private final String mimeType;
+        private final long size;
+        // quoted strong ETag
+        private final String etag;
+        private final Instant lastModified;
+        // set for locally stored files
+        private final Path localPath;
+        // set for files that live on a remote backend (Cloudinary)
+        private final String remoteUrl;
+    }
+}
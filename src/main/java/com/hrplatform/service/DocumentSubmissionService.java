@@ -6,6 +6,7 @@ import com.hrplatform.entity.Staff;
 import com.hrplatform.exception.FileStorageException;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,6 +14,13 @@ public interface DocumentSubmissionService {
 
     DocumentUploadResponse uploadDocument(String staffIdNumber, DocumentUploadRequest request) throws FileStorageException;
 
+    /**
+     * Upload from a multipart part stream that is read exactly once: sniffing, hashing,
+     * virus scanning and storage all happen in the same pass.
+     */
+    DocumentUploadResponse uploadDocumentStream(String staffIdNumber, UUID documentRequirementId,
+                                                String originalFilename, InputStream content) throws FileStorageException;
+
 
     Long countTotalSubmissions();
 
@@ -0,0 +1,26 @@
+package com.hrplatform.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+public interface IdempotencyService {
+
+    /**
+     * Run the call at most once per key. A completed key replays its stored response,
+     * and a key that is still running (here or on another node) is waited on instead
+     * of being executed again.
+     *
+     * @param key          scoped idempotency key
+     * @param fingerprint  hash of the request parameters, see {@link #fingerprint(Object...)}
+     * @param responseType type used to replay the stored JSON response
+     * @param call         the actual work
+     */
+    <T, E extends Exception> T execute(String key, String fingerprint, TypeReference<T> responseType,
+                                       IdempotentCall<T, E> call) throws E;
+
+    String fingerprint(Object... parts);
+
+    @FunctionalInterface
+    interface IdempotentCall<T, E extends Exception> {
+        T call() throws E;
+    }
+}
@@ -0,0 +1,12 @@
+package com.hrplatform.service;
+
+import com.hrplatform.entity.DocumentSubmission;
+
+public interface ImageProcessingQueueService {
+
+    /**
+     * Queues background sanitization for a newly saved submission if it is an image.
+     * When called inside a transaction the job is queued after commit.
+     */
+    void enqueue(DocumentSubmission submission);
+}
@@ -0,0 +1,23 @@
+package com.hrplatform.service;
+
+import com.hrplatform.exception.ImageProcessingException;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+public interface ImageProcessingService {
+
+    /**
+     * Strips metadata and downsizes an image in place. Non-image files are left untouched.
+     *
+     * @param imageFile JPEG or PNG file to sanitize
+     * @throws ImageProcessingException if the image cannot be decoded or rewritten
+     */
+    void processImage(File imageFile) throws ImageProcessingException;
+
+    /**
+     * Decodes an image scaled to fit within maxDimension, without materialising the
+     * full-resolution bitmap.
+     */
+    BufferedImage decodeScaled(File imageFile, int maxDimension) throws ImageProcessingException;
+}
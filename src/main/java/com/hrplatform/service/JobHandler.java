@@ -0,0 +1,35 @@
+package com.hrplatform.service;
+
+import com.hrplatform.entity.BackgroundJob;
+
+/**
+ * Runs one type of job from the durable queue (see {@link JobQueueService}).
+ *
+ * Delivery is at least once: if a worker dies or loses its lease mid-job, the job is
+ * handed out again, so handle() must be safe to repeat.
+ */
+public interface JobHandler {
+
+    String getType();
+
+    /**
+     * Jobs of this type running at once on each node.
+     */
+    int getConcurrency();
+
+    /**
+     * Attempts before the job is dead-lettered, counting the first.
+     */
+    int getMaxAttempts();
+
+    /**
+     * Throwing schedules a retry with backoff, or dead-letters the job on the last attempt.
+     */
+    void handle(BackgroundJob job) throws Exception;
+
+    /**
+     * Called in the same transaction that marks the job DEAD.
+     */
+    default void onDeadLetter(BackgroundJob job, String error) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.hrplatform.service;
+
+import java.util.UUID;
+
+public interface JobQueueService {
+
+    /**
+     * Queues a job for the handler registered under jobType. Inside a transaction the job
+     * row commits or rolls back with the caller's other writes, and workers are woken once
+     * it has committed.
+     */
+    UUID enqueue(String jobType, String payload);
+
+    /**
+     * Claims due jobs for every handler with free worker slots and starts them, and puts
+     * jobs whose lease expired back in the queue.
+     */
+    void dispatch();
+}
@@ -0,0 +1,34 @@
+package com.hrplatform.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+public interface SchedulerLockService {
+
+    /**
+     * Takes the named cluster-wide lock if no node holds it. The lease is renewed in the
+     * background until the returned handle is closed.
+     *
+     * @param lease        how long the lock survives its holder going silent
+     * @param lockAtLeast  the lock is not released before this long after acquiring it
+     * @return the held lock, or empty if another node holds it
+     */
+    Optional<Lease> tryAcquire(String name, Duration lease, Duration lockAtLeast);
+
+    /**
+     * Fencing check before destructive work: throws IllegalStateException if the lock this
+     * thread acquired has since been taken over by another node. A no-op outside a lock.
+     */
+    void assertStillHeld();
+
+    interface Lease extends AutoCloseable {
+
+        String getName();
+
+        // grows with every acquisition of this lock, by any node
+        long getFencingToken();
+
+        @Override
+        void close();
+    }
+}
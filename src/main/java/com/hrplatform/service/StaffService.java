@@ -18,6 +18,9 @@ public interface StaffService {
 
     Staff findByStaffIdNumber(String staffIdNumber);
 
+    // null when the staff member is unknown or has not selected a department yet
+    String findDepartmentName(String staffIdNumber);
+
     Staff findById(UUID id);
 
     SubmissionDetailsResponse getStaffSubmissionDetails(UUID staffId);
@@ -0,0 +1,41 @@
+package com.hrplatform.service;
+
+import com.hrplatform.exception.FileStorageException;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+
+/**
+ * Where submitted document bytes live. The returned storage key is what gets
+ * persisted in DocumentSubmission.filePath.
+ */
+public interface StorageBackend {
+
+    String LOCAL = "local";
+    String CLOUDINARY = "cloudinary";
+
+    StoredFile store(MultipartFile file, String folder, String fileName) throws FileStorageException;
+
+    /**
+     * Stores content that can only be read once (a streamed multipart part). The stream is
+     * read to the end; the size is whatever it produced.
+     */
+    StoredFile store(InputStream content, String folder, String fileName, String extension) throws FileStorageException;
+
+    void delete(String storageKey) throws FileStorageException;
+
+    String getName();
+
+    @Getter
+    @Builder
+    class StoredFile {
+        private final String storageKey;
+        // public URL for remote backends, null when the file is served by this application
+        private final String url;
+        private final long size;
+        // hex SHA-256 of the content, filled in by ContentStoreService
+        private final String checksum;
+    }
+}
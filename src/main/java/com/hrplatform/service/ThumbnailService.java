@@ -0,0 +1,35 @@
+package com.hrplatform.service;
+
+import com.hrplatform.exception.FileStorageException;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.UUID;
+
+public interface ThumbnailService {
+
+    Set<String> SUPPORTED_MIME_TYPES = Set.of("image/jpeg", "image/png", "application/pdf");
+
+    /**
+     * Returns the cached thumbnail for a submission, rendering it on first request.
+     */
+    Thumbnail getThumbnail(UUID submissionId) throws FileStorageException;
+
+    static boolean supports(String mimeType) {
+        return mimeType != null && SUPPORTED_MIME_TYPES.contains(mimeType);
+    }
+
+    @Getter
+    @Builder
+    class Thumbnail {
+        // set for locally rendered thumbnails
+        private final Path path;
+        private final long size;
+        // quoted strong ETag, derived from the source document's ETag
+        private final String etag;
+        // set for remote backends that render their own previews (Cloudinary)
+        private final String remoteUrl;
+    }
+}
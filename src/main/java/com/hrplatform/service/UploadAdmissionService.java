@@ -0,0 +1,23 @@
+package com.hrplatform.service;
+
+/**
+ * Bounds how many uploaded files are processed at once so upload bursts are shed with
+ * 503 + Retry-After instead of spilling onto request threads shared with other endpoints.
+ */
+public interface UploadAdmissionService {
+
+    /**
+     * Admits an upload of the given number of files for a department, waiting briefly for
+     * capacity. Capacity is shared fairly between departments; null stands for staff
+     * without one.
+     *
+     * @throws com.hrplatform.exception.ServiceUnavailableException when uploads are saturated
+     */
+    Permit admit(String department, int files);
+
+    interface Permit extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -3,6 +3,8 @@ package com.hrplatform.service;
 import com.hrplatform.exception.VirusScanException;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.OutputStream;
+
 /**
  * Virus scanning service interface
  *
@@ -21,6 +23,15 @@ public interface VirusScanService {
      */
     void scanFile(MultipartFile file) throws VirusScanException;
 
+    /**
+     * Start a scan that is fed while an upload streams through, for content that
+     * can only be read once. Returns a no-op scan when scanning is disabled.
+     *
+     * @return stream to write the content to; close it to abandon the scan
+     * @throws VirusScanException if the scanner cannot be reached
+     */
+    StreamScan openStreamScan() throws VirusScanException;
+
     /**
      * Check if virus scanning is enabled
      *
@@ -34,6 +45,16 @@ public interface VirusScanService {
      * @return true if scanner is available, false otherwise
      */
     boolean testConnection();
+
+    abstract class StreamScan extends OutputStream {
+
+        /**
+         * Ends the stream and waits for the verdict
+         *
+         * @throws VirusScanException if virus detected or scan fails
+         */
+        public abstract void finish(String fileName, String checksum) throws VirusScanException;
+    }
 }
 
 /*
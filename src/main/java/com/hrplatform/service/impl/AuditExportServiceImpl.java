@@ -0,0 +1,138 @@
+package com.hrplatform.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hrplatform.dto.response.AuditLogResponse;
+import com.hrplatform.exception.BadRequestException;
+import com.hrplatform.service.AuditExportService;
+import com.hrplatform.util.StringUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streams audit rows straight from a forward-only JDBC cursor to the response,
+ * one row at a time, so memory stays flat no matter how wide the date range is.
+ */
+@Service
+@Slf4j
+public class AuditExportServiceImpl implements AuditExportService {
+
+    // Columns are aliased to the AuditLogResponse fields, same mapping as AuditLogMapper
+    private static final Map<String, String> EXPORT_QUERIES = Map.of(
+            "hr-activity",
+            "SELECT id, hr_user_email AS user_email, action, target_department, details, created_at " +
+                    "FROM hr_activity_logs WHERE created_at >= ? AND created_at < ? ORDER BY created_at, id",
+            "staff-submission",
+            "SELECT id, staff_id_number AS user_email, action, department_name AS target_department, details, created_at " +
+                    "FROM staff_submission_logs WHERE created_at >= ? AND created_at < ? ORDER BY created_at, id",
+            "document-config",
+            "SELECT id, hr_user_email AS user_email, action, department_name AS target_department, details, created_at " +
+                    "FROM document_config_logs WHERE created_at >= ? AND created_at < ? ORDER BY created_at, id"
+    );
+
+    private static final String CSV_HEADER = "id,userEmail,action,targetDepartment,details,timestamp\n";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter ndjsonWriter;
+
+    // streams run on a StreamingResponseBody thread, outside the request's route binding
+    public AuditExportServiceImpl(@Qualifier("exportDataSource") DataSource dataSource,
+                                  ObjectMapper objectMapper,
+                                  @Value("${audit.export.fetch-size:500}") int fetchSize,
+                                  @Value("${audit.export.timeout-seconds:1800}") int timeoutSeconds) {
+
+        // PostgreSQL only uses a server-side cursor with a fetch size inside a transaction
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+
+        this.readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout(timeoutSeconds);
+
+        this.ndjsonWriter = objectMapper.writerFor(AuditLogResponse.class);
+    }
+
+    @Override
+    public void validateExport(String logType, String format) {
+        if (!EXPORT_QUERIES.containsKey(logType)) {
+            throw new BadRequestException("Unknown audit log type: " + logType);
+        }
+
+        if (!"ndjson".equalsIgnoreCase(format) && !"csv".equalsIgnoreCase(format)) {
+            throw new BadRequestException("Unsupported export format: " + format + ". Use ndjson or csv");
+        }
+    }
+
+    @Override
+    public long streamLogs(String logType, String format, LocalDateTime startDate, LocalDateTime endDate,
+                           OutputStream outputStream) throws IOException {
+
+        validateExport(logType, format);
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 16 * 1024);
+        long[] rows = {0};
+
+        if (csv) {
+            writer.write(CSV_HEADER);
+        }
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    streamingJdbcTemplate.query(EXPORT_QUERIES.get(logType), rs -> {
+                        AuditLogResponse row = AuditLogResponse.builder()
+                                .id(rs.getObject("id", UUID.class))
+                                .userEmail(rs.getString("user_email"))
+                                .action(rs.getString("action"))
+                                .targetDepartment(rs.getString("target_department"))
+                                .details(rs.getString("details"))
+                                .timestamp(rs.getTimestamp("created_at").toLocalDateTime())
+                                .build();
+
+                        try {
+                            writer.write(csv ? toCsvLine(row) : ndjsonWriter.writeValueAsString(row) + "\n");
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    }, Timestamp.valueOf(startDate), Timestamp.valueOf(endDate)));
+        } catch (UncheckedIOException e) {
+            // client went away mid-download
+            throw e.getCause();
+        }
+
+        writer.flush();
+
+        log.info("Streamed {} {} audit rows as {}", rows[0], logType, csv ? "CSV" : "NDJSON");
+        return rows[0];
+    }
+
+    private String toCsvLine(AuditLogResponse row) {
+        return String.join(",",
+                row.getId().toString(),
+                StringUtil.csvValue(row.getUserEmail()),
+                StringUtil.csvValue(row.getAction()),
+                StringUtil.csvValue(row.getTargetDepartment()),
+                StringUtil.csvValue(row.getDetails()),
+                row.getTimestamp().toString()) + "\n";
+    }
+}
@@ -0,0 +1,255 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.config.SchedulerLock;
+import com.hrplatform.service.AuditPartitionService;
+import com.hrplatform.service.SchedulerLockService;
+import com.hrplatform.util.StringUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSetMetaData;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly audit partitions (see V1__partition_audit_tables.sql) rolling:
+ * creates partitions ahead of time and archives partitions older than the retention
+ * window to gzip'd CSV files before dropping them.
+ *
+ * Rows in a DEFAULT partition (V11) mean maintenance fell behind: they are counted
+ * hourly, published as audit.partition.default_rows and logged as errors until the next
+ * maintenance run moves them into monthly partitions.
+ */
+@Service
+@Slf4j
+public class AuditPartitionServiceImpl implements AuditPartitionService {
+
+    private static final List<String> PARTITIONED_TABLES = List.of(
+            "hr_activity_logs",
+            "staff_submission_logs",
+            "document_config_logs",
+            "cloudinary_upload_logs"
+    );
+
+    private static final String PARTITION_QUERY =
+            "SELECT c.relname FROM pg_class c " +
+            "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+            "WHERE n.nspname = current_schema() AND c.relkind = 'r' " +
+            "AND c.relname ~ ('^' || ? || '_p[0-9]{4}_[0-9]{2}$') " +
+            "ORDER BY c.relname";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SchedulerLockService schedulerLockService;
+    private final Map<String, AtomicLong> defaultPartitionRows = new ConcurrentHashMap<>();
+
+    @Value("${audit.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${audit.partition.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${audit.partition.archive-dir:./audit-archive}")
+    private String archiveDir;
+
+    // archiving can hold a connection for most of an hour, so it runs on the export pool
+    public AuditPartitionServiceImpl(@Qualifier("exportDataSource") DataSource dataSource,
+                                     @Value("${audit.partition.archive-fetch-size:1000}") int archiveFetchSize,
+                                     @Value("${audit.partition.archive-timeout-seconds:3600}") int archiveTimeoutSeconds,
+                                     SchedulerLockService schedulerLockService,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.schedulerLockService = schedulerLockService;
+
+        for (String parentTable : PARTITIONED_TABLES) {
+            AtomicLong rows = new AtomicLong();
+            defaultPartitionRows.put(parentTable, rows);
+            Gauge.builder("audit.partition.default_rows", rows, AtomicLong::get)
+                    .tag("table", parentTable)
+                    .description("Audit rows in the DEFAULT partition, i.e. past the pre-created months")
+                    .register(meterRegistry);
+        }
+
+        // PostgreSQL only streams with a fetch size inside a transaction, otherwise it buffers the whole partition
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(archiveFetchSize);
+
+        this.readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.readOnlyTransaction.setReadOnly(true);
+        // spring.transaction.default-timeout (30s) is far too short for a month of audit rows
+        this.readOnlyTransaction.setTimeout(archiveTimeoutSeconds);
+    }
+
+    // Concurrent calls from other nodes take turns on an advisory lock (V12). A failure is
+    // logged rather than thrown: it must not stop the node from starting, and the DEFAULT
+    // partitions catch audit rows until the next maintenance run.
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            ensureFuturePartitions();
+        } catch (DataAccessException e) {
+            log.error("Could not ensure audit partitions on startup: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${audit.partition.maintenance-cron:0 30 2 * * *}")
+    @SchedulerLock(name = "audit-partition-maintenance", leaseSeconds = 300, lockAtLeastSeconds = 300)
+    public void runMaintenance() {
+        ensureFuturePartitions();
+        archiveExpiredPartitions();
+    }
+
+    @Override
+    public void ensureFuturePartitions() {
+        jdbcTemplate.execute("SELECT ensure_audit_partitions(0, " + monthsAhead + ")");
+        log.info("Audit partitions ensured up to {} months ahead", monthsAhead);
+        checkDefaultPartitions();
+    }
+
+    // every node checks: it is one count of a table that should be empty
+    @Scheduled(fixedDelayString = "${audit.partition.default-check-interval-ms:3600000}",
+            initialDelayString = "${audit.partition.default-check-interval-ms:3600000}")
+    public void checkDefaultPartitions() {
+        for (String parentTable : PARTITIONED_TABLES) {
+            try {
+                Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + parentTable + "_default", Long.class);
+                long count = rows == null ? 0 : rows;
+                defaultPartitionRows.get(parentTable).set(count);
+
+                if (count > 0) {
+                    log.error("{} audit rows are in {}_default: partition maintenance is behind, " +
+                            "the next run will move them", count, parentTable);
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not check the default partition of {}: {}", parentTable, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public List<String> archiveExpiredPartitions() {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        List<String> archived = new ArrayList<>();
+
+        for (String parentTable : PARTITIONED_TABLES) {
+            List<String> partitions = jdbcTemplate.queryForList(PARTITION_QUERY, String.class, parentTable);
+
+            for (String partition : partitions) {
+                if (!partitionMonth(partition).isBefore(cutoff)) {
+                    continue;
+                }
+
+                try {
+                    archivePartition(parentTable, partition);
+                    archived.add(partition);
+                } catch (Exception e) {
+                    // leave it in place (attached or detached), the next run picks it up again
+                    log.error("Failed to archive audit partition: {}", partition, e);
+                }
+            }
+        }
+
+        if (!archived.isEmpty()) {
+            log.info("Archived {} audit partitions older than {}", archived.size(), cutoff);
+        }
+
+        return archived;
+    }
+
+    private void archivePartition(String parentTable, String partition) throws IOException {
+        Boolean attached = jdbcTemplate.queryForObject(
+                "SELECT relispartition FROM pg_class WHERE oid = to_regclass(?)", Boolean.class, partition);
+
+        if (Boolean.TRUE.equals(attached)) {
+            schedulerLockService.assertStillHeld();
+            jdbcTemplate.execute("ALTER TABLE " + parentTable + " DETACH PARTITION " + partition);
+            log.info("Detached audit partition: {}", partition);
+        }
+
+        Path targetDir = Paths.get(archiveDir, parentTable);
+        Files.createDirectories(targetDir);
+
+        Path target = targetDir.resolve(partition + ".csv.gz");
+        Path temp = targetDir.resolve(partition + ".csv.gz.tmp");
+
+        long rows = exportToGzipCsv(partition, temp);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // if another node took over maintenance meanwhile, leave the drop to it
+        schedulerLockService.assertStillHeld();
+        jdbcTemplate.execute("DROP TABLE " + partition);
+
+        log.info("Archived audit partition {} ({} rows) to {}", partition, rows, target);
+    }
+
+    private long exportToGzipCsv(String partition, Path file) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024), StandardCharsets.UTF_8))) {
+
+            long[] rows = {0};
+
+            readOnlyTransaction.executeWithoutResult(status ->
+                    streamingJdbcTemplate.query("SELECT * FROM " + partition, rs -> {
+                        try {
+                            ResultSetMetaData meta = rs.getMetaData();
+                            int columns = meta.getColumnCount();
+
+                            if (rows[0] == 0) {
+                                for (int i = 1; i <= columns; i++) {
+                                    writer.write((i > 1 ? "," : "") + meta.getColumnName(i));
+                                }
+                                writer.write('\n');
+                            }
+
+                            for (int i = 1; i <= columns; i++) {
+                                if (i > 1) {
+                                    writer.write(',');
+                                }
+                                writer.write(StringUtil.csvValue(rs.getString(i)));
+                            }
+                            writer.write('\n');
+                            rows[0]++;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+
+            return rows[0];
+        }
+    }
+
+    private YearMonth partitionMonth(String partition) {
+        // names look like hr_activity_logs_p2025_03
+        String suffix = partition.substring(partition.lastIndexOf("_p") + 2);
+        String[] parts = suffix.split("_");
+        return YearMonth.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+}
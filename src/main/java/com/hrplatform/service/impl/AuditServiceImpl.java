@@ -1,6 +1,7 @@
 package com.hrplatform.service.impl;
 
 import com.hrplatform.dto.response.AuditLogResponse;
+import com.hrplatform.dto.response.CursorPageResponse;
 import com.hrplatform.entity.CloudinaryUploadLog;
 import com.hrplatform.entity.DocumentConfigLog;
 import com.hrplatform.entity.HrActivityLog;
@@ -9,16 +10,21 @@ import com.hrplatform.mapper.AuditLogMapper;
 import com.hrplatform.mapper.CloudinaryUploadLogMapper;
 import com.hrplatform.repository.*;
 import com.hrplatform.service.AuditService;
+import com.hrplatform.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,8 +39,13 @@ public class AuditServiceImpl implements AuditService {
     private final AuditLogMapper auditLogMapper;
     private final CloudinaryUploadLogMapper cloudinaryUploadLogMapper;
 
+    private static final int MAX_KEYSET_PAGE_SIZE = 500;
+
+    @Value("${audit.query.default-window-days:90}")
+    private long defaultWindowDays;
+
     @Override
-    @Async
+    @Async("auditExecutor")
     @Transactional
     public void logStaffValidation(String staffIdNumber, String departmentName, String details) {
         StaffSubmissionLog log = auditLogMapper.toStaffSubmissionLog(
@@ -47,7 +58,7 @@ public class AuditServiceImpl implements AuditService {
     }
 
     @Override
-    @Async
+    @Async("auditExecutor")
     @Transactional
     public void logUploadSuccess(String staffIdNumber, String departmentName,
                                  String documentName, String cloudinaryUrl) {
@@ -74,7 +85,7 @@ public class AuditServiceImpl implements AuditService {
     }
 
     @Override
-    @Async
+    @Async("auditExecutor")
     @Transactional
     public void logUploadFailure(String staffIdNumber, String departmentName,
                                  String documentName, String error) {
@@ -101,7 +112,7 @@ public class AuditServiceImpl implements AuditService {
     }
 
     @Override
-    @Async
+    @Async("auditExecutor")
     @Transactional
     public void logHrActivity(String hrUserEmail, String action,
                               String targetDepartment, String details) {
@@ -116,7 +127,7 @@ public class AuditServiceImpl implements AuditService {
     }
 
     @Override
-    @Async
+    @Async("auditExecutor")
     @Transactional
     public void logDocumentConfigChange(String hrUserEmail, String departmentName,
                                         String action, String documentName, String details) {
@@ -132,7 +143,7 @@ public class AuditServiceImpl implements AuditService {
     }
 
     @Override
-    @Async
+    @Async("auditExecutor")
     @Transactional
     public void logExport(String hrUserEmail, String departmentFilter, Integer totalRecords) {
         HrActivityLog log = auditLogMapper.toHrActivityLog(
@@ -146,33 +157,129 @@ public class AuditServiceImpl implements AuditService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<AuditLogResponse> getHrActivityLogs(Pageable pageable) {
-        Page<HrActivityLog> logs = hrActivityLogRepository.findAll(pageable);
+    public Page<AuditLogResponse> getHrActivityLogs(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        LocalDateTime end = resolveEndDate(endDate);
+        Page<HrActivityLog> logs = hrActivityLogRepository.findByDateRange(resolveStartDate(startDate, end), end, pageable);
         return logs.map(auditLogMapper::toAuditLogResponse);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<AuditLogResponse> getStaffSubmissionLogs(Pageable pageable) {
-        Page<StaffSubmissionLog> logs = staffSubmissionLogRepository.findAll(pageable);
+    public Page<AuditLogResponse> getStaffSubmissionLogs(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        LocalDateTime end = resolveEndDate(endDate);
+        Page<StaffSubmissionLog> logs = staffSubmissionLogRepository.findByDateRange(resolveStartDate(startDate, end), end, pageable);
         return logs.map(auditLogMapper::toAuditLogResponse);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<AuditLogResponse> getDocumentConfigLogs(Pageable pageable) {
-        Page<DocumentConfigLog> logs = documentConfigLogRepository.findAll(pageable);
+    public Page<AuditLogResponse> getDocumentConfigLogs(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        LocalDateTime end = resolveEndDate(endDate);
+        Page<DocumentConfigLog> logs = documentConfigLogRepository.findByDateRange(resolveStartDate(startDate, end), end, pageable);
         return logs.map(auditLogMapper::toAuditLogResponse);
     }
 
+    // the whole range, as this endpoint always returned it, but read in keyset pages so each
+    // query is an index range scan instead of one unbounded sort
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuditLogResponse> getHrActivityLogsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        List<AuditLogResponse> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponse<AuditLogResponse> page =
+                    getHrActivityLogsAfter(startDate, endDate, cursor, MAX_KEYSET_PAGE_SIZE);
+            all.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AuditLogResponse> getHrActivityLogsAfter(LocalDateTime startDate, LocalDateTime endDate,
+                                                                       String cursor, int size) {
+        LocalDateTime end = resolveEndDate(endDate);
+        LocalDateTime start = resolveStartDate(startDate, end);
+        CursorUtil.Cursor after = CursorUtil.decode(cursor);
+        Pageable limit = keysetLimit(size);
+
+        List<HrActivityLog> logs = after == null
+                ? hrActivityLogRepository.findFirstPage(start, end, limit)
+                : hrActivityLogRepository.findPageAfter(start, end, after.getCreatedAt(), after.getId(), limit);
+
+        return toCursorPage(logs, limit.getPageSize() - 1, auditLogMapper::toAuditLogResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AuditLogResponse> getStaffSubmissionLogsAfter(LocalDateTime startDate, LocalDateTime endDate,
+                                                                            String cursor, int size) {
+        LocalDateTime end = resolveEndDate(endDate);
+        LocalDateTime start = resolveStartDate(startDate, end);
+        CursorUtil.Cursor after = CursorUtil.decode(cursor);
+        Pageable limit = keysetLimit(size);
+
+        List<StaffSubmissionLog> logs = after == null
+                ? staffSubmissionLogRepository.findFirstPage(start, end, limit)
+                : staffSubmissionLogRepository.findPageAfter(start, end, after.getCreatedAt(), after.getId(), limit);
+
+        return toCursorPage(logs, limit.getPageSize() - 1, auditLogMapper::toAuditLogResponse);
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public List<AuditLogResponse> getHrActivityLogsByDateRange(LocalDateTime startDate,
-                                                               LocalDateTime endDate) {
-        List<HrActivityLog> logs = hrActivityLogRepository.findByDateRange(startDate, endDate);
-        return logs.stream()
-                .map(auditLogMapper::toAuditLogResponse)
+    public CursorPageResponse<AuditLogResponse> getDocumentConfigLogsAfter(LocalDateTime startDate, LocalDateTime endDate,
+                                                                           String cursor, int size) {
+        LocalDateTime end = resolveEndDate(endDate);
+        LocalDateTime start = resolveStartDate(startDate, end);
+        CursorUtil.Cursor after = CursorUtil.decode(cursor);
+        Pageable limit = keysetLimit(size);
+
+        List<DocumentConfigLog> logs = after == null
+                ? documentConfigLogRepository.findFirstPage(start, end, limit)
+                : documentConfigLogRepository.findPageAfter(start, end, after.getCreatedAt(), after.getId(), limit);
+
+        return toCursorPage(logs, limit.getPageSize() - 1, auditLogMapper::toAuditLogResponse);
+    }
+
+    // Fetches one extra row so we know whether another page exists without a COUNT
+    private Pageable keysetLimit(int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_KEYSET_PAGE_SIZE));
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    private <T> CursorPageResponse<AuditLogResponse> toCursorPage(List<T> rows, int size,
+                                                                  Function<T, AuditLogResponse> mapper) {
+        boolean hasNext = rows.size() > size;
+
+        List<AuditLogResponse> content = rows.stream()
+                .limit(size)
+                .map(mapper)
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasNext) {
+            AuditLogResponse last = content.get(content.size() - 1);
+            nextCursor = CursorUtil.encode(last.getTimestamp(), last.getId());
+        }
+
+        return CursorPageResponse.<AuditLogResponse>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    // Audit tables are partitioned by month, so every listing is bounded to a window
+    // (default: the last audit.query.default-window-days) instead of scanning all partitions
+    private LocalDateTime resolveEndDate(LocalDateTime endDate) {
+        return endDate != null ? endDate : LocalDateTime.now();
+    }
+
+    private LocalDateTime resolveStartDate(LocalDateTime startDate, LocalDateTime endDate) {
+        return startDate != null ? startDate : endDate.minusDays(defaultWindowDays);
     }
 
     private String extractPublicId(String cloudinaryUrl) {
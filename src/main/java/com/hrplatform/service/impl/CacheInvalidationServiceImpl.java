@@ -0,0 +1,199 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.config.CoherentCacheManager;
+import com.hrplatform.service.CacheInvalidationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Cross-node cache invalidation over PostgreSQL LISTEN/NOTIFY, no broker needed.
+ *
+ * Publishing is a pg_notify in the caller's transaction, so PostgreSQL delivers it to every
+ * node exactly when the change commits and drops it on rollback. Messages are
+ * "cacheName:key", or "cacheName:*" to clear a whole cache.
+ *
+ * Each node listens on its own connection, outside the Hikari pool since it is held for
+ * the life of the node. Notifications sent while that connection is down are lost, so the
+ * caches stop filling when it drops and are flushed when it comes back.
+ */
+@Service
+@Slf4j
+public class CacheInvalidationServiceImpl implements CacheInvalidationService {
+
+    private static final String CLEAR_ALL = "*";
+
+    private final CoherentCacheManager cacheManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+
+    private final String channel;
+    private final int pollTimeoutMs;
+    private final long initialReconnectDelayMs;
+    private final long maxReconnectDelayMs;
+
+    private volatile boolean stopped;
+    private volatile Connection listenConnection;
+    private Thread listener;
+
+    public CacheInvalidationServiceImpl(CoherentCacheManager cacheManager,
+                                        DataSource dataSource,
+                                        DataSourceProperties dataSourceProperties,
+                                        @Value("${cache.invalidation.channel:cache_invalidation}") String channel,
+                                        @Value("${cache.invalidation.poll-timeout-ms:10000}") int pollTimeoutMs,
+                                        @Value("${cache.invalidation.initial-reconnect-delay-ms:1000}") long initialReconnectDelayMs,
+                                        @Value("${cache.invalidation.max-reconnect-delay-ms:30000}") long maxReconnectDelayMs) {
+        // LISTEN takes an identifier, not a bind parameter
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid cache.invalidation.channel: " + channel);
+        }
+
+        this.cacheManager = cacheManager;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.initialReconnectDelayMs = initialReconnectDelayMs;
+        this.maxReconnectDelayMs = maxReconnectDelayMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        listener = new Thread(this::listen, "Cache invalidation listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        listener.interrupt();
+        closeQuietly(listenConnection);
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        publish(cacheName + ":" + key);
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        publish(cacheName + ":" + CLEAR_ALL);
+    }
+
+    private void publish(String message) {
+        // same connection as the caller's JPA transaction, so it is sent on commit
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, message);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // this node too, without waiting for its own notification to come round
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(message);
+                }
+            });
+        } else {
+            apply(message);
+        }
+    }
+
+    private void apply(String message) {
+        int separator = message.indexOf(':');
+        if (separator <= 0) {
+            log.warn("Ignoring malformed cache invalidation: {}", message);
+            return;
+        }
+
+        Cache cache = cacheManager.getCache(message.substring(0, separator));
+        if (cache == null) {
+            return; // a cache another version of the application has and this one does not
+        }
+
+        String key = message.substring(separator + 1);
+        if (CLEAR_ALL.equals(key)) {
+            cache.clear();
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    private void listen() {
+        long reconnectDelayMs = initialReconnectDelayMs;
+
+        while (!stopped) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                // whatever changed while nobody was listening is unknown, start from empty
+                cacheManager.clearAll();
+                cacheManager.setStoring(true);
+                reconnectDelayMs = initialReconnectDelayMs;
+                log.info("Listening for cache invalidations on channel {}", channel);
+
+                while (!stopped) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null || notifications.length == 0) {
+                        // a quiet channel and a dead socket look the same, so check
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        apply(notification.getParameter());
+                    }
+                }
+
+            } catch (SQLException e) {
+                if (!stopped) {
+                    log.warn("Cache invalidation listener disconnected, reconnecting in {} ms: {}",
+                            reconnectDelayMs, e.getMessage());
+                }
+            } finally {
+                cacheManager.setStoring(false);
+                cacheManager.clearAll();
+                listenConnection = null;
+            }
+
+            try {
+                Thread.sleep(reconnectDelayMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            reconnectDelayMs = Math.min(maxReconnectDelayMs, reconnectDelayMs * 2);
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Error closing cache invalidation connection", e);
+        }
+    }
+}
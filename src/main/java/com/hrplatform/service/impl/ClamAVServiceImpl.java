@@ -0,0 +1,587 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.exception.VirusScanException;
+import com.hrplatform.service.VirusScanService;
+import com.hrplatform.util.ChecksumUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * clamd client speaking INSTREAM inside IDSESSION, so sockets are kept open and reused
+ * between scans instead of paying a TCP handshake per upload.
+ *
+ * Files are streamed in fixed-size chunks straight from the multipart input. Verdicts
+ * are cached by SHA-256 so re-uploads of the same file are not scanned again.
+ *
+ * Publishes virus.scan.duration (per mode and result), virus.scan.bytes (scanned volume,
+ * its rate is the throughput) and virus.scan.cache.hits.
+ */
+@Service
+@Slf4j
+public class ClamAVServiceImpl implements VirusScanService {
+
+    private static final byte[] IDSESSION = "zIDSESSION\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INSTREAM = "zINSTREAM\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PING = "zPING\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "zEND\0".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String OK_SUFFIX = "stream: OK";
+    private static final String FOUND_SUFFIX = " FOUND";
+
+    private static final String MODE_MULTIPART = "multipart";
+    private static final String MODE_STREAM = "stream";
+
+    @Value("${virus-scan.enabled:false}")
+    private boolean enabled;
+
+    @Value("${virus-scan.clamd.host:localhost}")
+    private String host;
+
+    @Value("${virus-scan.clamd.port:3310}")
+    private int port;
+
+    @Value("${virus-scan.clamd.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    // how long to wait for clamd's verdict once the stream is sent
+    @Value("${virus-scan.clamd.read-timeout-ms:30000}")
+    private int readTimeoutMs;
+
+    @Value("${virus-scan.clamd.chunk-bytes:65536}")
+    private int chunkBytes;
+
+    // clamd drops sessions idle for longer than its IdleTimeout (30s by default)
+    @Value("${virus-scan.clamd.idle-timeout-seconds:20}")
+    private long idleTimeoutSeconds;
+
+    // how long an upload waits for a free scan slot before giving up
+    @Value("${virus-scan.acquire-timeout-ms:10000}")
+    private long acquireTimeoutMs;
+
+    // accept uploads when clamd is unreachable (logged); leave off in production
+    @Value("${virus-scan.fail-open:false}")
+    private boolean failOpen;
+
+    @Value("${virus-scan.verdict-cache-ttl-minutes:60}")
+    private long verdictCacheTtlMinutes;
+
+    // a streamed upload that sends nothing for this long loses its scan slot and fails;
+    // below clamd's CommandReadTimeout, which would drop the INSTREAM anyway
+    @Value("${virus-scan.stream-idle-timeout-ms:10000}")
+    private long streamIdleTimeoutMs;
+
+    private final Semaphore scanPermits;
+    private final BlockingQueue<ClamdSession> idleSessions;
+    private final Map<String, Verdict> verdictCache;
+    private final MeterRegistry meterRegistry;
+    private final Counter cacheHits;
+    private final ScheduledExecutorService streamWatchdog;
+
+    public ClamAVServiceImpl(@Value("${virus-scan.max-concurrent:4}") int maxConcurrent,
+                             @Value("${virus-scan.verdict-cache-size:10000}") int verdictCacheSize,
+                             MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.cacheHits = Counter.builder("virus.scan.cache.hits")
+                .description("Uploads answered from the verdict cache without a scan")
+                .register(meterRegistry);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("clamd stream watchdog-");
+        threadFactory.setDaemon(true);
+        this.streamWatchdog = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.scanPermits = new Semaphore(Math.max(1, maxConcurrent), true);
+        // never more idle sessions than concurrent scans
+        this.idleSessions = new LinkedBlockingDeque<>(Math.max(1, maxConcurrent));
+        this.verdictCache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verdict> eldest) {
+                return size() > verdictCacheSize;
+            }
+        };
+    }
+
+    @Override
+    public void scanFile(MultipartFile file) throws VirusScanException {
+        if (!enabled || file == null || file.isEmpty()) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        String hash;
+
+        try (InputStream in = file.getInputStream()) {
+            hash = ChecksumUtil.sha256Hex(in);
+        } catch (IOException e) {
+            throw new VirusScanException("Could not read file for virus scan", e);
+        }
+
+        Verdict cached = cachedVerdict(hash);
+        if (cached != null) {
+            log.debug("Virus scan cache hit for {} ({})", file.getOriginalFilename(), hash);
+            cacheHits.increment();
+            reject(file.getOriginalFilename(), cached.virusName);
+            return;
+        }
+
+        acquirePermit();
+
+        String virusName;
+        try {
+            virusName = scanWithRetry(file);
+        } catch (IOException e) {
+            recordScan(MODE_MULTIPART, "error", started, -1);
+            if (failOpen) {
+                log.warn("⚠️ clamd unavailable, accepting {} unscanned (fail-open)", file.getOriginalFilename(), e);
+                return;
+            }
+            throw new VirusScanException("Virus scan failed: " + e.getMessage(), e);
+        } finally {
+            scanPermits.release();
+        }
+
+        cacheVerdict(hash, virusName);
+        recordScan(MODE_MULTIPART, virusName == null ? "clean" : "infected", started, file.getSize());
+
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.debug("Scanned {} ({} bytes) in {} ms, {} KB/s", file.getOriginalFilename(), file.getSize(),
+                elapsedMs, file.getSize() / elapsedMs);
+
+        reject(file.getOriginalFilename(), virusName);
+    }
+
+    @Override
+    public StreamScan openStreamScan() throws VirusScanException {
+        if (!enabled) {
+            return new NoOpStreamScan();
+        }
+
+        // the permit and clamd session are only taken once the first bytes arrive
+        return new ClamdStreamScan();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean testConnection() {
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write(PING);
+            socket.getOutputStream().flush();
+            return "PONG".equals(readReply(socket.getInputStream()));
+        } catch (IOException e) {
+            log.warn("clamd is not reachable at {}:{}", host, port, e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void closeSessions() {
+        streamWatchdog.shutdownNow();
+        ClamdSession session;
+        while ((session = idleSessions.poll()) != null) {
+            session.close();
+        }
+    }
+
+    private void reject(String fileName, String virusName) {
+        if (virusName != null) {
+            log.warn("🦠 Virus detected in {}: {}", fileName, virusName);
+            throw new VirusScanException("File rejected: malware detected (" + virusName + ")", virusName);
+        }
+    }
+
+    /**
+     * A pooled session may have been closed by clamd since its last use, which only shows up
+     * once we talk to it, so retry once on a freshly opened session.
+     */
+    private String scanWithRetry(MultipartFile file) throws IOException {
+        ClamdSession session = borrowSession();
+        boolean reused = session.requests > 0;
+
+        try {
+            return scan(session, file);
+        } catch (IOException e) {
+            session.close();
+            if (!reused) {
+                throw e;
+            }
+            log.debug("Pooled clamd session was stale, retrying on a new one");
+        }
+
+        ClamdSession fresh = openSession();
+        try {
+            return scan(fresh, file);
+        } catch (IOException e) {
+            fresh.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the virus name, or null if clean. The session goes back to the pool on success.
+     */
+    private String scan(ClamdSession session, MultipartFile file) throws IOException {
+        int requestId = ++session.requests;
+
+        try (InputStream in = file.getInputStream()) {
+            session.out.write(INSTREAM);
+
+            byte[] buffer = new byte[chunkBytes];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                session.out.writeInt(read);
+                session.out.write(buffer, 0, read);
+            }
+            session.out.writeInt(0);
+            session.out.flush();
+        }
+
+        String virusName = readVerdict(session, requestId);
+        releaseSession(session);
+        return virusName;
+    }
+
+    private String readVerdict(ClamdSession session, int requestId) throws IOException {
+        String reply = readReply(session.socket.getInputStream());
+
+        // replies inside a session are prefixed with the request number: "3: stream: OK"
+        String prefix = requestId + ": ";
+        if (!reply.startsWith(prefix)) {
+            throw new IOException("Unexpected clamd reply: " + reply);
+        }
+        String result = reply.substring(prefix.length());
+
+        if (result.equals(OK_SUFFIX)) {
+            return null;
+        }
+        if (result.endsWith(FOUND_SUFFIX) && result.startsWith("stream: ")) {
+            return result.substring("stream: ".length(), result.length() - FOUND_SUFFIX.length());
+        }
+
+        // e.g. "INSTREAM size limit exceeded. ERROR" - clamd closes the session after this
+        throw new IOException("clamd error: " + result);
+    }
+
+    private ClamdSession borrowSession() throws IOException {
+        ClamdSession session;
+        long idleLimit = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+
+        while ((session = idleSessions.poll()) != null) {
+            if (System.nanoTime() - session.lastUsedNanos < idleLimit) {
+                return session;
+            }
+            session.close();
+        }
+
+        return openSession();
+    }
+
+    private void releaseSession(ClamdSession session) {
+        session.lastUsedNanos = System.nanoTime();
+        if (!idleSessions.offer(session)) {
+            session.close();
+        }
+    }
+
+    private ClamdSession openSession() throws IOException {
+        Socket socket = connect();
+        try {
+            ClamdSession session = new ClamdSession(socket);
+            session.out.write(IDSESSION);
+            session.out.flush();
+            return session;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(readTimeoutMs);
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMs);
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // z-prefixed commands are answered with a NUL-terminated line
+    private String readReply(InputStream in) throws IOException {
+        ByteArrayOutputStream reply = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) > 0) {
+            reply.write(b);
+        }
+        if (b == -1) {
+            throw new IOException("clamd closed the connection");
+        }
+        return reply.toString(StandardCharsets.US_ASCII).trim();
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!scanPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new VirusScanException("Virus scanner is busy, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VirusScanException("Interrupted while waiting for virus scanner");
+        }
+    }
+
+    // bytes < 0: the scan failed, there is no volume to count
+    private void recordScan(String mode, String result, long startedNanos, long bytes) {
+        meterRegistry.timer("virus.scan.duration", "mode", mode, "result", result)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+
+        if (bytes >= 0) {
+            DistributionSummary.builder("virus.scan.bytes")
+                    .baseUnit("bytes")
+                    .tag("mode", mode)
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+    }
+
+    private Verdict cachedVerdict(String hash) {
+        synchronized (verdictCache) {
+            Verdict verdict = verdictCache.get(hash);
+            if (verdict != null && verdict.expiresAtNanos - System.nanoTime() < 0) {
+                // signatures may have been updated since, scan again
+                verdictCache.remove(hash);
+                return null;
+            }
+            return verdict;
+        }
+    }
+
+    private void cacheVerdict(String hash, String virusName) {
+        long expiresAt = System.nanoTime() + TimeUnit.MINUTES.toNanos(verdictCacheTtlMinutes);
+        synchronized (verdictCache) {
+            verdictCache.put(hash, new Verdict(virusName, expiresAt));
+        }
+    }
+
+    /**
+     * INSTREAM fed chunk by chunk as the caller writes. The scan permit and session are taken
+     * on the first write rather than up front, and given back if the upload then goes quiet
+     * for longer than stream-idle-timeout-ms, so a slow client cannot hold a clamd slot for
+     * the whole time it takes to send the rest of its file.
+     */
+    private class ClamdStreamScan extends StreamScan {
+
+        private ClamdSession session;
+        private int requestId;
+        private long started;
+        private long size;
+        private long lastWriteNanos;
+        private ScheduledFuture<?> idleCheck;
+        // clamd was unreachable when the scan started and fail-open is on
+        private boolean unscanned;
+        private boolean expired;
+        private boolean done;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0 || unscanned) {
+                return;
+            }
+            if (expired) {
+                throw new IOException("Virus scan abandoned, no upload data for " + streamIdleTimeoutMs + " ms");
+            }
+            if (done) {
+                throw new IOException("Virus scan already finished");
+            }
+            if (session == null && !start()) {
+                return;
+            }
+
+            session.out.writeInt(length);
+            session.out.write(buffer, offset, length);
+            size += length;
+            lastWriteNanos = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void finish(String fileName, String checksum) throws VirusScanException {
+            if (unscanned) {
+                return;
+            }
+            if (expired) {
+                recordScan(MODE_STREAM, "error", started, -1);
+                throw new VirusScanException("Virus scan failed: upload stalled for more than " + streamIdleTimeoutMs + " ms");
+            }
+            if (session == null) {
+                // nothing was written, there is nothing to scan
+                done = true;
+                return;
+            }
+
+            String virusName;
+            try {
+                session.out.writeInt(0);
+                session.out.flush();
+                virusName = readVerdict(session, requestId);
+            } catch (IOException e) {
+                close();
+                recordScan(MODE_STREAM, "error", started, -1);
+                throw new VirusScanException("Virus scan failed: " + e.getMessage(), e);
+            }
+
+            done = true;
+            idleCheck.cancel(false);
+            releaseSession(session);
+            scanPermits.release();
+
+            if (checksum != null) {
+                cacheVerdict(checksum, virusName);
+            }
+            recordScan(MODE_STREAM, virusName == null ? "clean" : "infected", started, size);
+
+            long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            log.debug("Stream-scanned {} ({} bytes) in {} ms, {} KB/s", fileName, size, elapsedMs, size / elapsedMs);
+
+            reject(fileName, virusName);
+        }
+
+        // abandoned mid-stream: clamd is waiting for more chunks, so the session cannot be reused
+        @Override
+        public synchronized void close() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (session != null) {
+                idleCheck.cancel(false);
+                session.close();
+                scanPermits.release();
+            }
+        }
+
+        // returns false when clamd is unreachable and the upload goes through unscanned (fail-open)
+        private boolean start() throws IOException {
+            acquirePermit();
+
+            try {
+                // no retry is possible once upload bytes are consumed; borrowSession already skips
+                // sessions close to clamd's idle timeout
+                ClamdSession borrowed = borrowSession();
+                borrowed.out.write(INSTREAM);
+                session = borrowed;
+            } catch (IOException e) {
+                scanPermits.release();
+                if (failOpen) {
+                    log.warn("⚠️ clamd unavailable, accepting streamed upload unscanned (fail-open)", e);
+                    unscanned = true;
+                    return false;
+                }
+                throw new VirusScanException("Virus scan failed: " + e.getMessage(), e);
+            }
+
+            requestId = ++session.requests;
+            started = System.nanoTime();
+            lastWriteNanos = started;
+            long checkEveryMs = Math.max(100, streamIdleTimeoutMs / 4);
+            idleCheck = streamWatchdog.scheduleWithFixedDelay(this::closeIfIdle, checkEveryMs, checkEveryMs,
+                    TimeUnit.MILLISECONDS);
+            return true;
+        }
+
+        private synchronized void closeIfIdle() {
+            if (done || System.nanoTime() - lastWriteNanos < TimeUnit.MILLISECONDS.toNanos(streamIdleTimeoutMs)) {
+                return;
+            }
+            log.warn("Streamed upload sent nothing for {} ms, giving its clamd session back", streamIdleTimeoutMs);
+            expired = true;
+            close();
+        }
+    }
+
+    private static class NoOpStreamScan extends StreamScan {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void finish(String fileName, String checksum) {
+        }
+    }
+
+    private static class Verdict {
+        final String virusName;
+        final long expiresAtNanos;
+
+        Verdict(String virusName, long expiresAtNanos) {
+            this.virusName = virusName;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private static class ClamdSession implements Closeable {
+        final Socket socket;
+        final DataOutputStream out;
+        int requests;
+        long lastUsedNanos = System.nanoTime();
+
+        ClamdSession(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+        }
+
+        @Override
+        public void close() {
+            try {
+                // polite shutdown so clamd frees the session thread immediately
+                out.write(END);
+                out.flush();
+            } catch (IOException ignored) {
+                // already broken
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+}
@@ -3,73 +3,170 @@ package com.hrplatform.service.impl;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import com.hrplatform.dto.response.CloudinarySignatureResponse;
+import com.hrplatform.exception.CloudinaryUploadException;
+import com.hrplatform.exception.ServiceUnavailableException;
 import com.hrplatform.service.CloudinaryService;
+import com.hrplatform.util.AdaptiveConcurrencyLimiter;
+import com.hrplatform.util.CircuitBreaker;
 import com.hrplatform.util.CloudinaryFolderUtil;
+import com.hrplatform.util.RetryBackoff;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CloudinaryServiceImpl implements CloudinaryService {
 
+    // what the SDK throws for a gateway error or throttling, e.g. "Server returned unexpected status code - 502"
+    private static final Pattern TRANSIENT_STATUS = Pattern.compile("unexpected status code - (429|5\\d\\d)");
+
     private final Cloudinary cloudinary;
+    private final MeterRegistry meterRegistry;
 
+    // total budget for one operation across all attempts and backoff
     @Value("${cloudinary.timeout:300000}")
     private Integer timeout;
 
+    @Value("${cloudinary.attempt-timeout-ms:60000}")
+    private int attemptTimeoutMs;
+
+    // retries apply only to idempotent calls (fixed public_id uploads, deletes) failing transiently
+    @Value("${cloudinary.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${cloudinary.retry.initial-backoff-ms:500}")
+    private long retryInitialBackoffMs;
+
+    @Value("${cloudinary.retry.max-backoff-ms:5000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${cloudinary.circuit.window-size:20}")
+    private int circuitWindowSize;
+
+    @Value("${cloudinary.circuit.minimum-calls:10}")
+    private int circuitMinimumCalls;
+
+    @Value("${cloudinary.circuit.failure-rate-threshold:0.5}")
+    private double circuitFailureRateThreshold;
+
+    @Value("${cloudinary.circuit.open-duration-ms:30000}")
+    private long circuitOpenDurationMs;
+
+    @Value("${cloudinary.circuit.half-open-calls:3}")
+    private int circuitHalfOpenCalls;
+
     @Value("${cloudinary.cloud-name}")
     private String cloudName;
 
     @Value("${cloudinary.api-key}")
     private String apiKey;
 
+    // adaptive concurrency limit (AIMD on RTT), one per operation
+    @Value("${cloudinary.limiter.initial-limit:10}")
+    private int limiterInitial;
+
+    @Value("${cloudinary.limiter.min-limit:1}")
+    private int limiterMin;
+
+    @Value("${cloudinary.limiter.max-limit:50}")
+    private int limiterMax;
+
+    @Value("${cloudinary.limiter.backoff-ratio:0.9}")
+    private double limiterBackoffRatio;
+
+    // a sample slower than this multiple of the baseline RTT counts as congestion
+    @Value("${cloudinary.limiter.rtt-tolerance:1.5}")
+    private double limiterRttTolerance;
+
+    // calls per window of the windowed-minimum RTT baseline
+    @Value("${cloudinary.limiter.baseline-window:1000}")
+    private int limiterBaselineWindow;
+
+    @Value("${cloudinary.limiter.acquire-timeout-ms:30000}")
+    private long limiterAcquireTimeoutMs;
+
+    private AdaptiveConcurrencyLimiter uploadLimiter;
+    private AdaptiveConcurrencyLimiter deleteLimiter;
+
+    // one breaker for the whole account: uploads and deletes fail together in an outage
+    private CircuitBreaker circuitBreaker;
+    private Counter circuitRejected;
+    private RetryBackoff retryBackoff;
+
+    @PostConstruct
+    void initLimiters() {
+        uploadLimiter = newLimiter("upload");
+        deleteLimiter = newLimiter("delete");
+        initCircuitBreaker();
+        retryBackoff = new RetryBackoff(retryInitialBackoffMs, retryMaxBackoffMs);
+    }
+
     @Override
     public Map<String, Object> uploadFile(MultipartFile file, String folder) throws Exception {
         log.info("Uploading file to Cloudinary: {} ({} KB)",
                 file.getOriginalFilename(), file.getSize() / 1024);
 
-        return cloudinary.uploader().upload(file.getBytes(),
-                ObjectUtils.asMap(
-                        "folder", folder,
-                        "resource_type", "auto",
-                        "type", "upload",
-                        "access_mode", "public",
-                        "timeout", timeout,
-                        "chunk_size", 6000000 // 6MB chunks
-                ));
+        byte[] content = file.getBytes();
+
+        // Cloudinary picks the public_id, so a retry could leave a duplicate behind
+        return resilient("upload", uploadLimiter, uploadCost(content.length), false,
+                attemptTimeout -> cloudinary.uploader().upload(content,
+                        ObjectUtils.asMap(
+                                "folder", folder,
+                                "resource_type", "auto",
+                                "type", "upload",
+                                "access_mode", "public",
+                                "timeout", attemptTimeout,
+                                "chunk_size", 6000000 // 6MB chunks
+                        )));
     }
 
     @Override
     public Map<String, Object> uploadFile(MultipartFile file, String folder, String customPublicId) throws Exception {
+        return uploadFile(file.getBytes(), folder, customPublicId);
+    }
+
+    @Override
+    public Map<String, Object> uploadFile(byte[] content, String folder, String customPublicId) throws Exception {
         log.info("Uploading file to Cloudinary with custom name: {} ({} KB)",
-                customPublicId, file.getSize() / 1024);
-
-        return cloudinary.uploader().upload(file.getBytes(),
-                ObjectUtils.asMap(
-                        "folder", folder,
-                        "resource_type", "auto",
-                        "type", "upload",
-                        "access_mode", "public",
-                        "public_id", customPublicId,
-                        "use_filename", false,
-                        "unique_filename", false,
-                        "overwrite", true,
-                        "timeout", timeout,
-                        "chunk_size", 6000000
-                ));
+                customPublicId, content.length / 1024);
+
+        // fixed public_id with overwrite, so repeating the upload is safe
+        return resilient("upload", uploadLimiter, uploadCost(content.length), true,
+                attemptTimeout -> cloudinary.uploader().upload(content,
+                        ObjectUtils.asMap(
+                                "folder", folder,
+                                "resource_type", "auto",
+                                "type", "upload",
+                                "access_mode", "public",
+                                "public_id", customPublicId,
+                                "use_filename", false,
+                                "unique_filename", false,
+                                "overwrite", true,
+                                "timeout", attemptTimeout,
+                                "chunk_size", 6000000
+                        )));
     }
 
     @Override
     public void deleteFile(String publicId) throws Exception {
         log.info("Deleting file from Cloudinary: {}", publicId);
-        cloudinary.uploader().destroy(publicId, ObjectUtils.asMap("timeout", timeout));
+        resilient("delete", deleteLimiter, 1.0, true,
+                attemptTimeout -> cloudinary.uploader().destroy(publicId, ObjectUtils.asMap("timeout", attemptTimeout)));
     }
 
     @Override
@@ -105,4 +202,184 @@ public class CloudinaryServiceImpl implements CloudinaryService {
     public String generateFolder(String departmentName) {
         return CloudinaryFolderUtil.generateDepartmentFolder(departmentName);
     }
+
+    /**
+     * Runs a Cloudinary call behind the circuit breaker, retrying transient failures of
+     * idempotent calls with full-jitter exponential backoff. Every attempt gets its own
+     * timeout, and no attempt starts once the overall cloudinary.timeout budget is spent.
+     */
+    private <T> T resilient(String operation, AdaptiveConcurrencyLimiter limiter, double cost,
+                            boolean idempotent, CloudinaryAttempt<T> attempt) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        int maxAttempts = idempotent ? Math.max(1, retryMaxAttempts) : 1;
+
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            if (!circuitBreaker.tryAcquire()) {
+                circuitRejected.increment();
+                throw new ServiceUnavailableException("Document storage is temporarily unavailable, please try again later",
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(circuitBreaker.getRemainingOpenNanos())));
+            }
+
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            int attemptTimeout = (int) Math.max(1, Math.min(attemptTimeoutMs, remainingMs));
+
+            try {
+                T result = limited(limiter, cost, () -> attempt.call(attemptTimeout));
+                circuitBreaker.onSuccess();
+                countCall(operation, attemptNumber > 1 ? "successful_with_retry" : "successful_without_retry");
+                return result;
+
+            } catch (CloudinaryUploadException | InterruptedException e) {
+                // limiter timeout or interrupted wait: the call never reached Cloudinary
+                circuitBreaker.onIgnored();
+                countCall(operation, attemptNumber > 1 ? "failed_with_retry" : "failed_without_retry");
+                throw e;
+
+            } catch (Exception e) {
+                boolean isTransient = isTransientFailure(e);
+                if (isTransient) {
+                    circuitBreaker.onFailure();
+                } else {
+                    // Cloudinary answered and rejected the request, it is healthy
+                    circuitBreaker.onSuccess();
+                }
+
+                long backoffMs = retryBackoff.delayMs(attemptNumber);
+                boolean retry = isTransient
+                        && attemptNumber < maxAttempts
+                        && circuitBreaker.getState() != CircuitBreaker.State.OPEN
+                        && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs) < deadline;
+
+                if (!retry) {
+                    countCall(operation, attemptNumber > 1 ? "failed_with_retry" : "failed_without_retry");
+                    throw e;
+                }
+
+                log.warn("Cloudinary {} attempt {}/{} failed ({}), retrying in {} ms",
+                        operation, attemptNumber, maxAttempts, e.getMessage(), backoffMs);
+                meterRegistry.counter("cloudinary.retry.attempts", "operation", operation).increment();
+
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    countCall(operation, "failed_with_retry");
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // connection trouble, gateway errors and throttling; anything else will fail the same way again
+    private boolean isTransientFailure(Throwable e) {
+        if (isConnectionFailure(e)) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && TRANSIENT_STATUS.matcher(cause.getMessage()).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void countCall(String operation, String kind) {
+        meterRegistry.counter("cloudinary.retry.calls", "operation", operation, "kind", kind).increment();
+    }
+
+    /**
+     * Runs a Cloudinary call under the adaptive limit and feeds its outcome back into it.
+     */
+    private <T> T limited(AdaptiveConcurrencyLimiter limiter, double cost, CloudinaryCall<T> call) throws Exception {
+        AdaptiveConcurrencyLimiter.Call permit = limiter.acquire(limiterAcquireTimeoutMs, TimeUnit.MILLISECONDS);
+        if (permit == null) {
+            throw new CloudinaryUploadException("Cloudinary is busy, please try again");
+        }
+
+        try {
+            T result = call.call();
+            permit.onSuccess(cost);
+            return result;
+        } catch (Exception e) {
+            if (isConnectionFailure(e)) {
+                permit.onDropped();
+            } else {
+                permit.onIgnored();
+            }
+            throw e;
+        }
+    }
+
+    // RTT is compared per MB so big files do not look like congestion; small files cost at least 256 KB
+    private double uploadCost(long bytes) {
+        return Math.max(bytes, 256 * 1024) / (1024.0 * 1024.0);
+    }
+
+    // timeouts and resets mean Cloudinary (or the path to it) is struggling; API errors do not
+    private boolean isConnectionFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(String operation) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                limiterInitial, limiterMin, limiterMax, limiterBackoffRatio, limiterRttTolerance,
+                limiterBaselineWindow, System::nanoTime);
+
+        Gauge.builder("cloudinary.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("operation", operation)
+                .description("Current adaptive concurrency limit for Cloudinary calls")
+                .register(meterRegistry);
+        Gauge.builder("cloudinary.limiter.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("cloudinary.limiter.baseline_rtt_ms", limiter, l -> l.getBaselineRttNanos() / 1_000_000.0)
+                .tag("operation", operation)
+                .description("Minimum recent RTT (per MB for uploads) the limit is judged against")
+                .register(meterRegistry);
+
+        return limiter;
+    }
+
+    private void initCircuitBreaker() {
+        circuitBreaker = new CircuitBreaker(circuitWindowSize, circuitMinimumCalls, circuitFailureRateThreshold,
+                TimeUnit.MILLISECONDS.toNanos(circuitOpenDurationMs), circuitHalfOpenCalls, System::nanoTime);
+
+        circuitBreaker.setStateListener((from, to) -> {
+            if (to == CircuitBreaker.State.OPEN) {
+                log.error("Cloudinary circuit breaker opened ({} -> {}), failing fast for {} ms",
+                        from, to, circuitOpenDurationMs);
+            } else {
+                log.warn("Cloudinary circuit breaker {} -> {}", from, to);
+            }
+        });
+
+        // one gauge per state, 1 for the current one
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("cloudinary.circuit.state", circuitBreaker, cb -> cb.getState() == state ? 1 : 0)
+                    .tag("state", state.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("cloudinary.circuit.failure_rate", circuitBreaker, CircuitBreaker::getFailureRate)
+                .description("Share of transient failures over the breaker's sliding window")
+                .register(meterRegistry);
+
+        circuitRejected = Counter.builder("cloudinary.circuit.rejected")
+                .description("Calls failed fast while the circuit breaker was open")
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface CloudinaryCall<T> {
+        T call() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface CloudinaryAttempt<T> {
+        T call(int attemptTimeoutMs) throws Exception;
+    }
 }
\ No newline at end of file
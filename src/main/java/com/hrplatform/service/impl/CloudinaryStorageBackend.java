@@ -0,0 +1,85 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.exception.FileStorageException;
+import com.hrplatform.exception.ServiceUnavailableException;
+import com.hrplatform.service.CloudinaryService;
+import com.hrplatform.service.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Keeps documents on Cloudinary; the storage key is the Cloudinary public_id. The default
+ * backend, used unless file.storage.backend says otherwise.
+ */
+@Service
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = StorageBackend.CLOUDINARY, matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class CloudinaryStorageBackend implements StorageBackend {
+
+    private final CloudinaryService cloudinaryService;
+
+    @Override
+    public StoredFile store(MultipartFile file, String folder, String fileName) throws FileStorageException {
+        try {
+            Map<String, Object> uploadResult = cloudinaryService.uploadFile(file, folder, fileName);
+
+            return StoredFile.builder()
+                    .storageKey((String) uploadResult.get("public_id"))
+                    .url((String) uploadResult.get("secure_url"))
+                    .size(file.getSize())
+                    .build();
+
+        } catch (ServiceUnavailableException e) {
+            // circuit breaker is open, let the caller answer 503 with Retry-After
+            throw e;
+        } catch (Exception e) {
+            throw new FileStorageException("Cloudinary upload failed: " + e.getMessage(), e);
+        }
+    }
+
+    // the SDK posts a complete body, so streamed content is collected in memory (bounded by the
+    // upload size limit) rather than spooled to disk
+    @Override
+    public StoredFile store(InputStream content, String folder, String fileName, String extension) throws FileStorageException {
+        try {
+            byte[] bytes = content.readAllBytes();
+            Map<String, Object> uploadResult = cloudinaryService.uploadFile(bytes, folder, fileName);
+
+            return StoredFile.builder()
+                    .storageKey((String) uploadResult.get("public_id"))
+                    .url((String) uploadResult.get("secure_url"))
+                    .size(bytes.length)
+                    .build();
+
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to read upload: " + e.getMessage(), e);
+        } catch (ServiceUnavailableException e) {
+            // circuit breaker is open, let the caller answer 503 with Retry-After
+            throw e;
+        } catch (Exception e) {
+            throw new FileStorageException("Cloudinary upload failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void delete(String storageKey) throws FileStorageException {
+        try {
+            cloudinaryService.deleteFile(storageKey);
+        } catch (Exception e) {
+            throw new FileStorageException("Cloudinary delete failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return CLOUDINARY;
+    }
+}
@@ -0,0 +1,161 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.entity.ContentObject;
+import com.hrplatform.exception.FileStorageException;
+import com.hrplatform.repository.ContentObjectRepository;
+import com.hrplatform.service.ContentStoreService;
+import com.hrplatform.service.StorageBackend;
+import com.hrplatform.service.StorageBackend.StoredFile;
+import com.hrplatform.util.ChecksumUtil;
+import com.hrplatform.util.UuidV7;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentStoreServiceImpl implements ContentStoreService {
+
+    // a duplicate can race with the last reference being released; retry a couple of times
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final StorageBackend storageBackend;
+    private final ContentObjectRepository contentObjectRepository;
+
+    // Reference counts must commit on their own: if the caller's transaction rolls back it
+    // releases the reference explicitly, and a rolled-back increment would be released twice
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StoredFile store(MultipartFile file, String folder, String fileName) throws FileStorageException {
+        String checksum = sha256(file);
+        String backend = storageBackend.getName();
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            Optional<StoredFile> existing = acquireExisting(checksum, backend);
+            if (existing.isPresent()) {
+                log.info("Duplicate content {} for {}, reusing {}", checksum, fileName, existing.get().getStorageKey());
+                return existing.get();
+            }
+
+            StoredFile stored = storageBackend.store(file, folder, fileName);
+
+            int inserted = contentObjectRepository.insertIfAbsent(UuidV7.next(), checksum, backend,
+                    stored.getStorageKey(), stored.getUrl(), stored.getSize(), LocalDateTime.now());
+
+            if (inserted == 1) {
+                return withChecksum(stored, checksum);
+            }
+
+            // an identical upload was indexed while we were storing ours, keep theirs
+            deleteQuietly(stored.getStorageKey());
+        }
+
+        throw new FileStorageException("Could not index stored content: " + checksum);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StoredFile store(InputStream content, String folder, String fileName, String extension) throws FileStorageException {
+        MessageDigest digest = ChecksumUtil.newSha256();
+        StoredFile stored = storageBackend.store(new DigestInputStream(content, digest), folder, fileName, extension);
+
+        String checksum = HexFormat.of().formatHex(digest.digest());
+        String backend = storageBackend.getName();
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            int inserted = contentObjectRepository.insertIfAbsent(UuidV7.next(), checksum, backend,
+                    stored.getStorageKey(), stored.getUrl(), stored.getSize(), LocalDateTime.now());
+
+            if (inserted == 1) {
+                return withChecksum(stored, checksum);
+            }
+
+            Optional<StoredFile> existing = acquireExisting(checksum, backend);
+            if (existing.isPresent()) {
+                log.info("Duplicate content {} for {}, reusing {}", checksum, fileName, existing.get().getStorageKey());
+                deleteQuietly(stored.getStorageKey());
+                return existing.get();
+            }
+
+            // the existing object lost its last reference in between; try to index ours again
+        }
+
+        deleteQuietly(stored.getStorageKey());
+        throw new FileStorageException("Could not index stored content: " + checksum);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void release(String checksum, String storageKey) throws FileStorageException {
+        String backend = storageBackend.getName();
+
+        if (checksum == null || contentObjectRepository.release(checksum, backend) == 0) {
+            // not in the content index (stored before deduplication), so it is not shared
+            storageBackend.delete(storageKey);
+            return;
+        }
+
+        if (contentObjectRepository.deleteUnreferenced(checksum, backend) == 1) {
+            storageBackend.delete(storageKey);
+            log.info("Deleted unreferenced content {}", checksum);
+        }
+    }
+
+    private Optional<StoredFile> acquireExisting(String checksum, String backend) {
+        if (contentObjectRepository.acquire(checksum, backend) == 0) {
+            return Optional.empty();
+        }
+
+        // our reference keeps the row alive, so it cannot disappear between the update and this read
+        return contentObjectRepository.findByContentHashAndStorageBackend(checksum, backend)
+                .map(this::toStoredFile);
+    }
+
+    private StoredFile toStoredFile(ContentObject object) {
+        return StoredFile.builder()
+                .storageKey(object.getStorageKey())
+                .url(object.getFileUrl())
+                .size(object.getSize())
+                .checksum(object.getContentHash())
+                .build();
+    }
+
+    private StoredFile withChecksum(StoredFile stored, String checksum) {
+        return StoredFile.builder()
+                .storageKey(stored.getStorageKey())
+                .url(stored.getUrl())
+                .size(stored.getSize())
+                .checksum(checksum)
+                .build();
+    }
+
+    // streams the (already spooled) multipart content through the digest, never buffering the whole file
+    private String sha256(MultipartFile file) throws FileStorageException {
+        try (InputStream in = file.getInputStream()) {
+            return ChecksumUtil.sha256Hex(in);
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to read upload: " + file.getOriginalFilename(), e);
+        }
+    }
+
+    private void deleteQuietly(String storageKey) {
+        try {
+            storageBackend.delete(storageKey);
+        } catch (FileStorageException e) {
+            log.warn("Failed to delete duplicate object: {}", storageKey, e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hrplatform.service.impl;
 
+import com.hrplatform.config.CacheConfig;
 import com.hrplatform.dto.request.CreateDepartmentRequest;
 import com.hrplatform.dto.request.UpdateDepartmentRequest;
 import com.hrplatform.dto.response.DepartmentResponse;
@@ -11,9 +12,11 @@ import com.hrplatform.mapper.DepartmentMapper;
 import com.hrplatform.repository.DepartmentRepository;
 import com.hrplatform.repository.DocumentSubmissionRepository;
 import com.hrplatform.repository.StaffRepository;
+import com.hrplatform.service.CacheInvalidationService;
 import com.hrplatform.service.DepartmentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +33,7 @@ public class DepartmentServiceImpl implements DepartmentService {
     private final StaffRepository staffRepository;
     private final DocumentSubmissionRepository documentSubmissionRepository;
     private final DepartmentMapper departmentMapper;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Override
     @Transactional
@@ -46,6 +50,7 @@ public class DepartmentServiceImpl implements DepartmentService {
                 .build();
 
         Department savedDepartment = departmentRepository.save(department);
+        cacheInvalidationService.evict(CacheConfig.DEPARTMENTS, CacheConfig.ALL_KEY);
 
         log.info("Department created successfully with ID: {}", savedDepartment.getId());
 
@@ -68,6 +73,7 @@ public class DepartmentServiceImpl implements DepartmentService {
         department.setDescription(request.getDescription());
 
         Department updatedDepartment = departmentRepository.save(department);
+        invalidateCaches(departmentId);
 
         log.info("Department updated successfully: {}", updatedDepartment.getId());
 
@@ -76,6 +82,7 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.DEPARTMENTS, key = "#departmentId.toString()")
     public DepartmentResponse getDepartmentById(UUID departmentId) {
         Department department = findById(departmentId);
         return departmentMapper.toResponse(department);
@@ -83,6 +90,7 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.DEPARTMENTS, key = "'" + CacheConfig.ALL_KEY + "'")
     public List<DepartmentResponse> getAllDepartments() {
         return departmentRepository.findAll().stream()
                 .map(departmentMapper::toResponse)
@@ -102,6 +110,7 @@ public class DepartmentServiceImpl implements DepartmentService {
         }
 
         departmentRepository.delete(department);
+        invalidateCaches(departmentId);
 
         log.info("Department deleted successfully: {}", departmentId);
     }
@@ -136,6 +145,13 @@ public class DepartmentServiceImpl implements DepartmentService {
         return buildDepartmentStats(department);
     }
 
+    // requirement responses carry the department name, so they go too
+    private void invalidateCaches(UUID departmentId) {
+        cacheInvalidationService.evict(CacheConfig.DEPARTMENTS, departmentId);
+        cacheInvalidationService.evict(CacheConfig.DEPARTMENTS, CacheConfig.ALL_KEY);
+        cacheInvalidationService.evict(CacheConfig.ACTIVE_REQUIREMENTS, departmentId);
+    }
+
     private DepartmentStatsResponse buildDepartmentStats(Department department) {
         Long totalStaff = staffRepository.countByDepartmentId(department.getId());
         Long totalDocuments = departmentRepository.countDocumentSubmissionsByDepartment(department.getId());
@@ -0,0 +1,322 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.entity.Department;
+import com.hrplatform.entity.DocumentSubmission;
+import com.hrplatform.entity.Staff;
+import com.hrplatform.exception.BadRequestException;
+import com.hrplatform.exception.FileStorageException;
+import com.hrplatform.repository.DocumentSubmissionRepository;
+import com.hrplatform.service.DepartmentService;
+import com.hrplatform.service.DocumentBundleService;
+import com.hrplatform.service.StaffService;
+import com.hrplatform.service.StorageBackend;
+import com.hrplatform.util.CloudinaryFolderUtil;
+import com.hrplatform.util.FileUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.Deflater;
+
+/**
+ * Builds ZIP bundles of submitted documents on the fly.
+ *
+ * Entries are written one at a time, but the next few sources (local files or Cloudinary
+ * downloads) are opened ahead on bundleExecutor so network latency overlaps with writing.
+ * Only the read-ahead window of open streams is held at once; nothing is staged on disk.
+ */
+@Service
+@Slf4j
+public class DocumentBundleServiceImpl implements DocumentBundleService {
+
+    private static final String ERRORS_ENTRY = "_errors.txt";
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final DocumentSubmissionRepository documentSubmissionRepository;
+    private final StaffService staffService;
+    private final DepartmentService departmentService;
+    private final ObjectProvider<LocalStorageBackend> localStorageBackend;
+    private final Executor bundleExecutor;
+    private final HttpClient httpClient;
+
+    @Value("${document.bundle.read-ahead:4}")
+    private int readAhead;
+
+    @Value("${document.bundle.open-timeout-seconds:60}")
+    private long openTimeoutSeconds;
+
+    public DocumentBundleServiceImpl(DocumentSubmissionRepository documentSubmissionRepository,
+                                     StaffService staffService,
+                                     DepartmentService departmentService,
+                                     ObjectProvider<LocalStorageBackend> localStorageBackend,
+                                     @Qualifier("bundleExecutor") Executor bundleExecutor,
+                                     @Value("${document.bundle.connect-timeout-seconds:10}") long connectTimeoutSeconds) {
+        this.documentSubmissionRepository = documentSubmissionRepository;
+        this.staffService = staffService;
+        this.departmentService = departmentService;
+        this.localStorageBackend = localStorageBackend;
+        this.bundleExecutor = bundleExecutor;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentBundle prepareStaffBundle(UUID staffId) {
+        Staff staff = staffService.findById(staffId);
+        List<DocumentSubmission> submissions = documentSubmissionRepository.findByStaffIdWithDetails(staffId);
+
+        if (submissions.isEmpty()) {
+            throw new BadRequestException("No documents submitted by this staff member");
+        }
+
+        Set<String> usedNames = new HashSet<>();
+        List<BundleEntry> entries = new ArrayList<>();
+        for (DocumentSubmission submission : submissions) {
+            entries.add(toEntry(submission, uniqueName(usedNames, documentFileName(submission))));
+        }
+
+        return DocumentBundle.builder()
+                .fileName(clean(staff.getStaffIdNumber() + "_" + staff.getFullName()) + "_documents.zip")
+                .departmentName(staff.getDepartment() != null ? staff.getDepartment().getName() : null)
+                .entries(entries)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentBundle prepareDepartmentBundle(UUID departmentId) {
+        Department department = departmentService.findById(departmentId);
+        List<DocumentSubmission> submissions = documentSubmissionRepository.findByDepartmentIdWithDetails(departmentId);
+
+        if (submissions.isEmpty()) {
+            throw new BadRequestException("No documents submitted in this department");
+        }
+
+        // one folder per staff member
+        Set<String> usedNames = new HashSet<>();
+        List<BundleEntry> entries = new ArrayList<>();
+        for (DocumentSubmission submission : submissions) {
+            Staff staff = submission.getStaff();
+            String folder = clean(staff.getStaffIdNumber() + "_" + staff.getFullName());
+            entries.add(toEntry(submission, uniqueName(usedNames, folder + "/" + documentFileName(submission))));
+        }
+
+        return DocumentBundle.builder()
+                .fileName(clean(department.getName()) + "_documents.zip")
+                .departmentName(department.getName())
+                .entries(entries)
+                .build();
+    }
+
+    @Override
+    public int writeBundle(DocumentBundle bundle, OutputStream outputStream) throws IOException {
+        List<String> errors = new ArrayList<>();
+        Deque<PendingEntry> window = new ArrayDeque<>();
+        Iterator<BundleEntry> remaining = bundle.getEntries().iterator();
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        int written = 0;
+
+        ZipArchiveOutputStream zip = new ZipArchiveOutputStream(outputStream);
+        // documents are mostly PDFs and JPEGs that barely compress, so favour throughput
+        zip.setLevel(Deflater.BEST_SPEED);
+        zip.setUseZip64(Zip64Mode.AsNeeded);
+
+        try {
+            while (window.size() < Math.max(1, readAhead) && remaining.hasNext()) {
+                window.add(openAhead(remaining.next()));
+            }
+
+            while (!window.isEmpty()) {
+                PendingEntry pending = window.poll();
+                if (remaining.hasNext()) {
+                    window.add(openAhead(remaining.next()));
+                }
+
+                if (writeEntry(zip, pending, buffer, errors)) {
+                    written++;
+                }
+            }
+
+            if (!errors.isEmpty()) {
+                ZipArchiveEntry errorEntry = new ZipArchiveEntry(ERRORS_ENTRY);
+                zip.putArchiveEntry(errorEntry);
+                zip.write(String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+                zip.closeArchiveEntry();
+            }
+
+            zip.finish();
+            zip.flush();
+
+        } finally {
+            // client went away (or we failed): don't leak streams that were opened ahead
+            for (PendingEntry pending : window) {
+                closeWhenOpened(pending);
+            }
+        }
+
+        log.info("Wrote document bundle {} ({} of {} documents, {} errors)",
+                bundle.getFileName(), written, bundle.getEntries().size(), errors.size());
+
+        return written;
+    }
+
+    private boolean writeEntry(ZipArchiveOutputStream zip, PendingEntry pending, byte[] buffer,
+                               List<String> errors) throws IOException {
+        BundleEntry entry = pending.entry;
+        InputStream in;
+
+        try {
+            in = pending.stream.get(openTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            log.warn("Could not open {} for bundle: {}", entry.getFilePath(), e.getCause().getMessage());
+            errors.add(entry.getEntryName() + ": " + e.getCause().getMessage());
+            return false;
+        } catch (TimeoutException e) {
+            closeWhenOpened(pending);
+            errors.add(entry.getEntryName() + ": timed out opening document");
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bundle download interrupted", e);
+        }
+
+        try (InputStream source = in) {
+            zip.putArchiveEntry(new ZipArchiveEntry(entry.getEntryName()));
+
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                zip.write(buffer, 0, read);
+            }
+
+            zip.closeArchiveEntry();
+            return true;
+        }
+    }
+
+    private PendingEntry openAhead(BundleEntry entry) {
+        return new PendingEntry(entry, CompletableFuture.supplyAsync(() -> open(entry), bundleExecutor));
+    }
+
+    private InputStream open(BundleEntry entry) {
+        try {
+            if (StorageBackend.CLOUDINARY.equals(entry.getStorageBackend())) {
+                return openRemote(entry.getFileUrl());
+            }
+
+            LocalStorageBackend backend = localStorageBackend.getIfAvailable();
+            if (backend == null) {
+                throw new FileStorageException("Local storage is not enabled");
+            }
+            return backend.open(entry.getFilePath());
+
+        } catch (FileStorageException | IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while opening document", e);
+        }
+    }
+
+    private InputStream openRemote(String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(openTimeoutSeconds))
+                .GET()
+                .build();
+
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Remote storage returned HTTP " + response.statusCode());
+        }
+
+        return response.body();
+    }
+
+    private void closeWhenOpened(PendingEntry pending) {
+        pending.stream.whenComplete((in, error) -> {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close bundle source: {}", pending.entry.getFilePath());
+                }
+            }
+        });
+    }
+
+    private BundleEntry toEntry(DocumentSubmission submission, String entryName) {
+        return BundleEntry.builder()
+                .entryName(entryName)
+                .storageBackend(submission.getStorageBackend())
+                .filePath(submission.getFilePath())
+                .fileUrl(submission.getFileUrl())
+                .build();
+    }
+
+    private String documentFileName(DocumentSubmission submission) {
+        String extension = FileUtil.getFileExtension(submission.getFileName()).toLowerCase();
+        String name = clean(submission.getDocumentRequirement().getDocumentName());
+        return extension.isEmpty() ? name : name + "." + extension;
+    }
+
+    private String uniqueName(Set<String> usedNames, String name) {
+        if (usedNames.add(name)) {
+            return name;
+        }
+
+        String base = FileUtil.getFileNameWithoutExtension(name);
+        String extension = FileUtil.getFileExtension(name);
+        for (int i = 2; ; i++) {
+            String candidate = base + "_" + i + (extension.isEmpty() ? "" : "." + extension);
+            if (usedNames.add(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    private String clean(String value) {
+        return CloudinaryFolderUtil.sanitizeFolderName(value);
+    }
+
+    private static class PendingEntry {
+        final BundleEntry entry;
+        final CompletableFuture<InputStream> stream;
+
+        PendingEntry(BundleEntry entry, CompletableFuture<InputStream> stream) {
+            this.entry = entry;
+            this.stream = stream;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.entity.DocumentSubmission;
+import com.hrplatform.exception.FileStorageException;
+import com.hrplatform.exception.ResourceNotFoundException;
+import com.hrplatform.repository.DocumentSubmissionRepository;
+import com.hrplatform.service.DocumentContentService;
+import com.hrplatform.service.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentContentServiceImpl implements DocumentContentService {
+
+    private final DocumentSubmissionRepository documentSubmissionRepository;
+    // absent when file.storage.backend=cloudinary
+    private final ObjectProvider<LocalStorageBackend> localStorageBackend;
+
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentContent getContent(UUID submissionId) throws FileStorageException {
+        DocumentSubmission submission = documentSubmissionRepository.findById(submissionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document submission not found with ID: " + submissionId));
+
+        if (StorageBackend.CLOUDINARY.equals(submission.getStorageBackend())) {
+            return DocumentContent.builder()
+                    .fileName(submission.getFileName())
+                    .mimeType(submission.getMimeType())
+                    .size(submission.getFileSize())
+                    .remoteUrl(submission.getFileUrl())
+                    .build();
+        }
+
+        LocalStorageBackend backend = localStorageBackend.getIfAvailable();
+        if (backend == null) {
+            throw new FileStorageException("Local storage is not enabled, cannot serve: " + submission.getFilePath());
+        }
+
+        Path path = backend.resolve(submission.getFilePath());
+
+        try {
+            if (!Files.isRegularFile(path)) {
+                log.warn("Stored file missing for submission {}: {}", submissionId, submission.getFilePath());
+                throw new ResourceNotFoundException("Document file not found");
+            }
+
+            long size = Files.size(path);
+            Instant lastModified = Files.getLastModifiedTime(path).toInstant();
+
+            return DocumentContent.builder()
+                    .fileName(submission.getFileName())
+                    .mimeType(submission.getMimeType())
+                    .size(size)
+                    .etag(buildEtag(submission, size, lastModified))
+                    .lastModified(lastModified)
+                    .localPath(path)
+                    .build();
+
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to read stored file: " + submission.getFilePath(), e);
+        }
+    }
+
+    private String buildEtag(DocumentSubmission submission, long size, Instant lastModified) {
+        if (submission.getChecksum() != null) {
+            return "\"" + submission.getChecksum() + "\"";
+        }
+
+        // files written before checksums were recorded; stored files are never rewritten in place
+        return "\"" + submission.getId() + "-" + size + "-" + lastModified.toEpochMilli() + "\"";
+    }
+}
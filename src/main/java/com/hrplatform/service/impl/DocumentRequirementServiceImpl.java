@@ -1,5 +1,6 @@
 package com.hrplatform.service.impl;
 
+import com.hrplatform.config.CacheConfig;
 import com.hrplatform.dto.request.ConfigureDocumentRequirementsRequest;
 import com.hrplatform.dto.request.CreateDocumentRequirementRequest;
 import com.hrplatform.dto.request.UpdateDocumentRequirementRequest;
@@ -9,10 +10,12 @@ import com.hrplatform.entity.DocumentRequirement;
 import com.hrplatform.exception.ResourceNotFoundException;
 import com.hrplatform.exception.DuplicateResourceException;
 import com.hrplatform.repository.DocumentRequirementRepository;
+import com.hrplatform.service.CacheInvalidationService;
 import com.hrplatform.service.DepartmentService;
 import com.hrplatform.service.DocumentRequirementService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +31,7 @@ public class DocumentRequirementServiceImpl implements DocumentRequirementServic
 
     private final DocumentRequirementRepository documentRequirementRepository;
     private final DepartmentService departmentService;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Override
     @Transactional
@@ -58,6 +62,7 @@ public class DocumentRequirementServiceImpl implements DocumentRequirementServic
                 .build();
 
         DocumentRequirement saved = documentRequirementRepository.save(documentRequirement);
+        cacheInvalidationService.evict(CacheConfig.ACTIVE_REQUIREMENTS, request.getDepartmentId());
 
         log.info("Document requirement created successfully with ID: {}", saved.getId());
 
@@ -95,6 +100,7 @@ public class DocumentRequirementServiceImpl implements DocumentRequirementServic
         }
 
         DocumentRequirement updated = documentRequirementRepository.save(existing);
+        cacheInvalidationService.evict(CacheConfig.ACTIVE_REQUIREMENTS, existing.getDepartment().getId());
 
         log.info("Document requirement updated successfully: {}", requirementId);
 
@@ -169,6 +175,7 @@ public class DocumentRequirementServiceImpl implements DocumentRequirementServic
 
         // Save all requirements
         List<DocumentRequirement> savedRequirements = documentRequirementRepository.saveAll(requirements);
+        cacheInvalidationService.evict(CacheConfig.ACTIVE_REQUIREMENTS, departmentId);
 
         log.info("Configured {} document requirements for department: {}",
                 savedRequirements.size(), departmentId);
@@ -180,6 +187,7 @@ public class DocumentRequirementServiceImpl implements DocumentRequirementServic
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.ACTIVE_REQUIREMENTS, key = "#departmentId.toString()")
     public List<DocumentRequirementResponse> getDocumentRequirementsByDepartment(UUID departmentId) {
         log.info("Fetching active document requirements for department: {}", departmentId);
 
@@ -243,6 +251,7 @@ public class DocumentRequirementServiceImpl implements DocumentRequirementServic
         // Soft delete by setting isActive to false
         requirement.setIsActive(false);
         documentRequirementRepository.save(requirement);
+        cacheInvalidationService.evict(CacheConfig.ACTIVE_REQUIREMENTS, requirement.getDepartment().getId());
 
         log.info("Document requirement deleted successfully: {}", requirementId);
     }
@@ -7,22 +7,37 @@ import com.hrplatform.entity.DocumentSubmission;
 import com.hrplatform.entity.Staff;
 import com.hrplatform.exception.BadRequestException;
 import com.hrplatform.exception.CloudinaryUploadException;
+import com.hrplatform.exception.DuplicateResourceException;
+import com.hrplatform.exception.FileStorageException;
 import com.hrplatform.exception.InvalidFileTypeException;
+import com.hrplatform.exception.ServiceUnavailableException;
+import com.hrplatform.exception.VirusScanException;
 import com.hrplatform.mapper.DocumentSubmissionMapper;
 import com.hrplatform.repository.DocumentSubmissionRepository;
 import com.hrplatform.service.AuditService;
-import com.hrplatform.service.CloudinaryService;
+import com.hrplatform.service.ContentStoreService;
 import com.hrplatform.service.DocumentRequirementService;
 import com.hrplatform.service.DocumentSubmissionService;
+import com.hrplatform.service.ImageProcessingQueueService;
 import com.hrplatform.service.StaffService;
+import com.hrplatform.service.StorageBackend;
+import com.hrplatform.service.VirusScanService;
+import com.hrplatform.util.CloudinaryFolderUtil;
+import com.hrplatform.util.FairQueueExecutor;
 import com.hrplatform.util.FileUtil;
+import com.hrplatform.util.InspectingInputStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -35,30 +50,45 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
     private final DocumentSubmissionRepository documentSubmissionRepository;
     private final StaffService staffService;
     private final DocumentRequirementService documentRequirementService;
-    private final CloudinaryService cloudinaryService;
+    private final StorageBackend storageBackend;
+    private final ContentStoreService contentStoreService;
     private final DocumentSubmissionMapper documentSubmissionMapper;
     private final AuditService auditService;
-    private final Executor taskExecutor;
+    private final FairQueueExecutor uploadExecutor;
+    private final MeterRegistry meterRegistry;
     private final DocumentPersistenceService documentPersistenceService;
+    private final SubmissionReservationService submissionReservationService;
+    private final ImageProcessingQueueService imageProcessingQueueService;
+    private final VirusScanService virusScanService;
 
     // Manual constructor to handle @Qualifier properly
     public DocumentSubmissionServiceImpl(
             DocumentSubmissionRepository documentSubmissionRepository,
             StaffService staffService,
             DocumentRequirementService documentRequirementService,
-            CloudinaryService cloudinaryService,
+            StorageBackend storageBackend,
+            ContentStoreService contentStoreService,
             DocumentSubmissionMapper documentSubmissionMapper,
             AuditService auditService,
-            @Qualifier("taskExecutor") Executor taskExecutor, DocumentPersistenceService documentPersistenceService) {
+            @Qualifier("uploadExecutor") FairQueueExecutor uploadExecutor, DocumentPersistenceService documentPersistenceService,
+            SubmissionReservationService submissionReservationService,
+            ImageProcessingQueueService imageProcessingQueueService,
+            VirusScanService virusScanService,
+            MeterRegistry meterRegistry) {
 
         this.documentSubmissionRepository = documentSubmissionRepository;
         this.staffService = staffService;
         this.documentRequirementService = documentRequirementService;
-        this.cloudinaryService = cloudinaryService;
+        this.storageBackend = storageBackend;
+        this.contentStoreService = contentStoreService;
         this.documentSubmissionMapper = documentSubmissionMapper;
         this.auditService = auditService;
-        this.taskExecutor = taskExecutor;
+        this.uploadExecutor = uploadExecutor;
         this.documentPersistenceService = documentPersistenceService;
+        this.submissionReservationService = submissionReservationService;
+        this.imageProcessingQueueService = imageProcessingQueueService;
+        this.virusScanService = virusScanService;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -66,56 +96,199 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
     public DocumentUploadResponse uploadDocument(String staffIdNumber, DocumentUploadRequest request) {
         log.info("Processing document upload for staff: {}", staffIdNumber);
 
-        validateFile(request.getFile());
+        String mimeType = validateFile(request.getFile());
 
         Staff staff = staffService.findByStaffIdNumber(staffIdNumber);
+        DocumentRequirement requirement = findRequirementForStaff(staff, request.getDocumentRequirementId());
 
+        submissionReservationService.reserve(staff.getId(), Map.of(requirement.getId(), requirement.getDocumentName()));
+
+        try {
+            return uploadReservedDocument(staff, requirement, request, mimeType);
+        } finally {
+            submissionReservationService.releaseAfterCompletion(staff.getId(), List.of(requirement.getId()));
+        }
+    }
+
+    @Override
+    @Transactional
+    public DocumentUploadResponse uploadDocumentStream(String staffIdNumber, UUID documentRequirementId,
+                                                       String originalFilename, InputStream content) {
+        log.info("Processing streamed document upload for staff: {}", staffIdNumber);
+
+        // the content is only known once it has been stored, so the extension is checked up front
+        if (!FileUtil.isAllowedExtension(originalFilename)) {
+            throw new InvalidFileTypeException(
+                    "Invalid file type. Allowed types: PDF, JPG, JPEG, PNG, DOC, DOCX"
+            );
+        }
+
+        Staff staff = staffService.findByStaffIdNumber(staffIdNumber);
+        DocumentRequirement requirement = findRequirementForStaff(staff, documentRequirementId);
+
+        submissionReservationService.reserve(staff.getId(), Map.of(requirement.getId(), requirement.getDocumentName()));
+
+        try {
+            return uploadReservedStream(staff, requirement, originalFilename, content);
+        } finally {
+            submissionReservationService.releaseAfterCompletion(staff.getId(), List.of(requirement.getId()));
+        }
+    }
+
+    private DocumentRequirement findRequirementForStaff(Staff staff, UUID documentRequirementId) {
         if (staff.getDepartment() == null) {
             throw new BadRequestException("Please select a department before uploading documents");
         }
 
-        DocumentRequirement requirement = documentRequirementService.findById(request.getDocumentRequirementId());
+        DocumentRequirement requirement = documentRequirementService.findById(documentRequirementId);
 
         if (!requirement.getDepartment().getId().equals(staff.getDepartment().getId())) {
             throw new BadRequestException("This document requirement does not belong to your department");
         }
 
-        if (documentSubmissionRepository.existsByStaffIdAndDocumentRequirementId(
-                staff.getId(), requirement.getId())) {
-            throw new BadRequestException("Document already submitted for this requirement");
+        return requirement;
+    }
+
+    /**
+     * The part stream flows through InspectingInputStream (head/tail capture for sniffing,
+     * size limit, tee into the virus scanner) into the content store, which hashes it while
+     * the backend writes it. Checks that need the whole file run afterwards and release the
+     * stored copy if they fail.
+     */
+    private DocumentUploadResponse uploadReservedStream(Staff staff, DocumentRequirement requirement,
+                                                        String originalFilename, InputStream content) {
+        String staffIdNumber = staff.getStaffIdNumber();
+        String departmentName = staff.getDepartment().getName();
+        String documentName = requirement.getDocumentName();
+        StorageBackend.StoredFile uploaded = null;
+
+        try (VirusScanService.StreamScan scan = virusScanService.openStreamScan()) {
+            String folder = CloudinaryFolderUtil.generateDepartmentFolder(departmentName);
+            String customFileName = generateCustomFileName(staff.getFullName(), documentName);
+            String extension = FileUtil.getFileExtension(originalFilename).toLowerCase();
+
+            InspectingInputStream inspected = new InspectingInputStream(content, FileUtil.getMaxFileSize(),
+                    FileUtil.getSniffBytes(), FileUtil.getStreamingTailBytes(), scan);
+
+            StorageBackend.StoredFile stored = contentStoreService.store(inspected, folder, customFileName, extension);
+            uploaded = stored;
+
+            if (inspected.getSize() == 0) {
+                throw new BadRequestException("File cannot be empty");
+            }
+
+            String mimeType = FileUtil.detectContentType(inspected.getHead(), inspected.getTail(), inspected.getSize());
+            if (!FileUtil.matchesExtension(originalFilename, mimeType)) {
+                throw new InvalidFileTypeException(
+                        "Invalid file type. Allowed types: PDF, JPG, JPEG, PNG, DOC, DOCX"
+                );
+            }
+
+            scan.finish(originalFilename, stored.getChecksum());
+
+            DocumentSubmission submission = DocumentSubmission.builder()
+                    .staff(staff)
+                    .documentRequirement(requirement)
+                    .filePath(stored.getStorageKey())
+                    .storageBackend(storageBackend.getName())
+                    .fileUrl(stored.getUrl())
+                    .checksum(stored.getChecksum())
+                    .fileName(originalFilename)
+                    .fileSize(inspected.getSize())
+                    .mimeType(mimeType)
+                    .build();
+
+            DocumentSubmission savedSubmission = documentSubmissionRepository.saveAndFlush(submission);
+
+            imageProcessingQueueService.enqueue(savedSubmission);
+
+            auditService.logUploadSuccess(
+                    staffIdNumber,
+                    departmentName,
+                    documentName,
+                    stored.getUrl() != null ? stored.getUrl() : stored.getStorageKey()
+            );
+
+            log.info("Streamed document uploaded successfully for staff: {}", staffIdNumber);
+
+            return documentSubmissionMapper.toUploadResponse(
+                    savedSubmission,
+                    "Document uploaded successfully"
+            );
+
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Concurrent submission detected for staff: {} requirement: {}", staffIdNumber, documentName);
+            deleteOrphanedUpload(uploaded);
+            throw new DuplicateResourceException("Document already submitted for this requirement");
+
+        } catch (BadRequestException | InvalidFileTypeException | VirusScanException | ServiceUnavailableException e) {
+            deleteOrphanedUpload(uploaded);
+            throw e;
+
+        } catch (FileStorageException e) {
+            if (e.getCause() instanceof InspectingInputStream.SizeLimitExceededException) {
+                throw new BadRequestException(
+                        String.format("File size exceeds maximum limit of %s", FileUtil.getMaxFileSizeFormatted())
+                );
+            }
+
+            log.error("Failed to store streamed document for staff: {}", staffIdNumber, e);
+            auditService.logUploadFailure(staffIdNumber, departmentName, documentName, e.getMessage());
+            throw new CloudinaryUploadException("Failed to upload document: " + e.getMessage());
+
+        } catch (Exception e) {
+            log.error("Failed to upload streamed document for staff: {}", staffIdNumber, e);
+
+            deleteOrphanedUpload(uploaded);
+
+            auditService.logUploadFailure(staffIdNumber, departmentName, documentName, e.getMessage());
+
+            throw new CloudinaryUploadException("Failed to upload document: " + e.getMessage());
         }
+    }
 
+    private DocumentUploadResponse uploadReservedDocument(Staff staff, DocumentRequirement requirement,
+                                                          DocumentUploadRequest request, String mimeType) {
+        String staffIdNumber = staff.getStaffIdNumber();
         String departmentName = staff.getDepartment().getName();
         String staffFullName = staff.getFullName();
         String documentName = requirement.getDocumentName();
+        StorageBackend.StoredFile uploaded = null;
 
         try {
-            String folder = cloudinaryService.generateFolder(departmentName);
+            String folder = CloudinaryFolderUtil.generateDepartmentFolder(departmentName);
             String customFileName = generateCustomFileName(staffFullName, documentName);
 
-            Map<String, Object> uploadResult = cloudinaryService.uploadFile(
+            StorageBackend.StoredFile stored = contentStoreService.store(
                     request.getFile(),
                     folder,
                     customFileName
             );
+            uploaded = stored;
 
             DocumentSubmission submission = DocumentSubmission.builder()
                     .staff(staff)
                     .documentRequirement(requirement)
-                    .cloudinaryUrl((String) uploadResult.get("secure_url"))
-                    .cloudinaryPublicId((String) uploadResult.get("public_id"))
+                    .filePath(stored.getStorageKey())
+                    .storageBackend(storageBackend.getName())
+                    .fileUrl(stored.getUrl())
+                    .checksum(stored.getChecksum())
                     .fileName(request.getFile().getOriginalFilename())
                     .fileSize(request.getFile().getSize())
-                    .mimeType(request.getFile().getContentType())
+                    .mimeType(mimeType)
                     .build();
 
-            DocumentSubmission savedSubmission = documentSubmissionRepository.save(submission);
+            // flush now so a unique-constraint race surfaces here rather than at commit
+            DocumentSubmission savedSubmission = documentSubmissionRepository.saveAndFlush(submission);
+
+            // metadata stripping/resizing runs after the response, once this transaction commits
+            imageProcessingQueueService.enqueue(savedSubmission);
 
             auditService.logUploadSuccess(
                     staff.getStaffIdNumber(),
                     departmentName,
                     documentName,
-                    (String) uploadResult.get("secure_url")
+                    stored.getUrl() != null ? stored.getUrl() : stored.getStorageKey()
             );
 
             log.info("Document uploaded successfully for staff: {}", staffIdNumber);
@@ -125,9 +298,20 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
                     "Document uploaded successfully"
             );
 
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Concurrent submission detected for staff: {} requirement: {}", staffIdNumber, documentName);
+            deleteOrphanedUpload(uploaded);
+            throw new DuplicateResourceException("Document already submitted for this requirement");
+
+        } catch (ServiceUnavailableException e) {
+            // storage is failing fast, nothing was uploaded and the client should retry later
+            throw e;
+
         } catch (Exception e) {
             log.error("Failed to upload document for staff: {}", staffIdNumber, e);
 
+            deleteOrphanedUpload(uploaded);
+
             auditService.logUploadFailure(
                     staff.getStaffIdNumber(),
                     staff.getDepartment() != null ? staff.getDepartment().getName() : "UNKNOWN",
@@ -166,10 +350,23 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
         List<DocumentRequirementData> requirementDataList =
                 validateAndPrepareRequirements(requirementIds, files, departmentId, staffId);
 
-        List<CompletableFuture<DocumentUploadResponse>> uploadFutures =
-                processAsyncUploads(files, requirementDataList, staff, departmentName, staffFullName, staffIdNum);
+        Map<UUID, String> requirementNames = new LinkedHashMap<>();
+        for (DocumentRequirementData reqData : requirementDataList) {
+            if (requirementNames.putIfAbsent(reqData.requirementId, reqData.documentName) != null) {
+                throw new BadRequestException("Document '" + reqData.documentName + "' was included more than once");
+            }
+        }
+
+        submissionReservationService.reserve(staffId, requirementNames);
 
-        return waitForAllUploads(uploadFutures, staffIdNum);
+        try {
+            List<CompletableFuture<DocumentUploadResponse>> uploadFutures =
+                    processAsyncUploads(files, requirementDataList, staff, departmentName, staffFullName, staffIdNum);
+
+            return waitForAllUploads(uploadFutures, staffIdNum);
+        } finally {
+            submissionReservationService.releaseAfterCompletion(staffId, requirementNames.keySet());
+        }
     }
 
     @Override
@@ -200,7 +397,7 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
             MultipartFile file = files.get(i);
             UUID requirementId = requirementIds.get(i);
 
-            validateFile(file);
+            String mimeType = validateFile(file);
 
             DocumentRequirement requirement = documentRequirementService.findById(requirementId);
 
@@ -211,17 +408,11 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
                 );
             }
 
-            if (documentSubmissionRepository.existsByStaffIdAndDocumentRequirementId(
-                    staffId, requirement.getId())) {
-                throw new BadRequestException(
-                        "Document '" + requirement.getDocumentName() + "' already submitted"
-                );
-            }
-
             requirementDataList.add(new DocumentRequirementData(
                     requirement.getId(),
                     requirement.getDocumentName(),
-                    requirement
+                    requirement,
+                    mimeType
             ));
         }
 
@@ -237,14 +428,19 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
             String staffIdNum) {
 
         List<CompletableFuture<DocumentUploadResponse>> uploadFutures = new ArrayList<>();
+        Timer queueWait = meterRegistry.timer("upload.executor.queue_wait", "department", departmentName);
 
         for (int i = 0; i < files.size(); i++) {
             final MultipartFile file = files.get(i);
             final DocumentRequirementData reqData = requirementDataList.get(i);
-
-            CompletableFuture<DocumentUploadResponse> future = CompletableFuture.supplyAsync(() ->
-                            uploadSingleDocument(file, reqData, staff, departmentName, staffFullName, staffIdNum),
-                    taskExecutor
+            final long queuedAt = System.nanoTime();
+
+            // each department gets its own sub-queue on the upload workers
+            CompletableFuture<DocumentUploadResponse> future = CompletableFuture.supplyAsync(() -> {
+                        queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                        return uploadSingleDocument(file, reqData, staff, departmentName, staffFullName, staffIdNum);
+                    },
+                    task -> uploadExecutor.execute(departmentName, file.getSize(), task)
             );
 
             uploadFutures.add(future);
@@ -262,35 +458,41 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
             String staffFullName,
             String staffIdNum) {
 
+        StorageBackend.StoredFile uploaded = null;
+
         try {
             log.info("Uploading document: {} for staff: {}", reqData.documentName, staffIdNum);
 
-            String folder = cloudinaryService.generateFolder(departmentName);
+            String folder = CloudinaryFolderUtil.generateDepartmentFolder(departmentName);
             String customFileName = generateCustomFileName(staffFullName, reqData.documentName);
 
-            Map<String, Object> uploadResult = cloudinaryService.uploadFile(
+            StorageBackend.StoredFile stored = contentStoreService.store(
                     file,
                     folder,
                     customFileName
             );
+            uploaded = stored;
 
             DocumentSubmission submission = DocumentSubmission.builder()
                     .staff(staff)
                     .documentRequirement(reqData.requirement)
-                    .cloudinaryUrl((String) uploadResult.get("secure_url"))
-                    .cloudinaryPublicId((String) uploadResult.get("public_id"))
+                    .filePath(stored.getStorageKey())
+                    .storageBackend(storageBackend.getName())
+                    .fileUrl(stored.getUrl())
+                    .checksum(stored.getChecksum())
                     .fileName(file.getOriginalFilename())
                     .fileSize(file.getSize())
-                    .mimeType(file.getContentType())
+                    .mimeType(reqData.mimeType)
                     .build();
 
             DocumentSubmission savedSubmission = documentPersistenceService.saveInNewTransaction(submission);
+            imageProcessingQueueService.enqueue(savedSubmission);
 
             auditService.logUploadSuccess(
                     staffIdNum,
                     departmentName,
                     reqData.documentName,
-                    (String) uploadResult.get("secure_url")
+                    stored.getUrl() != null ? stored.getUrl() : stored.getStorageKey()
             );
 
             return documentSubmissionMapper.toUploadResponse(
@@ -298,10 +500,20 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
                     "Document uploaded successfully"
             );
 
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Concurrent submission detected for staff: {} document: {}", staffIdNum, reqData.documentName);
+            deleteOrphanedUpload(uploaded);
+            throw new DuplicateResourceException("Document '" + reqData.documentName + "' already submitted");
+
+        } catch (ServiceUnavailableException e) {
+            throw e;
+
         } catch (Exception e) {
             log.error("Failed to upload document {} for staff: {}",
                     reqData.documentName, staffIdNum, e);
 
+            deleteOrphanedUpload(uploaded);
+
             auditService.logUploadFailure(
                     staffIdNum,
                     departmentName,
@@ -343,6 +555,12 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
             if (cause instanceof CloudinaryUploadException) {
                 throw (CloudinaryUploadException) cause;
             }
+            if (cause instanceof DuplicateResourceException) {
+                throw (DuplicateResourceException) cause;
+            }
+            if (cause instanceof ServiceUnavailableException) {
+                throw (ServiceUnavailableException) cause;
+            }
             throw new CloudinaryUploadException("Failed to upload documents: " + cause.getMessage());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -351,22 +569,44 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
         }
     }
 
-    private void validateFile(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
-            throw new BadRequestException("File cannot be empty");
+    // The file was stored but the submission was not saved, so drop the reference we took
+    private void deleteOrphanedUpload(StorageBackend.StoredFile uploaded) {
+        if (uploaded == null) {
+            return;
         }
 
-        if (!FileUtil.isValidFileType(file)) {
-            throw new InvalidFileTypeException(
-                    "Invalid file type. Allowed types: PDF, JPG, JPEG, PNG, DOC, DOCX"
-            );
+        try {
+            contentStoreService.release(uploaded.getChecksum(), uploaded.getStorageKey());
+            log.info("Released orphaned upload: {}", uploaded.getStorageKey());
+        } catch (Exception e) {
+            log.warn("Failed to release orphaned upload: {}", uploaded.getStorageKey(), e);
         }
+    }
 
+    // returns the content type detected from the file's signature
+    private String validateFile(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("File cannot be empty");
+        }
+
+        // size first: it costs nothing, the type check reads the file's signature
         if (!FileUtil.isValidFileSize(file)) {
             throw new BadRequestException(
                     String.format("File size exceeds maximum limit of %s", FileUtil.getMaxFileSizeFormatted())
             );
         }
+
+        String mimeType = FileUtil.detectValidContentType(file);
+        if (mimeType == null) {
+            throw new InvalidFileTypeException(
+                    "Invalid file type. Allowed types: PDF, JPG, JPEG, PNG, DOC, DOCX"
+            );
+        }
+
+        // last: the only check that leaves the process
+        virusScanService.scanFile(file);
+
+        return mimeType;
     }
 
     private String generateCustomFileName(String staffName, String documentName) {
@@ -393,11 +633,15 @@ public class DocumentSubmissionServiceImpl implements DocumentSubmissionService
         final UUID requirementId;
         final String documentName;
         final DocumentRequirement requirement;
+        // sniffed once during validation
+        final String mimeType;
 
-        DocumentRequirementData(UUID requirementId, String documentName, DocumentRequirement requirement) {
+        DocumentRequirementData(UUID requirementId, String documentName, DocumentRequirement requirement,
+                                String mimeType) {
             this.requirementId = requirementId;
             this.documentName = documentName;
             this.requirement = requirement;
+            this.mimeType = mimeType;
         }
     }
 }
\ No newline at end of file
@@ -1,8 +1,16 @@
 package com.hrplatform.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrplatform.entity.BackgroundJob;
 import com.hrplatform.service.EmailService;
+import com.hrplatform.service.JobHandler;
+import com.hrplatform.service.JobQueueService;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,12 +18,22 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+/**
+ * Outgoing mail goes through the durable job queue: the send methods render the message
+ * and queue it (in the caller's transaction, so e.g. a reset link is only mailed if the
+ * token was saved), and queue workers deliver it with retries. A sent message's job row is
+ * deleted; one that keeps failing stays DEAD until jobs.dead-retention-days.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class EmailServiceImpl implements EmailService {
+public class EmailServiceImpl implements EmailService, JobHandler {
+
+    public static final String JOB_TYPE = "email";
 
     private final JavaMailSender mailSender;
+    private final JobQueueService jobQueueService;
+    private final ObjectMapper objectMapper;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
@@ -23,36 +41,65 @@ public class EmailServiceImpl implements EmailService {
     @Value("${app.name:HR Document Management Platform}")
     private String appName;
 
+    @Value("${jobs.email.workers:2}")
+    private int workers;
+
+    @Value("${jobs.email.max-attempts:8}")
+    private int maxAttempts;
+
     @Override
     public void sendPasswordResetEmail(String toEmail, String fullName, String resetLink) {
-        try {
-            String htmlContent = buildPasswordResetEmailHtml(fullName, resetLink);
-            sendHtmlEmail(toEmail, "Password Reset Request - " + appName, htmlContent);
-            log.info("Password reset email sent to: {}", toEmail);
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to: {}", toEmail, e);
-        }
+        String htmlContent = buildPasswordResetEmailHtml(fullName, resetLink);
+        queueHtmlEmail(toEmail, "Password Reset Request - " + appName, htmlContent);
+        log.info("Password reset email queued for: {}", toEmail);
     }
 
     @Override
     public void sendPasswordResetConfirmationEmail(String toEmail, String fullName) {
-        try {
-            String htmlContent = buildPasswordResetConfirmationEmailHtml(fullName);
-            sendHtmlEmail(toEmail, "Password Reset Successful - " + appName, htmlContent);
-            log.info("Password reset confirmation email sent to: {}", toEmail);
-        } catch (Exception e) {
-            log.error("Failed to send password reset confirmation email to: {}", toEmail, e);
-        }
+        String htmlContent = buildPasswordResetConfirmationEmailHtml(fullName);
+        queueHtmlEmail(toEmail, "Password Reset Successful - " + appName, htmlContent);
+        log.info("Password reset confirmation email queued for: {}", toEmail);
     }
 
     @Override
     public void sendWelcomeEmail(String toEmail, String fullName, String temporaryPassword) {
+        String htmlContent = buildWelcomeEmailHtml(fullName, toEmail, temporaryPassword);
+        queueHtmlEmail(toEmail, "Welcome to " + appName, htmlContent);
+        log.info("Welcome email queued for: {}", toEmail);
+    }
+
+    @Override
+    public String getType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return workers;
+    }
+
+    @Override
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public void handle(BackgroundJob job) throws Exception {
+        QueuedEmail email = objectMapper.readValue(job.getPayload(), QueuedEmail.class);
+        sendHtmlEmail(email.getTo(), email.getSubject(), email.getHtml());
+        log.info("Email \"{}\" sent to: {}", email.getSubject(), email.getTo());
+    }
+
+    @Override
+    public void onDeadLetter(BackgroundJob job, String error) {
+        log.error("Giving up on email job {}: {}", job.getId(), error);
+    }
+
+    private void queueHtmlEmail(String to, String subject, String htmlContent) {
         try {
-            String htmlContent = buildWelcomeEmailHtml(fullName, toEmail, temporaryPassword);
-            sendHtmlEmail(toEmail, "Welcome to " + appName, htmlContent);
-            log.info("Welcome email sent to: {}", toEmail);
-        } catch (Exception e) {
-            log.error("Failed to send welcome email to: {}", toEmail, e);
+            jobQueueService.enqueue(JOB_TYPE, objectMapper.writeValueAsString(new QueuedEmail(to, subject, htmlContent)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize email to " + to, e);
         }
     }
 
@@ -214,4 +261,13 @@ public class EmailServiceImpl implements EmailService {
                 "</body>" +
                 "</html>";
     }
-}
\ No newline at end of file
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class QueuedEmail {
+        private String to;
+        private String subject;
+        private String html;
+    }
+}
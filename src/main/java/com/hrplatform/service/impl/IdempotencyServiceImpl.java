@@ -0,0 +1,229 @@
+package com.hrplatform.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrplatform.config.SchedulerLock;
+import com.hrplatform.entity.IdempotencyRecord;
+import com.hrplatform.exception.BadRequestException;
+import com.hrplatform.exception.DuplicateResourceException;
+import com.hrplatform.repository.IdempotencyRecordRepository;
+import com.hrplatform.service.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final String STATUS_COMPLETED = "COMPLETED";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+
+    // Requests currently executing on this node, so local retries wait on the same future
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // how long a retry waits for the original attempt (matches the 300s multi-upload timeout)
+    @Value("${idempotency.wait-timeout-seconds:300}")
+    private long waitTimeoutSeconds;
+
+    // an IN_PROGRESS claim older than this is assumed to belong to a crashed node
+    @Value("${idempotency.in-progress-lease-seconds:600}")
+    private long inProgressLeaseSeconds;
+
+    @Value("${idempotency.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    @Override
+    public <T, E extends Exception> T execute(String key, String fingerprint, TypeReference<T> responseType,
+                                              IdempotentCall<T, E> call) throws E {
+
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(key);
+        if (stored.isPresent() && STATUS_COMPLETED.equals(stored.get().getStatus())
+                && stored.get().getExpiresAt().isAfter(LocalDateTime.now())) {
+            checkFingerprint(stored.get().getRequestFingerprint(), fingerprint);
+            log.info("Replaying stored response for idempotency key: {}", key);
+            return fromJson(stored.get().getResponseBody(), responseType);
+        }
+
+        InFlight mine = new InFlight(fingerprint);
+        InFlight running = inFlight.putIfAbsent(key, mine);
+
+        if (running != null) {
+            checkFingerprint(running.fingerprint, fingerprint);
+            log.info("Idempotency key {} is already in flight on this node, waiting for its result", key);
+            return fromJson(await(running.result), responseType);
+        }
+
+        try {
+            String otherNodeResult = claimOrWait(key, fingerprint);
+            if (otherNodeResult != null) {
+                mine.result.complete(otherNodeResult);
+                return fromJson(otherNodeResult, responseType);
+            }
+
+            T response;
+            boolean succeeded = false;
+            try {
+                response = call.call();
+                succeeded = true;
+            } catch (RuntimeException e) {
+                mine.result.completeExceptionally(e);
+                throw e;
+            } finally {
+                if (!succeeded) {
+                    // failed attempts are not remembered, the client may retry with the same key
+                    idempotencyRecordRepository.releaseInProgress(key);
+                    mine.result.completeExceptionally(new IllegalStateException("Original request failed, please retry"));
+                }
+            }
+
+            String json = toJson(response);
+            idempotencyRecordRepository.markCompleted(key, json, LocalDateTime.now().plusHours(ttlHours));
+            mine.result.complete(json);
+
+            return response;
+
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Override
+    public String fingerprint(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Scheduled(fixedRate = 3600000) // hourly
+    @SchedulerLock(name = "idempotency-key-cleanup", lockAtLeastSeconds = 3000)
+    public void cleanupExpiredKeys() {
+        int removed = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("Cleaned up {} expired idempotency keys", removed);
+        }
+    }
+
+    /**
+     * Claims the key in the database. Returns null if we own it and should run the call,
+     * or the stored JSON response if another node completed it while we waited.
+     */
+    private String claimOrWait(String key, String fingerprint) {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(waitTimeoutSeconds);
+
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            if (idempotencyRecordRepository.claim(key, fingerprint, now, now.plusHours(ttlHours)) == 1) {
+                return null;
+            }
+
+            Optional<IdempotencyRecord> record = idempotencyRecordRepository.findById(key);
+
+            if (record.isPresent()) {
+                if (!record.get().getExpiresAt().isAfter(now)) {
+                    // expired after our claim was refused; the next claim takes it over
+                    continue;
+                }
+
+                checkFingerprint(record.get().getRequestFingerprint(), fingerprint);
+
+                if (STATUS_COMPLETED.equals(record.get().getStatus())) {
+                    return record.get().getResponseBody();
+                }
+
+                if (idempotencyRecordRepository.releaseStale(key, now.minusSeconds(inProgressLeaseSeconds)) == 1) {
+                    log.warn("Took over stale in-progress idempotency key: {}", key);
+                    continue;
+                }
+            }
+
+            if (System.currentTimeMillis() > deadline) {
+                throw new DuplicateResourceException("A request with this Idempotency-Key is still being processed");
+            }
+
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DuplicateResourceException("A request with this Idempotency-Key is still being processed");
+            }
+        }
+    }
+
+    private String await(CompletableFuture<String> result) {
+        try {
+            return result.get(waitTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new DuplicateResourceException("A request with this Idempotency-Key is still being processed");
+        } catch (ExecutionException e) {
+            // the original attempt failed, surface the same error to the retry
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DuplicateResourceException("A request with this Idempotency-Key is still being processed");
+        }
+    }
+
+    private void checkFingerprint(String storedFingerprint, String fingerprint) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            throw new BadRequestException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent response", e);
+        }
+    }
+
+    private <T> T fromJson(String json, TypeReference<T> responseType) {
+        try {
+            return objectMapper.readValue(json, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored idempotent response", e);
+        }
+    }
+
+    private static class InFlight {
+        final String fingerprint;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+
+        InFlight(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
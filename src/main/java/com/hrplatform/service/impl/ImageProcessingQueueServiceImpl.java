@@ -0,0 +1,215 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.entity.BackgroundJob;
+import com.hrplatform.entity.DocumentSubmission;
+import com.hrplatform.entity.ImageProcessingJob;
+import com.hrplatform.repository.DocumentSubmissionRepository;
+import com.hrplatform.repository.ImageProcessingJobRepository;
+import com.hrplatform.service.ImageProcessingQueueService;
+import com.hrplatform.service.ImageProcessingService;
+import com.hrplatform.service.JobHandler;
+import com.hrplatform.service.JobQueueService;
+import com.hrplatform.service.StorageBackend;
+import com.hrplatform.util.ChecksumUtil;
+import com.hrplatform.util.UuidV7;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Post-upload image sanitization. The upload request only records a job; background
+ * queue workers strip metadata and resize the stored file in place, then copy the new
+ * checksum and size onto every submission that points at it.
+ *
+ * image_processing_jobs holds the per-object state and result that deduplicated uploads
+ * share; dispatch, leases and retries belong to the background job queue.
+ */
+@Service
+@Slf4j
+public class ImageProcessingQueueServiceImpl implements ImageProcessingQueueService, JobHandler {
+
+    public static final String JOB_TYPE = "image-processing";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final ImageProcessingJobRepository jobRepository;
+    private final DocumentSubmissionRepository documentSubmissionRepository;
+    private final ImageProcessingService imageProcessingService;
+    private final ObjectProvider<LocalStorageBackend> localStorageBackend;
+    private final JobQueueService jobQueueService;
+    private final TransactionTemplate requiresNewTransaction;
+
+    @Value("${file.image-processing.workers:2}")
+    private int workers;
+
+    @Value("${file.image-processing.max-attempts:3}")
+    private int maxAttempts;
+
+    public ImageProcessingQueueServiceImpl(ImageProcessingJobRepository jobRepository,
+                                           DocumentSubmissionRepository documentSubmissionRepository,
+                                           ImageProcessingService imageProcessingService,
+                                           ObjectProvider<LocalStorageBackend> localStorageBackend,
+                                           JobQueueService jobQueueService,
+                                           PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.documentSubmissionRepository = documentSubmissionRepository;
+        this.imageProcessingService = imageProcessingService;
+        this.localStorageBackend = localStorageBackend;
+        this.jobQueueService = jobQueueService;
+
+        // afterCommit callbacks still see the finished transaction; writes there need their own
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void enqueue(DocumentSubmission submission) {
+        // only locally stored JPEG/PNG files are rewritten; Cloudinary sanitizes on its side
+        if (!StorageBackend.LOCAL.equals(submission.getStorageBackend()) || !isImage(submission.getMimeType())) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the worker's bulk update must be able to see the submission row
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueueNow(submission.getId(), submission.getStorageBackend(), submission.getFilePath());
+                }
+            });
+        } else {
+            enqueueNow(submission.getId(), submission.getStorageBackend(), submission.getFilePath());
+        }
+    }
+
+    private void enqueueNow(UUID submissionId, String storageBackend, String storageKey) {
+        try {
+            requiresNewTransaction.executeWithoutResult(status -> {
+                documentSubmissionRepository.updateProcessingStatus(submissionId, STATUS_PENDING);
+
+                boolean created = jobRepository.insertIfAbsent(
+                        UuidV7.next(), storageBackend, storageKey, LocalDateTime.now()) == 1;
+
+                ImageProcessingJob job = jobRepository.findByStorageBackendAndStorageKey(storageBackend, storageKey)
+                        .orElse(null);
+
+                if (job == null) {
+                    return;
+                }
+
+                if (created) {
+                    // committed together with the image job row, so a crash cannot lose it
+                    jobQueueService.enqueue(JOB_TYPE, job.getId().toString());
+                } else {
+                    // deduplicated upload of an object that already has a job
+                    syncFinishedJob(submissionId, job);
+                }
+            });
+
+        } catch (Exception e) {
+            // the submission keeps its original file, it just is not sanitized
+            log.error("Failed to queue image processing for submission: {}", submissionId, e);
+        }
+    }
+
+    private void syncFinishedJob(UUID submissionId, ImageProcessingJob job) {
+        if (STATUS_COMPLETED.equals(job.getStatus()) || STATUS_FAILED.equals(job.getStatus())) {
+            documentSubmissionRepository.applyProcessingResult(job.getStorageBackend(), job.getStorageKey(),
+                    job.getStatus(), job.getResultChecksum(), job.getResultSize());
+            log.debug("Submission {} reuses processed object {}", submissionId, job.getStorageKey());
+        }
+    }
+
+    @Override
+    public String getType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return workers;
+    }
+
+    @Override
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public void handle(BackgroundJob backgroundJob) throws Exception {
+        UUID jobId = UUID.fromString(backgroundJob.getPayload());
+
+        if (jobRepository.markRunning(jobId, LocalDateTime.now()) == 0) {
+            return; // already processed, this is a redelivery
+        }
+
+        ImageProcessingJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        try {
+            LocalStorageBackend backend = localStorageBackend.getIfAvailable();
+            if (backend == null) {
+                throw new IllegalStateException("Local storage is not enabled");
+            }
+
+            Path path = backend.resolve(job.getStorageKey());
+            imageProcessingService.processImage(path.toFile());
+
+            String checksum;
+            try (InputStream in = Files.newInputStream(path)) {
+                checksum = ChecksumUtil.sha256Hex(in);
+            }
+            long size = Files.size(path);
+
+            jobRepository.markCompleted(jobId, checksum, size, LocalDateTime.now());
+            int updated = documentSubmissionRepository.applyProcessingResult(
+                    job.getStorageBackend(), job.getStorageKey(), STATUS_COMPLETED, checksum, size);
+
+            log.info("Processed image {} ({} submissions updated)", job.getStorageKey(), updated);
+
+        } catch (Exception e) {
+            // back to PENDING until the queue either retries or dead-letters the job
+            jobRepository.markFailedAttempt(jobId, STATUS_PENDING, truncate(e.getMessage()), LocalDateTime.now());
+            throw e;
+        }
+    }
+
+    @Override
+    public void onDeadLetter(BackgroundJob backgroundJob, String error) {
+        jobRepository.findById(UUID.fromString(backgroundJob.getPayload())).ifPresent(job -> {
+            jobRepository.markFailedAttempt(job.getId(), STATUS_FAILED, truncate(error), LocalDateTime.now());
+
+            // the original stays in place, it just was not sanitized
+            documentSubmissionRepository.applyProcessingResult(
+                    job.getStorageBackend(), job.getStorageKey(), STATUS_FAILED, null, null);
+            log.error("Image processing failed permanently for {}: {}", job.getStorageKey(), error);
+        });
+    }
+
+    private boolean isImage(String mimeType) {
+        return "image/jpeg".equals(mimeType) || "image/png".equals(mimeType);
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -3,29 +3,48 @@ package com.hrplatform.service.impl;
 import com.hrplatform.config.FileStorageConfig;
 import com.hrplatform.exception.ImageProcessingException;
 import com.hrplatform.service.ImageProcessingService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
 import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Iterator;
+import java.util.concurrent.Semaphore;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ImageProcessingServiceImpl implements ImageProcessingService {
 
     private final FileStorageConfig config;
 
+    // bounds how many decoded bitmaps can be on the heap at once
+    private final Semaphore imagePermits;
+
+    public ImageProcessingServiceImpl(FileStorageConfig config) {
+        this.config = config;
+        this.imagePermits = new Semaphore(Math.max(1, config.getMaxConcurrentImageOperations()), true);
+    }
+
     /**
      * Process image: strip metadata, resize if needed, re-encode
      * This removes EXIF data, potential exploits, and ensures clean image
+     *
+     * Dimensions come from the header only; oversized images are decoded with source
+     * subsampling so the full-resolution bitmap is never materialised. Peak heap per
+     * image stays around (2 * max-dimension)^2 * 4 bytes.
      */
     @Override
     public void processImage(File imageFile) throws ImageProcessingException {
@@ -39,40 +58,106 @@ public class ImageProcessingServiceImpl implements ImageProcessingService {
             return;
         }
 
+        acquirePermit();
+
         try {
             log.info("🖼️ Processing image: {}", imageFile.getName());
 
-            // Read original image
-            BufferedImage originalImage = ImageIO.read(imageFile);
-            if (originalImage == null) {
-                throw new ImageProcessingException("Could not read image file");
-            }
+            Decoded decoded = decode(imageFile, config.getMaxImageDimension());
+
+            writeImage(decoded.image, decoded.format, imageFile.toPath());
+
+            log.info("✅ Image processed successfully: {}", imageFile.getName());
 
-            // Check and resize if needed
-            BufferedImage processedImage = resizeIfNeeded(originalImage);
+        } catch (ImageProcessingException e) {
+            log.error("❌ Image processing failed for: {}", imageFile.getName(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error("❌ Image processing failed for: {}", imageFile.getName(), e);
+            throw new ImageProcessingException("Image processing failed: " + e.getMessage(), e);
+        } finally {
+            imagePermits.release();
+        }
+    }
+
+    /**
+     * Decode an image no larger than maxDimension on either side, under the same
+     * concurrency cap and subsampling as processImage (used for thumbnails)
+     */
+    @Override
+    public BufferedImage decodeScaled(File imageFile, int maxDimension) throws ImageProcessingException {
+        acquirePermit();
 
-            // Strip metadata by re-encoding
-            String format = getImageFormat(imageFile);
+        try {
+            return decode(imageFile, maxDimension).image;
+        } catch (ImageProcessingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ImageProcessingException("Could not decode image: " + e.getMessage(), e);
+        } finally {
+            imagePermits.release();
+        }
+    }
 
-            // Create clean image without metadata
-            boolean written = ImageIO.write(processedImage, format, imageFile);
+    private void acquirePermit() throws ImageProcessingException {
+        try {
+            imagePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageProcessingException("Interrupted while waiting to process image");
+        }
+    }
 
-            if (!written) {
-                throw new ImageProcessingException("Failed to write processed image");
+    private Decoded decode(File imageFile, int maxDimension) throws IOException, ImageProcessingException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(imageFile)) {
+            if (iis == null) {
+                throw new ImageProcessingException("Could not open image file");
             }
 
-            log.info("✅ Image processed successfully: {}", imageFile.getName());
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                throw new ImageProcessingException("Could not read image file");
+            }
 
-        } catch (Exception e) {
-            log.error("❌ Image processing failed for: {}", imageFile.getName(), e);
-            throw new ImageProcessingException("Image processing failed: " + e.getMessage());
+            ImageReader reader = readers.next();
+            try {
+                // ignoreMetadata: EXIF is being stripped anyway, don't parse it
+                reader.setInput(iis, true, true);
+                String format = reader.getFormatName().toLowerCase();
+                return new Decoded(format, decodeToTargetSize(reader, maxDimension));
+            } finally {
+                reader.dispose();
+            }
         }
     }
 
-    private BufferedImage resizeIfNeeded(BufferedImage image) {
+    private BufferedImage decodeToTargetSize(ImageReader reader, int maxDimension) throws IOException, ImageProcessingException {
+        // header only, nothing decoded yet
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+
+        if ((long) width * height > config.getMaxSourcePixels()) {
+            throw new ImageProcessingException(
+                    String.format("Image too large (%dx%d)", width, height));
+        }
+
+        ImageReadParam param = reader.getDefaultReadParam();
+
+        // decode every n-th pixel so the bitmap lands between 1x and 2x the target size
+        int subsampling = Math.max(1, Math.max(width, height) / maxDimension);
+        if (subsampling > 1) {
+            log.info("🔄 Decoding {}x{} image with {}x subsampling", width, height, subsampling);
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+
+        BufferedImage decoded = reader.read(0, param);
+
+        return resizeIfNeeded(decoded, maxDimension);
+    }
+
+    private BufferedImage resizeIfNeeded(BufferedImage image, int maxDimension) {
         int width = image.getWidth();
         int height = image.getHeight();
-        int maxDimension = config.getMaxImageDimension();
 
         // Check if resize needed
         if (width <= maxDimension && height <= maxDimension) {
@@ -90,8 +175,9 @@ public class ImageProcessingServiceImpl implements ImageProcessingService {
         int newWidth = (int) (width * scaleFactor);
         int newHeight = (int) (height * scaleFactor);
 
-        // Create resized image with high quality
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, image.getType());
+        // Create resized image with high quality (decoded images are often TYPE_CUSTOM, which can't be drawn into)
+        BufferedImage resized = new BufferedImage(newWidth, newHeight,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
         Graphics2D g2d = resized.createGraphics();
 
         // High quality rendering
@@ -106,25 +192,72 @@ public class ImageProcessingServiceImpl implements ImageProcessingService {
         return resized;
     }
 
-    private String getImageFormat(File file) {
-        try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
-            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
-            if (readers.hasNext()) {
-                ImageReader reader = readers.next();
-                String format = reader.getFormatName().toLowerCase();
-                reader.dispose();
-                return format;
+    /**
+     * Re-encodes into a temp file next to the original and swaps it in, so a failed
+     * write never leaves a truncated image behind.
+     */
+    private void writeImage(BufferedImage image, String format, Path target) throws IOException, ImageProcessingException {
+        boolean jpeg = format.equals("jpeg") || format.equals("jpg");
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(jpeg ? "jpeg" : format);
+        if (!writers.hasNext()) {
+            throw new ImageProcessingException("No image writer for format: " + format);
+        }
+
+        ImageWriter writer = writers.next();
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "img-", ".tmp");
+
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+
+            if (jpeg) {
+                // JPEG has no alpha channel
+                image = toRgb(image);
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(config.getJpegQuality());
+            }
+
+            try (ImageOutputStream ios = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(ios);
+                writer.write(null, new IIOImage(image, null, null), param);
             }
-        } catch (IOException e) {
-            log.warn("Could not determine image format, defaulting to jpg");
+
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
         }
-        return "jpg";
+    }
+
+    private BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = rgb.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return rgb;
     }
 
     private boolean isImageFile(File file) {
         String name = file.getName().toLowerCase();
         return name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png");
     }
+
+    private static class Decoded {
+        final String format;
+        final BufferedImage image;
+
+        Decoded(String format, BufferedImage image) {
+            this.format = format;
+            this.image = image;
+        }
+    }
 }
 
 /*
@@ -0,0 +1,410 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.config.SchedulerLock;
+import com.hrplatform.entity.BackgroundJob;
+import com.hrplatform.repository.BackgroundJobRepository;
+import com.hrplatform.service.JobHandler;
+import com.hrplatform.service.JobQueueService;
+import com.hrplatform.util.RetryBackoff;
+import com.hrplatform.util.UuidV7;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable job queue on the background_jobs table (V7__background_jobs.sql).
+ *
+ * Every node polls for due jobs of each registered type and claims as many as it has free
+ * worker slots, in one transaction with SELECT ... FOR UPDATE SKIP LOCKED, so nodes never
+ * block on or double-claim each other's rows. A claim is a lease: running jobs have it
+ * renewed by the heartbeat, and a job whose node died is requeued once the lease runs out.
+ * Lease expiry and run_at times are computed by the database, so nodes with skewed clocks
+ * agree on when a lease has run out.
+ * Failures are retried with full-jitter exponential backoff until the handler's attempt
+ * limit, then the job is kept as DEAD for inspection until the retention purge.
+ *
+ * On shutdown the node stops claiming and gives running jobs a short grace period; anything
+ * still running after that is picked up again elsewhere when its lease expires.
+ */
+@Service
+@Slf4j
+public class JobQueueServiceImpl implements JobQueueService {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_DEAD = "DEAD";
+
+    private final BackgroundJobRepository jobRepository;
+    private final ObjectProvider<JobHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String owner;
+
+    private final Map<String, Worker> workers = new LinkedHashMap<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("Job dispatcher-"));
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private volatile boolean running;
+    private RetryBackoff retryBackoff;
+
+    // a claim not renewed for this long is assumed to belong to a dead node
+    @Value("${jobs.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${jobs.claim-batch-size:20}")
+    private int claimBatchSize;
+
+    @Value("${jobs.retry.initial-backoff-ms:5000}")
+    private long retryInitialBackoffMs;
+
+    @Value("${jobs.retry.max-backoff-ms:900000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${jobs.dead-retention-days:14}")
+    private int deadRetentionDays;
+
+    @Value("${jobs.shutdown-wait-seconds:20}")
+    private long shutdownWaitSeconds;
+
+    // handlers implement services that enqueue jobs themselves, so they are looked up at startup
+    public JobQueueServiceImpl(BackgroundJobRepository jobRepository,
+                               ObjectProvider<JobHandler> handlers,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.node-id:}") String nodeId) {
+        this.jobRepository = jobRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        // "pid@hostname" unless configured
+        this.owner = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+    }
+
+    @Override
+    public UUID enqueue(String jobType, String payload) {
+        UUID id = UuidV7.next();
+
+        jobRepository.insertPending(id, jobType, payload);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the row is invisible to the workers until the caller commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+
+        log.debug("Queued {} job {}", jobType, id);
+        return id;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        retryBackoff = new RetryBackoff(retryInitialBackoffMs, retryMaxBackoffMs);
+        handlers.orderedStream().forEach(handler -> {
+            if (workers.putIfAbsent(handler.getType(), new Worker(handler)) != null) {
+                throw new IllegalStateException("Two job handlers for type " + handler.getType());
+            }
+        });
+
+        running = true;
+        log.info("Job queue started on {} for {}", owner, workers.keySet());
+
+        // resume whatever was queued before the restart
+        dispatch();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        dispatcher.shutdownNow();
+
+        for (Worker worker : workers.values()) {
+            worker.pool.shutdown();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(shutdownWaitSeconds);
+        for (Worker worker : workers.values()) {
+            try {
+                if (!worker.pool.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    log.warn("{} {} jobs still running at shutdown; they will be retried when their lease expires",
+                            worker.inFlight.size(), worker.handler.getType());
+                    worker.pool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${jobs.poll-interval-ms:5000}")
+    public synchronized void dispatch() {
+        if (!running) {
+            return;
+        }
+
+        try {
+            int requeued = jobRepository.requeueExpired();
+            if (requeued > 0) {
+                log.warn("Requeued {} background jobs whose lease expired", requeued);
+            }
+
+            for (Worker worker : workers.values()) {
+                claimAndStart(worker);
+            }
+        } catch (DataAccessException e) {
+            // the next poll tries again; nothing was claimed
+            log.warn("Background job dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    // Lease renewal for jobs running on this node, plus the backlog gauges
+    @Scheduled(fixedDelayString = "${jobs.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        if (!running) {
+            return;
+        }
+
+        for (Worker worker : workers.values()) {
+            // jobs claimed together share a token, so this is one update per claim batch
+            Map<UUID, List<UUID>> idsByToken = new LinkedHashMap<>();
+            worker.inFlight.forEach((id, token) -> idsByToken.computeIfAbsent(token, t -> new ArrayList<>()).add(id));
+
+            for (Map.Entry<UUID, List<UUID>> claim : idsByToken.entrySet()) {
+                List<UUID> ids = claim.getValue();
+                int renewed = jobRepository.extendLeases(ids, claim.getKey(), leaseSeconds);
+                if (renewed < ids.size()) {
+                    log.warn("{} of {} running {} jobs lost their lease", ids.size() - renewed, ids.size(),
+                            worker.handler.getType());
+                }
+            }
+        }
+
+        Map<String, long[]> counts = new LinkedHashMap<>();
+        for (Object[] row : jobRepository.countByTypeAndStatus()) {
+            long[] byStatus = counts.computeIfAbsent((String) row[0], type -> new long[2]);
+            if (STATUS_PENDING.equals(row[1])) {
+                byStatus[0] = ((Number) row[2]).longValue();
+            } else if (STATUS_DEAD.equals(row[1])) {
+                byStatus[1] = ((Number) row[2]).longValue();
+            }
+        }
+        for (Worker worker : workers.values()) {
+            long[] byStatus = counts.getOrDefault(worker.handler.getType(), new long[2]);
+            worker.pending.set(byStatus[0]);
+            worker.dead.set(byStatus[1]);
+        }
+    }
+
+    @Scheduled(cron = "${jobs.purge-cron:0 15 3 * * *}")
+    @SchedulerLock(name = "background-job-purge", lockAtLeastSeconds = 300)
+    public void purgeDead() {
+        int purged = jobRepository.deleteDeadBefore(deadRetentionDays);
+        if (purged > 0) {
+            log.info("Purged {} dead background jobs older than {} days", purged, deadRetentionDays);
+        }
+    }
+
+    private void wakeUp() {
+        if (running && wakeUpPending.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> {
+                    wakeUpPending.set(false);
+                    dispatch();
+                });
+            } catch (RuntimeException e) {
+                // shutting down; the job stays queued
+                wakeUpPending.set(false);
+            }
+        }
+    }
+
+    private void claimAndStart(Worker worker) {
+        // only dispatch() takes slots and it is synchronized, so these stay free until used
+        int free;
+        while ((free = Math.min(worker.slots.availablePermits(), claimBatchSize)) > 0) {
+            List<BackgroundJob> claimed = claim(worker.handler.getType(), free);
+
+            for (BackgroundJob job : claimed) {
+                worker.slots.acquireUninterruptibly();
+                worker.inFlight.put(job.getId(), job.getLockToken());
+                try {
+                    worker.pool.execute(() -> run(worker, job));
+                } catch (RejectedExecutionException e) {
+                    // shutting down; the claim lapses with its lease
+                    worker.inFlight.remove(job.getId(), job.getLockToken());
+                    worker.slots.release();
+                }
+            }
+
+            if (claimed.size() < free) {
+                return;
+            }
+        }
+    }
+
+    private List<BackgroundJob> claim(String jobType, int limit) {
+        UUID token = UUID.randomUUID();
+
+        List<BackgroundJob> claimed = transactionTemplate.execute(status -> {
+            List<UUID> ids = jobRepository.lockDue(jobType, limit);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+
+            jobRepository.markClaimed(ids, owner, token, leaseSeconds);
+            return jobRepository.findAllById(ids);
+        });
+
+        return claimed == null ? List.of() : claimed;
+    }
+
+    private void run(Worker worker, BackgroundJob job) {
+        JobHandler handler = worker.handler;
+
+        try {
+            if (job.getAttempts() > handler.getMaxAttempts()) {
+                // its last attempt ended in a lease expiry, i.e. the node died running it
+                deadLetter(worker, job, "Lease expired on the last attempt");
+                return;
+            }
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                handler.handle(job);
+            } finally {
+                sample.stop(worker.duration);
+            }
+
+            if (jobRepository.deleteCompleted(job.getId(), job.getLockToken()) == 0) {
+                log.warn("{} job {} finished after losing its lease; it may run again", handler.getType(), job.getId());
+            }
+            worker.completed.increment();
+
+        } catch (Exception e) {
+            fail(worker, job, e);
+        } finally {
+            // only its own entry: if the job was claimed again after this run lost its lease,
+            // the entry is the new run's and must keep being renewed
+            worker.inFlight.remove(job.getId(), job.getLockToken());
+            worker.slots.release();
+        }
+    }
+
+    private void fail(Worker worker, BackgroundJob job, Exception cause) {
+        String error = truncate(cause.getClass().getSimpleName() + ": " + cause.getMessage());
+
+        try {
+            if (job.getAttempts() >= worker.handler.getMaxAttempts()) {
+                log.error("{} job {} failed on its last attempt ({})", worker.handler.getType(), job.getId(),
+                        job.getAttempts(), cause);
+                deadLetter(worker, job, error);
+                return;
+            }
+
+            long backoffMs = retryBackoff.delayMs(job.getAttempts());
+            jobRepository.scheduleRetry(job.getId(), job.getLockToken(), backoffMs / 1000.0, error);
+            worker.retried.increment();
+
+            log.warn("{} job {} attempt {}/{} failed, retrying in {} ms: {}", worker.handler.getType(), job.getId(),
+                    job.getAttempts(), worker.handler.getMaxAttempts(), backoffMs, cause.getMessage());
+
+        } catch (RuntimeException e) {
+            // the lease runs out and the job is retried from there
+            log.error("Could not record failure of {} job {}", worker.handler.getType(), job.getId(), e);
+        }
+    }
+
+    private void deadLetter(Worker worker, BackgroundJob job, String error) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jobRepository.markDead(job.getId(), job.getLockToken(), error) == 1) {
+                worker.handler.onDeadLetter(job, error);
+                worker.deadLettered.increment();
+            }
+        });
+    }
+
+
+    private String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    /**
+     * Worker slots, thread pool and meters for one job type on this node.
+     */
+    private class Worker {
+
+        private final JobHandler handler;
+        private final Semaphore slots;
+        private final ExecutorService pool;
+        // claimed jobs running here, id -> claim token of the latest claim of that job
+        private final Map<UUID, UUID> inFlight = new ConcurrentHashMap<>();
+        private final AtomicLong pending = new AtomicLong();
+        private final AtomicLong dead = new AtomicLong();
+
+        private final Timer duration;
+        private final Counter completed;
+        private final Counter retried;
+        private final Counter deadLettered;
+
+        Worker(JobHandler handler) {
+            String type = handler.getType();
+            int concurrency = Math.max(1, handler.getConcurrency());
+
+            this.handler = handler;
+            this.slots = new Semaphore(concurrency);
+            this.pool = Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("Job " + type + "-"));
+
+            Gauge.builder("jobs.running", inFlight, Map::size).tag("type", type).register(meterRegistry);
+            Gauge.builder("jobs.pending", pending, AtomicLong::get).tag("type", type)
+                    .description("Queued jobs on all nodes, as of the last heartbeat")
+                    .register(meterRegistry);
+            Gauge.builder("jobs.dead", dead, AtomicLong::get).tag("type", type)
+                    .description("Dead-lettered jobs awaiting the retention purge")
+                    .register(meterRegistry);
+
+            this.duration = meterRegistry.timer("jobs.duration", "type", type);
+            this.completed = meterRegistry.counter("jobs.completed", "type", type);
+            this.retried = meterRegistry.counter("jobs.retried", "type", type);
+            this.deadLettered = meterRegistry.counter("jobs.dead_lettered", "type", type);
+        }
+    }
+}
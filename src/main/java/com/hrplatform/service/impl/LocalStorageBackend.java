@@ -0,0 +1,216 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.config.FileStorageConfig;
+import com.hrplatform.exception.FileStorageException;
+import com.hrplatform.service.StorageBackend;
+import com.hrplatform.util.FileUtil;
+import com.hrplatform.util.UuidV7;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stores uploads on local disk under file.storage.local.root-dir.
+ *
+ * Bytes are copied with FileChannel.transferFrom into a temp file on the same filesystem,
+ * fsync'd, then atomically renamed into place, so a crash never leaves a half-written
+ * document at its final path. Files are fanned out over two levels of hash directories
+ * (folder/ab/cd/name_uuid.ext) to keep directory sizes small.
+ *
+ * Every stored file gets a fresh UUID in its name. The caller's file name is only unique to
+ * the second or so, and the rename replaces whatever is at the target, so without it two
+ * uploads could silently share a key and deleting one would delete the other.
+ * Opt-in with file.storage.backend=local.
+ */
+@Service
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = StorageBackend.LOCAL)
+@Slf4j
+public class LocalStorageBackend implements StorageBackend {
+
+    private static final String TEMP_DIR = ".tmp";
+
+    private final FileStorageConfig config;
+    private final Path rootDir;
+
+    public LocalStorageBackend(FileStorageConfig config) throws IOException {
+        this.config = config;
+        this.rootDir = Paths.get(config.getLocalRootDir()).toAbsolutePath().normalize();
+
+        // temp files must live on the same filesystem as the targets for ATOMIC_MOVE to work
+        Files.createDirectories(rootDir.resolve(TEMP_DIR));
+        log.info("Local storage backend rooted at {}", rootDir);
+    }
+
+    @Override
+    public StoredFile store(MultipartFile file, String folder, String fileName) throws FileStorageException {
+        String extension = FileUtil.getFileExtension(file.getOriginalFilename()).toLowerCase();
+
+        try (InputStream in = file.getInputStream()) {
+            return write(in, folder, fileName, extension, file.getSize());
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to read upload: " + file.getOriginalFilename(), e);
+        }
+    }
+
+    @Override
+    public StoredFile store(InputStream content, String folder, String fileName, String extension) throws FileStorageException {
+        return write(content, folder, fileName, extension, -1);
+    }
+
+    private StoredFile write(InputStream in, String folder, String fileName, String extension,
+                             long expectedSize) throws FileStorageException {
+        String uniqueName = fileName + "_" + UuidV7.next();
+        String storedName = extension.isEmpty() ? uniqueName : uniqueName + "." + extension;
+        String storageKey = buildStorageKey(folder, storedName);
+
+        Path target = resolve(storageKey);
+        Path temp = null;
+
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(rootDir.resolve(TEMP_DIR), "upload-", ".part");
+
+            long written;
+            try (ReadableByteChannel source = sourceChannel(in);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+
+                written = transfer(source, out);
+
+                if (expectedSize >= 0 && written != expectedSize) {
+                    throw new IOException("Expected " + expectedSize + " bytes but wrote " + written);
+                }
+
+                if (config.isFsyncEnabled()) {
+                    out.force(true);
+                }
+
+            }
+
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+
+            if (config.isFsyncEnabled()) {
+                syncDirectory(target.getParent());
+            }
+
+            log.info("Stored file locally: {} ({} KB)", storageKey, written / 1024);
+
+            return StoredFile.builder()
+                    .storageKey(storageKey)
+                    .size(written)
+                    .build();
+
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to store file: " + storageKey, e);
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    @Override
+    public void delete(String storageKey) throws FileStorageException {
+        try {
+            if (Files.deleteIfExists(resolve(storageKey))) {
+                log.info("Deleted local file: {}", storageKey);
+            }
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to delete file: " + storageKey, e);
+        }
+    }
+
+    public InputStream open(String storageKey) throws FileStorageException {
+        try {
+            return Files.newInputStream(resolve(storageKey));
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to open file: " + storageKey, e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return LOCAL;
+    }
+
+    /**
+     * Resolves a storage key against the root directory, refusing anything that escapes it.
+     */
+    public Path resolve(String storageKey) throws FileStorageException {
+        Path path = rootDir.resolve(storageKey).normalize();
+        if (!path.startsWith(rootDir) || path.equals(rootDir)) {
+            throw new FileStorageException("Invalid storage key: " + storageKey);
+        }
+        return path;
+    }
+
+    private long transfer(ReadableByteChannel source, FileChannel out) throws IOException {
+        long chunk = config.getTransferChunkBytes();
+        long position = 0;
+
+        while (true) {
+            // returns 0 once the source is exhausted
+            long transferred = out.transferFrom(source, position, chunk);
+            if (transferred <= 0) {
+                return position;
+            }
+            position += transferred;
+        }
+    }
+
+    // spooled multipart parts are usually files, in which case the kernel can copy directly
+    private ReadableByteChannel sourceChannel(InputStream in) {
+        if (in instanceof FileInputStream fileInputStream) {
+            return fileInputStream.getChannel();
+        }
+        return Channels.newChannel(in);
+    }
+
+    private String buildStorageKey(String folder, String storedName) {
+        String hash = sha256Hex(storedName);
+        return String.format("%s/%s/%s/%s", folder, hash.substring(0, 2), hash.substring(2, 4), storedName);
+    }
+
+    private void syncDirectory(Path directory) {
+        // makes the rename itself durable; not supported on every platform (e.g. Windows)
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Directory fsync not supported for {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp file: {}", path, e);
+        }
+    }
+
+    private String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.service.SchedulerLockService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide locks on the scheduler_locks table (V8__scheduler_locks.sql).
+ *
+ * Acquiring is a single upsert that only takes over a row whose lease has run out, and
+ * bumps the fencing token when it does. All times come from the database clock. Held
+ * leases are renewed from a background thread (the Spring scheduler may be busy running
+ * the very job that holds the lock).
+ */
+@Service
+@Slf4j
+public class SchedulerLockServiceImpl implements SchedulerLockService {
+
+    private static final String ACQUIRE =
+            "INSERT INTO scheduler_locks (name, locked_by, locked_at, locked_until, fencing_token) " +
+            "VALUES (?, ?, LOCALTIMESTAMP, LOCALTIMESTAMP + make_interval(secs => ?), 1) " +
+            "ON CONFLICT (name) DO UPDATE SET locked_by = EXCLUDED.locked_by, locked_at = EXCLUDED.locked_at, " +
+            "locked_until = EXCLUDED.locked_until, fencing_token = scheduler_locks.fencing_token + 1 " +
+            "WHERE scheduler_locks.locked_until <= EXCLUDED.locked_at " +
+            "RETURNING fencing_token";
+
+    private static final String RENEW =
+            "UPDATE scheduler_locks SET locked_until = LOCALTIMESTAMP + make_interval(secs => ?) " +
+            "WHERE name = ? AND fencing_token = ?";
+
+    // keeps the lock until lockAtLeast after acquiring, or frees it right away
+    private static final String RELEASE =
+            "UPDATE scheduler_locks SET locked_until = GREATEST(LOCALTIMESTAMP, locked_at + make_interval(secs => ?)) " +
+            "WHERE name = ? AND fencing_token = ?";
+
+    private static final String IS_HELD =
+            "SELECT COUNT(*) FROM scheduler_locks WHERE name = ? AND fencing_token = ? AND locked_until > LOCALTIMESTAMP";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+
+    private final Set<HeldLease> held = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<HeldLease> current = new ThreadLocal<>();
+    private final ScheduledExecutorService renewer;
+
+    public SchedulerLockServiceImpl(DataSource dataSource,
+                                    @Value("${app.node-id:}") String nodeId,
+                                    @Value("${scheduler.lock.renew-interval-seconds:30}") long renewIntervalSeconds) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // "pid@hostname" unless configured
+        this.owner = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("Scheduler lock renewer-");
+        threadFactory.setDaemon(true);
+        this.renewer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.renewer.scheduleWithFixedDelay(this::renewHeld, renewIntervalSeconds, renewIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    @Override
+    public Optional<Lease> tryAcquire(String name, Duration lease, Duration lockAtLeast) {
+        List<Long> tokens = jdbcTemplate.queryForList(ACQUIRE, Long.class, name, owner, seconds(lease));
+        if (tokens.isEmpty()) {
+            return Optional.empty();
+        }
+
+        HeldLease heldLease = new HeldLease(name, tokens.get(0), lease, lockAtLeast);
+        held.add(heldLease);
+        current.set(heldLease);
+
+        log.debug("Acquired scheduler lock {} (token {})", name, heldLease.fencingToken);
+        return Optional.of(heldLease);
+    }
+
+    @Override
+    public void assertStillHeld() {
+        HeldLease heldLease = current.get();
+        if (heldLease == null) {
+            return;
+        }
+
+        Integer count = jdbcTemplate.queryForObject(IS_HELD, Integer.class, heldLease.name, heldLease.fencingToken);
+        if (count == null || count == 0) {
+            throw new IllegalStateException("Scheduler lock " + heldLease.name + " (token " + heldLease.fencingToken
+                    + ") was lost to another node");
+        }
+    }
+
+    private void renewHeld() {
+        for (HeldLease heldLease : held) {
+            try {
+                int renewed = jdbcTemplate.update(RENEW, seconds(heldLease.lease), heldLease.name, heldLease.fencingToken);
+                if (renewed == 0) {
+                    log.warn("Scheduler lock {} (token {}) was taken over while its job was still running",
+                            heldLease.name, heldLease.fencingToken);
+                    held.remove(heldLease);
+                }
+            } catch (RuntimeException e) {
+                // retried on the next tick; the lease outlives a few missed renewals
+                log.warn("Could not renew scheduler lock {}: {}", heldLease.name, e.getMessage());
+            }
+        }
+    }
+
+    private double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+
+    private class HeldLease implements Lease {
+
+        private final String name;
+        private final long fencingToken;
+        private final Duration lease;
+        private final Duration lockAtLeast;
+
+        HeldLease(String name, long fencingToken, Duration lease, Duration lockAtLeast) {
+            this.name = name;
+            this.fencingToken = fencingToken;
+            this.lease = lease;
+            this.lockAtLeast = lockAtLeast;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        @Override
+        public void close() {
+            held.remove(this);
+            current.remove();
+
+            try {
+                jdbcTemplate.update(RELEASE, seconds(lockAtLeast), name, fencingToken);
+            } catch (RuntimeException e) {
+                // the lease runs out on its own
+                log.warn("Could not release scheduler lock {}: {}", name, e.getMessage());
+            }
+        }
+    }
+}
@@ -63,6 +63,7 @@ public class SessionServiceImpl implements SessionService {
     }
 
     // ✅ ADD THIS: Cleanup expired sessions every 1hr
+    // Deliberately not a @SchedulerLock job: the store is per node, each node cleans its own
     @Scheduled(fixedRate = 3600000) // 1 hour = 3,600,000 ms
     public void cleanupExpiredSessions() {
 
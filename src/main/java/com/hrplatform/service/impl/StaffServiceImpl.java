@@ -192,6 +192,12 @@ public class StaffServiceImpl implements StaffService {
                 .orElseThrow(() -> new ResourceNotFoundException("Staff not found with ID: " + staffIdNumber));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String findDepartmentName(String staffIdNumber) {
+        return staffRepository.findDepartmentNameByStaffIdNumber(staffIdNumber.trim()).orElse(null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Staff findById(UUID id) {
@@ -0,0 +1,109 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.exception.DuplicateResourceException;
+import com.hrplatform.repository.DocumentSubmissionRepository;
+import com.hrplatform.util.StripedLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Reserves (staff, requirement) pairs before the slow remote upload starts, so two parallel
+ * requests for the same document cannot both pass the "already submitted" check.
+ *
+ * The striped per-staff lock is only held for the check + reserve, never during the upload,
+ * and unrelated staff almost never share a stripe. Other nodes are covered by the unique
+ * index on document_submissions (staff_id, requirement_id).
+ */
+@Service
+@Slf4j
+public class SubmissionReservationService {
+
+    private final DocumentSubmissionRepository documentSubmissionRepository;
+    private final StripedLock staffLocks;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public SubmissionReservationService(DocumentSubmissionRepository documentSubmissionRepository,
+                                        @Value("${submission.lock-stripes:64}") int lockStripes) {
+        this.documentSubmissionRepository = documentSubmissionRepository;
+        this.staffLocks = new StripedLock(lockStripes);
+    }
+
+    /**
+     * @param requirements requirement id -> document name (for error messages)
+     * @throws DuplicateResourceException if any requirement is already submitted or being uploaded
+     */
+    public void reserve(UUID staffId, Map<UUID, String> requirements) {
+        Lock lock = staffLocks.get(staffId);
+        lock.lock();
+
+        try {
+            Set<UUID> submitted = new HashSet<>(documentSubmissionRepository
+                    .findSubmittedRequirementIds(staffId, requirements.keySet()));
+
+            List<String> reserved = new ArrayList<>();
+
+            for (Map.Entry<UUID, String> requirement : requirements.entrySet()) {
+                String key = key(staffId, requirement.getKey());
+
+                if (submitted.contains(requirement.getKey())) {
+                    pending.removeAll(reserved);
+                    throw new DuplicateResourceException("Document '" + requirement.getValue() + "' already submitted");
+                }
+
+                if (!pending.add(key)) {
+                    pending.removeAll(reserved);
+                    throw new DuplicateResourceException(
+                            "Document '" + requirement.getValue() + "' is already being uploaded");
+                }
+
+                reserved.add(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases once the caller's transaction has committed or rolled back. Until the new
+     * submission rows are committed the "already submitted" check cannot see them, so an
+     * earlier release would let a concurrent request reserve the same pair and upload a
+     * duplicate. Outside a transaction this releases immediately.
+     */
+    public void releaseAfterCompletion(UUID staffId, Collection<UUID> requirementIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(staffId, requirementIds);
+            return;
+        }
+
+        List<UUID> ids = List.copyOf(requirementIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(staffId, ids);
+            }
+        });
+    }
+
+    public void release(UUID staffId, Collection<UUID> requirementIds) {
+        for (UUID requirementId : requirementIds) {
+            pending.remove(key(staffId, requirementId));
+        }
+    }
+
+    private String key(UUID staffId, UUID requirementId) {
+        return staffId + ":" + requirementId;
+    }
+}
@@ -0,0 +1,348 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.config.FileStorageConfig;
+import com.hrplatform.exception.FileStorageException;
+import com.hrplatform.exception.ImageProcessingException;
+import com.hrplatform.exception.ResourceNotFoundException;
+import com.hrplatform.service.DocumentContentService;
+import com.hrplatform.service.DocumentContentService.DocumentContent;
+import com.hrplatform.service.ImageProcessingService;
+import com.hrplatform.service.ThumbnailService;
+import com.hrplatform.util.CloudinaryFolderUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Renders review-screen thumbnails lazily (scaled JPEG for images, first page for PDFs)
+ * and keeps them in a size-bounded LRU directory keyed by the source document's ETag,
+ * so a re-processed file gets a fresh thumbnail without explicit invalidation.
+ */
+@Service
+@Slf4j
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    private static final float THUMBNAIL_JPEG_QUALITY = 0.8f;
+
+    private final DocumentContentService documentContentService;
+    private final ImageProcessingService imageProcessingService;
+    private final FileStorageConfig config;
+    private final Path cacheDir;
+    private final Semaphore renderPermits;
+
+    // renders currently running, so concurrent views of the same document share one render
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    // access-ordered: iteration starts at the least recently viewed thumbnail
+    private final LinkedHashMap<Path, Long> lru = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+
+    public ThumbnailServiceImpl(DocumentContentService documentContentService,
+                                ImageProcessingService imageProcessingService,
+                                FileStorageConfig config) {
+        this.documentContentService = documentContentService;
+        this.imageProcessingService = imageProcessingService;
+        this.config = config;
+        this.cacheDir = Paths.get(config.getThumbnailCacheDir()).toAbsolutePath().normalize();
+        this.renderPermits = new Semaphore(Math.max(1, config.getMaxConcurrentThumbnails()), true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCacheIndex() {
+        if (!Files.isDirectory(cacheDir)) {
+            return;
+        }
+
+        List<Path> files = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+
+        try (Stream<Path> walk = Files.walk(cacheDir)) {
+            walk.filter(path -> path.getFileName().toString().endsWith(".jpg")).forEach(path -> {
+                try {
+                    attributes.put(path, Files.readAttributes(path, BasicFileAttributes.class));
+                    files.add(path);
+                } catch (IOException e) {
+                    log.debug("Skipping unreadable thumbnail: {}", path);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not index thumbnail cache at {}", cacheDir, e);
+            return;
+        }
+
+        // oldest first, so the most recently touched files end up at the young end of the LRU
+        files.sort(Comparator.comparing(path -> attributes.get(path).lastModifiedTime()));
+
+        synchronized (lru) {
+            for (Path file : files) {
+                long size = attributes.get(file).size();
+                lru.put(file, size);
+                cachedBytes += size;
+            }
+        }
+
+        evictIfNeeded();
+        log.info("Thumbnail cache indexed: {} files, {} bytes", files.size(), cachedBytes);
+    }
+
+    @Override
+    public Thumbnail getThumbnail(UUID submissionId) throws FileStorageException {
+        DocumentContent content = documentContentService.getContent(submissionId);
+
+        if (!ThumbnailService.supports(content.getMimeType())) {
+            throw new ResourceNotFoundException("No preview available for this document type");
+        }
+
+        if (content.getRemoteUrl() != null) {
+            String remoteUrl = CloudinaryFolderUtil.buildThumbnailUrl(content.getRemoteUrl(), config.getThumbnailSize());
+            if (remoteUrl == null) {
+                throw new ResourceNotFoundException("No preview available for this document");
+            }
+            return Thumbnail.builder().remoteUrl(remoteUrl).build();
+        }
+
+        String key = cacheKey(content.getEtag());
+        Path target = thumbnailPath(key);
+
+        if (!touch(target)) {
+            target = renderOnce(key, target, content);
+        }
+
+        try {
+            return Thumbnail.builder()
+                    .path(target)
+                    .size(Files.size(target))
+                    .etag("\"t-" + key + "\"")
+                    .build();
+        } catch (IOException e) {
+            // evicted between render and read; the next request renders it again
+            throw new FileStorageException("Thumbnail is no longer available, please retry", e);
+        }
+    }
+
+    private Path renderOnce(String key, Path target, DocumentContent content) throws FileStorageException {
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(key, mine);
+
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            render(content, target);
+            mine.complete(target);
+            return target;
+        } catch (FileStorageException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private void render(DocumentContent content, Path target) throws FileStorageException {
+        try {
+            renderPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileStorageException("Interrupted while waiting to render thumbnail");
+        }
+
+        try {
+            // another node or an earlier request may have produced it while we waited
+            if (Files.isRegularFile(target)) {
+                register(target, Files.size(target));
+                return;
+            }
+
+            int size = config.getThumbnailSize();
+            BufferedImage image = "application/pdf".equals(content.getMimeType())
+                    ? renderFirstPage(content.getLocalPath(), size)
+                    : imageProcessingService.decodeScaled(content.getLocalPath().toFile(), size);
+
+            long written = writeJpeg(flattenToRgb(image), target);
+            register(target, written);
+
+            log.info("🖼️ Thumbnail rendered for {} ({} bytes)", content.getFileName(), written);
+
+        } catch (IOException | ImageProcessingException e) {
+            log.error("❌ Thumbnail rendering failed for: {}", content.getFileName(), e);
+            throw new FileStorageException("Could not render thumbnail: " + e.getMessage(), e);
+        } finally {
+            renderPermits.release();
+        }
+    }
+
+    private BufferedImage renderFirstPage(Path pdf, int size) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf.toFile())) {
+            if (document.getNumberOfPages() == 0) {
+                throw new IOException("PDF has no pages");
+            }
+
+            PDRectangle box = document.getPage(0).getCropBox();
+            float longest = Math.max(box.getWidth(), box.getHeight());
+            // PDF user space is 72 dpi; render straight at thumbnail size instead of scaling down afterwards
+            float scale = longest > 0 ? size / longest : 1f;
+
+            return new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    private BufferedImage flattenToRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+
+        // JPEG has no alpha channel: paint transparent PNGs onto white
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private long writeJpeg(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "thumb-", ".tmp");
+
+        try {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
+            if (!writers.hasNext()) {
+                throw new IOException("No JPEG writer available");
+            }
+
+            ImageWriter writer = writers.next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(THUMBNAIL_JPEG_QUALITY);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return Files.size(target);
+
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Marks a cached thumbnail as recently used. Returns false if it is not on disk.
+     */
+    private boolean touch(Path target) {
+        synchronized (lru) {
+            if (lru.get(target) != null && Files.isRegularFile(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void register(Path target, long size) {
+        synchronized (lru) {
+            Long previous = lru.put(target, size);
+            cachedBytes += size - (previous != null ? previous : 0);
+        }
+        evictIfNeeded();
+    }
+
+    private void evictIfNeeded() {
+        List<Path> victims = new ArrayList<>();
+
+        synchronized (lru) {
+            Iterator<Map.Entry<Path, Long>> it = lru.entrySet().iterator();
+            while (cachedBytes > config.getThumbnailCacheMaxBytes() && it.hasNext()) {
+                Map.Entry<Path, Long> eldest = it.next();
+                cachedBytes -= eldest.getValue();
+                victims.add(eldest.getKey());
+                it.remove();
+            }
+        }
+
+        for (Path victim : victims) {
+            try {
+                Files.deleteIfExists(victim);
+            } catch (IOException e) {
+                log.warn("Could not evict thumbnail: {}", victim, e);
+            }
+        }
+    }
+
+    private Path await(CompletableFuture<Path> running) throws FileStorageException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileStorageException("Interrupted while waiting for thumbnail");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FileStorageException fileStorageException) {
+                throw fileStorageException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new FileStorageException("Could not render thumbnail", e.getCause());
+        }
+    }
+
+    private Path thumbnailPath(String key) {
+        return cacheDir.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + ".jpg");
+    }
+
+    private String cacheKey(String etag) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((etag + "|" + config.getThumbnailSize()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
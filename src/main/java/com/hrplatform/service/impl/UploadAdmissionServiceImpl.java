@@ -0,0 +1,198 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.config.AsyncConfig;
+import com.hrplatform.exception.ServiceUnavailableException;
+import com.hrplatform.service.UploadAdmissionService;
+import com.hrplatform.util.FairAdmissionQueue;
+import com.hrplatform.util.FairQueueExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One permit per file being uploaded. Requests wait up to max-wait-ms for permits; the
+ * waiting requests are queued per department (same weights as the upload workers), so a
+ * freed permit goes to the departments in turn instead of to the oldest waiter. When more
+ * than max-waiting requests are queued, the newest request of the department with the
+ * most waiting is shed, so one department's burst is rejected rather than everyone's
+ * uploads. Rejections carry a Retry-After estimated from how long permits are held.
+ *
+ * Metrics: upload.admission.in_flight, upload.admission.waiting (gauges),
+ * upload.admission.rejected{department} (counter), upload.admission.wait (timer).
+ */
+@Service
+@Slf4j
+public class UploadAdmissionServiceImpl implements UploadAdmissionService {
+
+    // weight of the newest sample in the moving average of permit hold time
+    private static final double HOLD_TIME_ALPHA = 0.2;
+
+    private final int maxConcurrentFiles;
+    private final long maxWaitMs;
+    private final long maxRetryAfterSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FairAdmissionQueue<String, Waiter> admission;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer waitTimer;
+
+    // how long an admitted request keeps its permits, in ms (moving average)
+    private volatile double averageHoldMs = 1000;
+
+    public UploadAdmissionServiceImpl(MeterRegistry meterRegistry,
+                                      @Value("${upload.admission.max-concurrent-files:30}") int maxConcurrentFiles,
+                                      @Value("${upload.admission.max-waiting:50}") int maxWaiting,
+                                      @Value("${upload.admission.max-wait-ms:2000}") long maxWaitMs,
+                                      @Value("${upload.admission.max-retry-after-seconds:60}") long maxRetryAfterSeconds,
+                                      @Value("${upload.executor.department-weights:}") String departmentWeights) {
+        this.maxConcurrentFiles = Math.max(1, maxConcurrentFiles);
+        this.maxWaitMs = maxWaitMs;
+        this.maxRetryAfterSeconds = maxRetryAfterSeconds;
+        this.meterRegistry = meterRegistry;
+
+        Map<String, Integer> weights = AsyncConfig.parseWeights(departmentWeights);
+        this.admission = new FairAdmissionQueue<>(this.maxConcurrentFiles, maxWaiting,
+                department -> weights.getOrDefault(department, 1),
+                waiter -> waiter.wake(Waiter.State.ADMITTED),
+                waiter -> waiter.wake(Waiter.State.SHED));
+
+        Gauge.builder("upload.admission.in_flight", this, UploadAdmissionServiceImpl::getInFlight)
+                .description("Files currently admitted for upload")
+                .register(meterRegistry);
+        Gauge.builder("upload.admission.waiting", this, UploadAdmissionServiceImpl::getWaiting)
+                .description("Upload requests waiting for admission")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("upload.admission.wait")
+                .description("Time spent waiting for upload admission")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Permit admit(String department, int files) {
+        String key = department == null ? FairQueueExecutor.DEFAULT_KEY : department;
+        // a request bigger than the whole limit would never be admitted, let it take everything
+        int needed = Math.min(Math.max(1, files), maxConcurrentFiles);
+
+        long started = System.nanoTime();
+        lock.lock();
+        try {
+            Waiter waiter = new Waiter(lock.newCondition());
+            if (admission.offer(key, needed, waiter)) {
+                return new AdmittedUpload(needed);
+            }
+
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+            while (waiter.state == Waiter.State.WAITING && remainingNanos > 0) {
+                try {
+                    remainingNanos = waiter.ready.awaitNanos(remainingNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            if (waiter.state == Waiter.State.ADMITTED) {
+                return new AdmittedUpload(needed);
+            }
+            if (waiter.state == Waiter.State.WAITING) {
+                admission.cancel(key, waiter);
+            }
+            throw reject(key, waiter.state == Waiter.State.SHED);
+
+        } finally {
+            lock.unlock();
+            waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private int getInFlight() {
+        lock.lock();
+        try {
+            return maxConcurrentFiles - admission.getAvailable();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int getWaiting() {
+        lock.lock();
+        try {
+            return admission.getWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // called with the lock held
+    private ServiceUnavailableException reject(String department, boolean shed) {
+        meterRegistry.counter("upload.admission.rejected", "department", department).increment();
+
+        // permits free up at roughly maxConcurrentFiles / averageHold; estimate when the
+        // current backlog (admitted + waiting) has drained
+        int inFlight = maxConcurrentFiles - admission.getAvailable();
+        int backlog = inFlight + admission.getWaiting();
+        long estimateMs = (long) (backlog * averageHoldMs / maxConcurrentFiles);
+        long retryAfter = Math.max(1, Math.min(maxRetryAfterSeconds, TimeUnit.MILLISECONDS.toSeconds(estimateMs) + 1));
+
+        log.warn("Upload admission rejected for department '{}' ({}): {} files in flight, {} waiting ({} from it), retry after {}s",
+                department, shed ? "shed from the longest queue" : "timed out",
+                inFlight, admission.getWaiting(), admission.getWaiting(department), retryAfter);
+
+        return new ServiceUnavailableException("Too many uploads in progress, please try again shortly", retryAfter);
+    }
+
+    private static class Waiter {
+
+        enum State { WAITING, ADMITTED, SHED }
+
+        final Condition ready;
+        State state = State.WAITING;
+
+        Waiter(Condition ready) {
+            this.ready = ready;
+        }
+
+        void wake(State state) {
+            this.state = state;
+            ready.signal();
+        }
+    }
+
+    private class AdmittedUpload implements Permit {
+
+        private final int count;
+        private final long admittedAt = System.nanoTime();
+        private boolean released;
+
+        AdmittedUpload(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+
+            double heldMs = (System.nanoTime() - admittedAt) / 1_000_000.0;
+            averageHoldMs = averageHoldMs + HOLD_TIME_ALPHA * (heldMs - averageHoldMs);
+
+            lock.lock();
+            try {
+                admission.release(count);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
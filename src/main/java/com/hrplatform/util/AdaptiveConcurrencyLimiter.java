@@ -0,0 +1,221 @@
+package com.hrplatform.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD concurrency limit driven by observed round-trip time.
+ *
+ * The baseline RTT is the minimum sample over the last one to two windows of
+ * baselineWindow calls, so it reflects the upstream at its least loaded and follows drift
+ * in either direction within two windows, without ever cutting the limit to measure it.
+ * It starts at initialLimit; the first sample is the first baseline. A sample above
+ * tolerance x baseline, or a dropped call (timeout, reset), shrinks the limit
+ * multiplicatively - at most once per round trip, like TCP, so one congested burst is not
+ * punished once per call. A fast sample while the limit is actually being used grows it
+ * by 1/limit, i.e. by one per limit's worth of calls.
+ *
+ * The clock is injectable so the algorithm can be driven deterministically.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double tolerance;
+    private final int baselineWindow;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+
+    // minimum RTT of the current and the previous window; the baseline is the lower one
+    private long windowMinRtt = Long.MAX_VALUE;
+    private long previousWindowMinRtt = Long.MAX_VALUE;
+    private int windowSamples;
+
+    // calls started before the last decrease already saw the old limit
+    private long lastDecreaseAt = Long.MIN_VALUE;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, double tolerance, int baselineWindow,
+                                      LongSupplier nanoClock) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.baselineWindow = Math.max(1, baselineWindow);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Waits until a call may start. Returns null if none could within the timeout.
+     */
+    public Call acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            inFlight++;
+            return new Call(nanoClock.getAsLong(), inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // RTT the samples are judged against in nanos, or -1 before the first sample
+    public long getBaselineRttNanos() {
+        lock.lock();
+        try {
+            long baseline = baselineRtt();
+            return baseline == Long.MAX_VALUE ? -1 : baseline;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long baselineRtt() {
+        return Math.min(windowMinRtt, previousWindowMinRtt);
+    }
+
+    private void onSample(long rttNanos, long startedAt, int inFlightAtStart) {
+        lock.lock();
+        try {
+            inFlight--;
+
+            // judged against the baseline before this sample, so a slow call cannot excuse itself
+            if (rttNanos > baselineRtt() * tolerance) {
+                decrease(startedAt);
+            } else if (inFlightAtStart * 2 >= limit) {
+                // only grow when the current limit is actually the constraint
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+
+            recordRtt(rttNanos);
+
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onDropped(long startedAt) {
+        lock.lock();
+        try {
+            inFlight--;
+            decrease(startedAt);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onIgnored() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease(long startedAt) {
+        if (startedAt < lastDecreaseAt) {
+            return;
+        }
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecreaseAt = nanoClock.getAsLong();
+    }
+
+    private void recordRtt(long rttNanos) {
+        windowMinRtt = Math.min(windowMinRtt, rttNanos);
+        if (++windowSamples >= baselineWindow) {
+            previousWindowMinRtt = windowMinRtt;
+            windowMinRtt = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    /**
+     * One admitted call. Exactly one of the completion methods must be called.
+     */
+    public class Call {
+
+        private final long startedAt;
+        private final int inFlightAtStart;
+        private boolean completed;
+
+        private Call(long startedAt, int inFlightAtStart) {
+            this.startedAt = startedAt;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * The call succeeded. costFactor normalises the RTT for work size (e.g. upload MB),
+         * so a large file is not mistaken for congestion.
+         */
+        public void onSuccess(double costFactor) {
+            if (complete()) {
+                long rtt = nanoClock.getAsLong() - startedAt;
+                onSample((long) (rtt / Math.max(costFactor, 1e-9)), startedAt, inFlightAtStart);
+            }
+        }
+
+        /**
+         * Timed out or the connection failed: treated as a congestion signal.
+         */
+        public void onDropped() {
+            if (complete()) {
+                AdaptiveConcurrencyLimiter.this.onDropped(startedAt);
+            }
+        }
+
+        /**
+         * Failed for a reason unrelated to load (e.g. a rejected request); no sample.
+         */
+        public void onIgnored() {
+            if (complete()) {
+                AdaptiveConcurrencyLimiter.this.onIgnored();
+            }
+        }
+
+        private boolean complete() {
+            if (completed) {
+                return false;
+            }
+            completed = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.hrplatform.util;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker over the last windowSize calls.
+ *
+ * CLOSED lets everything through and trips to OPEN once at least minimumCalls have been
+ * recorded and the failure rate reaches failureRateThreshold. OPEN rejects calls until
+ * openDurationNanos have passed, then HALF_OPEN admits halfOpenCalls trial calls: if all
+ * succeed the breaker closes with a fresh window, the first failure re-opens it.
+ *
+ * Only failures that say something about the upstream's health should be recorded; a
+ * rejected file is a success as far as the breaker is concerned. The clock is injectable
+ * so transitions can be driven deterministically.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+
+    // ring of the last windowSize outcomes, true = failure
+    private final boolean[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+
+    private int halfOpenAdmitted;
+    private int halfOpenSucceeded;
+
+    private BiConsumer<State, State> stateListener = (from, to) -> { };
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationNanos, int halfOpenCalls, LongSupplier nanoClock) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.min(this.windowSize, Math.max(1, minimumCalls));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDurationNanos;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.nanoClock = nanoClock;
+        this.outcomes = new boolean[this.windowSize];
+    }
+
+    /**
+     * Whether a call may go ahead. Every admitted call must be followed by exactly one of
+     * onSuccess / onFailure / onIgnored.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+                // fall through to admit the first trial call
+            case HALF_OPEN:
+            default:
+                if (halfOpenAdmitted >= halfOpenCalls) {
+                    return false;
+                }
+                halfOpenAdmitted++;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSucceeded >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * The admitted call ended without saying anything about the upstream (e.g. it never
+     * got a connection slot); frees its half-open trial slot.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenAdmitted > halfOpenSucceeded) {
+            halfOpenAdmitted--;
+        }
+    }
+
+    /**
+     * Called with (from, to) on every transition, while the breaker's lock is held.
+     */
+    public synchronized void setStateListener(BiConsumer<State, State> stateListener) {
+        this.stateListener = stateListener;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    // nanos until an open breaker lets a trial call through, 0 if it is not open
+    public synchronized long getRemainingOpenNanos() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openDurationNanos - (nanoClock.getAsLong() - openedAt));
+    }
+
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            if (outcomes[position]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+
+        outcomes[position] = failure;
+        if (failure) {
+            failures++;
+        }
+        position = (position + 1) % windowSize;
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        state = next;
+        halfOpenAdmitted = 0;
+        halfOpenSucceeded = 0;
+
+        if (next == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        } else if (next == State.CLOSED) {
+            Arrays.fill(outcomes, false);
+            position = 0;
+            recorded = 0;
+            failures = 0;
+        }
+
+        stateListener.accept(previous, next);
+    }
+}
@@ -81,4 +81,17 @@ public class CloudinaryFolderUtil {
 
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Cloudinary renders previews on the fly: insert a size-limited, first-page JPEG
+     * transformation after /upload/. Raw uploads cannot be transformed, so null is returned.
+     */
+    public static String buildThumbnailUrl(String deliveryUrl, int size) {
+        if (deliveryUrl == null || !deliveryUrl.contains("/image/upload/")) {
+            return null;
+        }
+
+        String transformation = String.format("w_%d,h_%d,c_limit,pg_1,f_jpg", size, size);
+        return deliveryUrl.replaceFirst("/image/upload/", "/image/upload/" + transformation + "/");
+    }
+}
@@ -0,0 +1,58 @@
+package com.hrplatform.util;
+
+import com.hrplatform.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursors over (createdAt, id), used by the audit endpoints
+ * instead of offset paging.
+ */
+public class CursorUtil {
+
+    private static final String SEPARATOR = "|";
+
+    public static String encode(LocalDateTime createdAt, UUID id) {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+
+            return new Cursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static class Cursor {
+        private final LocalDateTime createdAt;
+        private final UUID id;
+
+        public Cursor(LocalDateTime createdAt, UUID id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.hrplatform.util;
+
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * A fixed number of permits shared between keys (departments). Requests that cannot be
+ * admitted straight away wait in a WeightedFairQueue, so freed permits go to the keys in
+ * fair order rather than to whoever queued first. When more than maxWaiting requests are
+ * waiting, the newest request of the key furthest over its share is shed, not whichever
+ * request happened to arrive last: a burst from one key fills its own sub-queue and gets
+ * its own requests rejected.
+ *
+ * Each request waits for all of its permits at once. The request whose turn it is holds
+ * its place until enough permits have been released, so a large request cannot be
+ * starved by small ones behind it.
+ *
+ * Not thread-safe; callers guard it with their own lock. Admitted and shed requests are
+ * handed to the callbacks, from inside whichever call caused it.
+ */
+public class FairAdmissionQueue<K, T> {
+
+    private final int maxWaiting;
+    private final Consumer<T> onAdmitted;
+    private final Consumer<T> onShed;
+
+    // cost is the number of permits, so keys share permits rather than requests
+    private final WeightedFairQueue<K, Request<K, T>> queue;
+    // taken from the queue in fair order, waiting for enough permits to be released
+    private Request<K, T> next;
+    private int available;
+
+    public FairAdmissionQueue(int permits, int maxWaiting, ToIntFunction<K> weights,
+                              Consumer<T> onAdmitted, Consumer<T> onShed) {
+        this.available = permits;
+        this.maxWaiting = Math.max(0, maxWaiting);
+        this.onAdmitted = onAdmitted;
+        this.onShed = onShed;
+        this.queue = new WeightedFairQueue<>(1, weights);
+    }
+
+    /**
+     * Takes the permits if they are free and nobody is waiting for them (returns true);
+     * otherwise queues the request, which is later handed to onAdmitted or onShed, or
+     * withdrawn with cancel.
+     */
+    public boolean offer(K key, int permits, T item) {
+        if (next == null && queue.isEmpty() && available >= permits) {
+            available -= permits;
+            return true;
+        }
+
+        queue.offer(key, permits, new Request<>(key, permits, item));
+        admitWaiting();
+
+        if (getWaiting() > maxWaiting) {
+            shed();
+        }
+        return false;
+    }
+
+    public void release(int permits) {
+        available += permits;
+        admitWaiting();
+    }
+
+    /**
+     * Withdraws a waiting request (it gave up). Returns false if it is no longer waiting,
+     * i.e. it was admitted or shed in the meantime.
+     */
+    public boolean cancel(K key, T item) {
+        if (next != null && next.item == item) {
+            next = null;
+            // the request holding everyone up is gone, the next one may fit
+            admitWaiting();
+            return true;
+        }
+        return queue.remove(key, request -> request.item == item);
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getWaiting() {
+        return queue.size() + (next == null ? 0 : 1);
+    }
+
+    public int getWaiting(K key) {
+        return queue.size(key) + (next != null && next.key.equals(key) ? 1 : 0);
+    }
+
+    private void admitWaiting() {
+        while (true) {
+            if (next == null) {
+                next = queue.poll();
+                if (next == null) {
+                    return;
+                }
+            }
+            if (available < next.permits) {
+                return;
+            }
+
+            available -= next.permits;
+            Request<K, T> admitted = next;
+            next = null;
+            onAdmitted.accept(admitted.item);
+        }
+    }
+
+    private void shed() {
+        Request<K, T> shed;
+        K heaviest = queue.heaviestKey();
+        if (heaviest != null) {
+            shed = queue.pollLast(heaviest);
+        } else {
+            // maxWaiting is 0: not even the request whose turn it is may wait
+            shed = next;
+            next = null;
+        }
+        onShed.accept(shed.item);
+    }
+
+    private static class Request<K, T> {
+        final K key;
+        final int permits;
+        final T item;
+
+        Request(K key, int permits, T item) {
+            this.key = key;
+            this.permits = permits;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.hrplatform.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Fixed pool of workers fed from a WeightedFairQueue instead of a single FIFO queue, so
+ * a burst from one key (department) cannot starve the others.
+ *
+ * Like the ThreadPoolTaskExecutor it replaces, the queue is bounded and a full queue runs
+ * the task on the caller's thread. close() stops accepting work, lets queued tasks finish
+ * and waits up to awaitTerminationSeconds for the workers.
+ */
+@Slf4j
+public class FairQueueExecutor implements Executor, AutoCloseable {
+
+    public static final String DEFAULT_KEY = "";
+
+    private final int capacity;
+    private final long awaitTerminationSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final WeightedFairQueue<String, Runnable> queue;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private int active;
+    private boolean shutdown;
+
+    public FairQueueExecutor(String threadNamePrefix, int workerCount, int capacity, long quantum,
+                             ToIntFunction<String> weights, long awaitTerminationSeconds) {
+        this.capacity = capacity;
+        this.awaitTerminationSeconds = awaitTerminationSeconds;
+        this.queue = new WeightedFairQueue<>(quantum, weights);
+
+        for (int i = 1; i <= Math.max(1, workerCount); i++) {
+            Thread worker = new Thread(this::runWorker, threadNamePrefix + i);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        execute(DEFAULT_KEY, 1, task);
+    }
+
+    /**
+     * Queues the task under key. cost is in the same unit as the quantum (e.g. bytes), so
+     * keys share the workers by work done rather than by number of tasks.
+     */
+    public void execute(String key, long cost, Runnable task) {
+        lock.lock();
+        try {
+            if (!shutdown && queue.size() < capacity) {
+                queue.offer(key, cost, task);
+                workAvailable.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // saturated (or shutting down): slow the submitter down instead of dropping work
+        task.run();
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued(String key) {
+        lock.lock();
+        try {
+            return queue.size(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActive() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPoolSize() {
+        return workers.size();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            shutdown = true;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(awaitTerminationSeconds);
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (worker.isAlive()) {
+                log.warn("Worker {} did not finish within {}s of shutdown", worker.getName(), awaitTerminationSeconds);
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            Runnable task;
+
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !shutdown) {
+                    workAvailable.awaitUninterruptibly();
+                }
+                task = queue.poll();
+                if (task == null) {
+                    return;
+                }
+                active++;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Task failed on {}", Thread.currentThread().getName(), e);
+            } finally {
+                lock.lock();
+                try {
+                    active--;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -2,47 +2,289 @@ package com.hrplatform.util;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class FileUtil {
 
-    private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
-            "application/pdf",
-            "image/jpeg",
-            "image/jpg",
-            "image/png",
-            "application/msword",                       // .doc
-            "application/vnd.openxmlformats-officedocument.wordprocessingml.document" // .docx
-    );
-
-
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList(
             "pdf", "jpg", "jpeg", "png", "doc", "docx"
     );
 
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // CHANGED: 10MB in bytes (was 30MB)
 
+    private static final String DOCX_CONTENT_TYPE =
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+    // the content type each allowed extension must actually contain
+    private static final Map<String, String> EXTENSION_CONTENT_TYPES = Map.of(
+            "pdf", "application/pdf",
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "doc", "application/msword",
+            "docx", DOCX_CONTENT_TYPE
+    );
+
+    // only this much of the head of an upload is read to identify it
+    private static final int SNIFF_BYTES = 1024;
+
+    // End Of Central Directory record (22 bytes) plus the longest possible zip comment
+    private static final int ZIP_TAIL_BYTES = 22 + 0xFFFF;
+    private static final int MAX_CENTRAL_DIRECTORY_BYTES = 1024 * 1024;
+
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] OLE2_MAGIC = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+    private static final byte[] ZIP_MAGIC = {'P', 'K', 0x03, 0x04};
+
+    private static final int ZIP_EOCD_SIGNATURE = 0x06054b50;
+    private static final int ZIP_CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+    /**
+     * Checks the extension against what the file actually contains (magic bytes),
+     * instead of trusting the client-supplied content type.
+     */
     public static boolean isValidFileType(MultipartFile file) {
+        return detectValidContentType(file) != null;
+    }
+
+    /**
+     * Like isValidFileType, but returns the detected content type (null if the file is not
+     * valid), so callers that also store the type sniff the file only once.
+     */
+    public static String detectValidContentType(MultipartFile file) {
         if (file == null || file.isEmpty()) {
-            return false;
+            return null;
         }
 
-        String contentType = file.getContentType();
         String originalFilename = file.getOriginalFilename();
 
-        if (contentType == null || originalFilename == null) {
+        if (originalFilename == null) {
+            return null;
+        }
+
+        String extension = getFileExtension(originalFilename).toLowerCase();
+        if (!ALLOWED_EXTENSIONS.contains(extension)) {
+            return null;
+        }
+
+        String detected = detectContentType(file);
+
+        return detected != null && detected.equals(EXTENSION_CONTENT_TYPES.get(extension)) ? detected : null;
+    }
+
+    /**
+     * Identifies PDF, JPEG, PNG, .doc (OLE2) and .docx from the file signature.
+     * Reads the first KB; for zip files also the central directory at the end of the
+     * file, reached by skipping (a seek for spooled parts) rather than reading through.
+     * Returns null if the content is none of the allowed types.
+     */
+    public static String detectContentType(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+
+        try {
+            byte[] head;
+            try (InputStream in = file.getInputStream()) {
+                head = in.readNBytes(SNIFF_BYTES);
+            }
+
+            return detectContentType(head, file.getSize(), (offset, length) -> readRange(file, offset, length));
+
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Same detection for content that was streamed through once (see InspectingInputStream):
+     * only the head and the last tail.length bytes are available. A .docx whose central
+     * directory starts before the retained tail is not recognised.
+     */
+    public static String detectContentType(byte[] head, byte[] tail, long size) {
+        if (size == 0) {
+            return null;
+        }
+
+        long tailStart = size - tail.length;
+
+        try {
+            return detectContentType(head, size, (offset, length) -> {
+                if (offset < tailStart || offset + length > size) {
+                    throw new IOException("Range is outside the retained tail");
+                }
+                return Arrays.copyOfRange(tail, (int) (offset - tailStart), (int) (offset - tailStart) + length);
+            });
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static int getSniffBytes() {
+        return SNIFF_BYTES;
+    }
+
+    // smallest tail that still covers the EOCD record and a typical .docx central directory
+    public static int getStreamingTailBytes() {
+        return ZIP_TAIL_BYTES + 192 * 1024;
+    }
+
+    private static String detectContentType(byte[] head, long size, RangeReader reader) throws IOException {
+        if (startsWith(head, JPEG_MAGIC)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, PNG_MAGIC)) {
+            return "image/png";
+        }
+        // the PDF header may be preceded by junk bytes within the first KB
+        if (indexOf(head, PDF_MAGIC) >= 0) {
+            return "application/pdf";
+        }
+        if (startsWith(head, OLE2_MAGIC)) {
+            return "application/msword";
+        }
+        if (startsWith(head, ZIP_MAGIC) && zipContainsWordPart(size, reader)) {
+            return DOCX_CONTENT_TYPE;
+        }
+
+        return null;
+    }
+
+    // A .docx is a zip whose central directory lists entries under word/
+    private static boolean zipContainsWordPart(long size, RangeReader reader) throws IOException {
+        int window = (int) Math.min(size, ZIP_TAIL_BYTES);
+        long windowStart = size - window;
+
+        byte[] tail = reader.read(windowStart, window);
+
+        int eocd = -1;
+        for (int i = tail.length - 22; i >= 0; i--) {
+            if (readInt(tail, i) == ZIP_EOCD_SIGNATURE) {
+                eocd = i;
+                break;
+            }
+        }
+
+        if (eocd < 0) {
+            return false;
+        }
+
+        long centralDirectorySize = readInt(tail, eocd + 12) & 0xFFFFFFFFL;
+        long centralDirectoryOffset = readInt(tail, eocd + 16) & 0xFFFFFFFFL;
+
+        if (centralDirectorySize > MAX_CENTRAL_DIRECTORY_BYTES
+                || centralDirectoryOffset + centralDirectorySize > size) {
+            return false;
+        }
+
+        byte[] centralDirectory;
+        int start;
+
+        if (centralDirectoryOffset >= windowStart) {
+            centralDirectory = tail;
+            start = (int) (centralDirectoryOffset - windowStart);
+        } else {
+            centralDirectory = reader.read(centralDirectoryOffset, (int) centralDirectorySize);
+            start = 0;
+        }
+
+        int end = (int) Math.min(centralDirectory.length, start + centralDirectorySize);
+        int position = start;
+
+        while (position + 46 <= end && readInt(centralDirectory, position) == ZIP_CENTRAL_HEADER_SIGNATURE) {
+            int nameLength = readShort(centralDirectory, position + 28);
+            int extraLength = readShort(centralDirectory, position + 30);
+            int commentLength = readShort(centralDirectory, position + 32);
+
+            if (position + 46 + nameLength > end) {
+                return false;
+            }
+
+            String name = new String(centralDirectory, position + 46, nameLength, StandardCharsets.UTF_8);
+            if (name.startsWith("word/")) {
+                return true;
+            }
+
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+
+        return false;
+    }
+
+    private static byte[] readRange(MultipartFile file, long offset, int length) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            in.skipNBytes(offset);
+            return in.readNBytes(length);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeReader {
+        byte[] read(long offset, int length) throws IOException;
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) {
             return false;
         }
 
-        // Check content type
-        boolean validContentType = ALLOWED_CONTENT_TYPES.contains(contentType.toLowerCase());
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+
+        return -1;
+    }
 
-        // Check file extension
-        String extension = getFileExtension(originalFilename);
-        boolean validExtension = ALLOWED_EXTENSIONS.contains(extension.toLowerCase());
+    // zip fields are little-endian
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF)
+                | (data[offset + 1] & 0xFF) << 8
+                | (data[offset + 2] & 0xFF) << 16
+                | (data[offset + 3] & 0xFF) << 24;
+    }
 
-        return validContentType && validExtension;
+    private static int readShort(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    /**
+     * Extension check on its own, for streamed uploads whose content is only known afterwards.
+     */
+    public static boolean isAllowedExtension(String filename) {
+        return filename != null && ALLOWED_EXTENSIONS.contains(getFileExtension(filename).toLowerCase());
+    }
+
+    /**
+     * Whether the detected content type is what the file's extension promises.
+     */
+    public static boolean matchesExtension(String filename, String detectedContentType) {
+        if (filename == null || detectedContentType == null) {
+            return false;
+        }
+        return detectedContentType.equals(EXTENSION_CONTENT_TYPES.get(getFileExtension(filename).toLowerCase()));
     }
 
     public static boolean isValidFileSize(MultipartFile file) {
@@ -0,0 +1,142 @@
+package com.hrplatform.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Pass-through stream for uploads that are read exactly once: it keeps the first bytes
+ * and a bounded window of the last bytes for content sniffing, enforces a size limit,
+ * and copies everything it reads to an optional tee (e.g. a virus scanner).
+ */
+public class InspectingInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private final OutputStream tee;
+
+    private final byte[] head;
+    private int headLength;
+
+    // ring buffer holding the last tail.length bytes
+    private final byte[] tail;
+    private int tailPosition;
+    private boolean tailWrapped;
+
+    private long size;
+
+    public InspectingInputStream(InputStream in, long maxBytes, int headBytes, int tailBytes, OutputStream tee) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.tee = tee;
+        this.head = new byte[headBytes];
+        this.tail = new byte[tailBytes];
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            inspect(new byte[]{(byte) b}, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            inspect(buffer, offset, read);
+        }
+        return read;
+    }
+
+    // skipped bytes would never reach the tee or the tail window
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public byte[] getHead() {
+        return Arrays.copyOf(head, headLength);
+    }
+
+    public byte[] getTail() {
+        if (!tailWrapped) {
+            return Arrays.copyOf(tail, tailPosition);
+        }
+
+        byte[] ordered = new byte[tail.length];
+        System.arraycopy(tail, tailPosition, ordered, 0, tail.length - tailPosition);
+        System.arraycopy(tail, 0, ordered, tail.length - tailPosition, tailPosition);
+        return ordered;
+    }
+
+    private void inspect(byte[] buffer, int offset, int length) throws IOException {
+        size += length;
+        if (size > maxBytes) {
+            throw new SizeLimitExceededException(maxBytes);
+        }
+
+        if (headLength < head.length) {
+            int copy = Math.min(length, head.length - headLength);
+            System.arraycopy(buffer, offset, head, headLength, copy);
+            headLength += copy;
+        }
+
+        appendToTail(buffer, offset, length);
+
+        if (tee != null) {
+            tee.write(buffer, offset, length);
+        }
+    }
+
+    private void appendToTail(byte[] buffer, int offset, int length) {
+        if (tail.length == 0) {
+            return;
+        }
+
+        // only the last tail.length bytes of this chunk can survive
+        if (length >= tail.length) {
+            System.arraycopy(buffer, offset + length - tail.length, tail, 0, tail.length);
+            tailPosition = 0;
+            tailWrapped = true;
+            return;
+        }
+
+        int first = Math.min(length, tail.length - tailPosition);
+        System.arraycopy(buffer, offset, tail, tailPosition, first);
+        System.arraycopy(buffer, offset + first, tail, 0, length - first);
+
+        if (tailPosition + length >= tail.length) {
+            tailWrapped = true;
+        }
+        tailPosition = (tailPosition + length) % tail.length;
+    }
+
+    public static class SizeLimitExceededException extends IOException {
+
+        public SizeLimitExceededException(long maxBytes) {
+            super("Upload exceeds the limit of " + FileUtil.formatFileSize(maxBytes));
+        }
+    }
+}
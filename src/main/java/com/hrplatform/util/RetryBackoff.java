@@ -0,0 +1,44 @@
+package com.hrplatform.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Full-jitter exponential backoff: the delay before retry n is uniform in
+ * [0, min(maxMs, initialMs * 2^(n-1))]. Spreading retries over the whole range keeps
+ * clients that failed together from retrying together.
+ *
+ * The random source takes an exclusive bound and returns a value in [0, bound), so tests
+ * can pin it to either end of the range.
+ */
+public class RetryBackoff {
+
+    // past 2^20 the ceiling is far above any sane maximum anyway; also keeps the shift from overflowing
+    private static final int MAX_DOUBLINGS = 20;
+
+    private final long initialMs;
+    private final long maxMs;
+    private final LongUnaryOperator random;
+
+    public RetryBackoff(long initialMs, long maxMs) {
+        this(initialMs, maxMs, bound -> ThreadLocalRandom.current().nextLong(bound));
+    }
+
+    public RetryBackoff(long initialMs, long maxMs, LongUnaryOperator random) {
+        this.initialMs = Math.max(0, initialMs);
+        this.maxMs = Math.max(0, maxMs);
+        this.random = random;
+    }
+
+    /**
+     * Delay in ms before the retry that follows failed attempt number attemptNumber (1-based).
+     */
+    public long delayMs(int attemptNumber) {
+        return random.applyAsLong(ceilingMs(attemptNumber) + 1);
+    }
+
+    public long ceilingMs(int attemptNumber) {
+        int doublings = Math.min(Math.max(0, attemptNumber - 1), MAX_DOUBLINGS);
+        return Math.min(maxMs, initialMs << doublings);
+    }
+}
@@ -138,4 +138,19 @@ public class StringUtil {
 
         return str.trim().replaceAll("\\s+", " ");
     }
-}
\ No newline at end of file
+
+    /**
+     * One CSV field (RFC 4180): quoted when it holds a comma, quote or line break; null is empty.
+     */
+    public static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+
+        return value;
+    }
+}
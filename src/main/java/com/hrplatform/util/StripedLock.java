@@ -0,0 +1,34 @@
+package com.hrplatform.util;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks picked by key hash. Same key always maps to the same lock,
+ * different keys only contend when they happen to share a stripe.
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLock(int minimumStripes) {
+        int size = Integer.highestOneBit(Math.max(1, minimumStripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock get(Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16); // spread high bits, same as HashMap
+        return stripes[hash & mask];
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+}
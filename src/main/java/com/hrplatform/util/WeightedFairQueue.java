@@ -0,0 +1,169 @@
+package com.hrplatform.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Deficit round robin over per-key FIFO sub-queues.
+ *
+ * Each key with work waiting takes turns; on its turn it earns quantum x weight credit
+ * and dequeues items while their cost fits in the credit. A key that floods the queue
+ * only lengthens its own sub-queue, so a light key waits at most one round of the other
+ * keys rather than behind the whole backlog. Credit is dropped when a sub-queue empties,
+ * so an idle key cannot save up a burst.
+ *
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public class WeightedFairQueue<K, T> {
+
+    private final long quantum;
+    private final ToIntFunction<K> weights;
+
+    private final Map<K, Flow<K, T>> flows = new HashMap<>();
+    // keys with queued items, in turn order; the head is the key whose turn it is
+    private final ArrayDeque<Flow<K, T>> active = new ArrayDeque<>();
+    private int size;
+
+    public WeightedFairQueue(long quantum, ToIntFunction<K> weights) {
+        this.quantum = Math.max(1, quantum);
+        this.weights = weights;
+    }
+
+    public void offer(K key, long cost, T item) {
+        Flow<K, T> flow = flows.computeIfAbsent(key, k -> new Flow<>(k, Math.max(1, weights.applyAsInt(k))));
+        if (flow.items.isEmpty()) {
+            active.addLast(flow);
+        }
+        flow.items.addLast(new Entry<>(Math.max(1, cost), item));
+        size++;
+    }
+
+    /**
+     * Next item in fair order, or null if the queue is empty.
+     */
+    public T poll() {
+        while (!active.isEmpty()) {
+            Flow<K, T> flow = active.peekFirst();
+            if (!flow.hasTurn) {
+                flow.deficit += quantum * flow.weight;
+                flow.hasTurn = true;
+            }
+
+            Entry<T> head = flow.items.peekFirst();
+            if (head.cost <= flow.deficit) {
+                flow.items.pollFirst();
+                flow.deficit -= head.cost;
+                size--;
+
+                if (flow.items.isEmpty()) {
+                    active.pollFirst();
+                    flow.deficit = 0;
+                    flow.hasTurn = false;
+                }
+                return head.item;
+            }
+
+            // credit used up for this round, the next key's turn
+            flow.hasTurn = false;
+            active.addLast(active.pollFirst());
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // sub-queues are kept once created; keys here are departments, a small fixed set
+    public int size(K key) {
+        Flow<K, T> flow = flows.get(key);
+        return flow == null ? 0 : flow.items.size();
+    }
+
+    /**
+     * Removes the first item queued under key that matches, e.g. a waiter that gave up.
+     */
+    public boolean remove(K key, Predicate<? super T> matches) {
+        Flow<K, T> flow = flows.get(key);
+        if (flow == null) {
+            return false;
+        }
+
+        for (Iterator<Entry<T>> it = flow.items.iterator(); it.hasNext(); ) {
+            if (matches.test(it.next().item)) {
+                it.remove();
+                afterRemoval(flow);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes and returns the newest item queued under key, or null if it has none.
+     */
+    public T pollLast(K key) {
+        Flow<K, T> flow = flows.get(key);
+        if (flow == null || flow.items.isEmpty()) {
+            return null;
+        }
+
+        Entry<T> newest = flow.items.pollLast();
+        afterRemoval(flow);
+        return newest.item;
+    }
+
+    /**
+     * The key with the most items queued per unit of weight, or null if the queue is empty.
+     * That is the key furthest over its fair share of the backlog.
+     */
+    public K heaviestKey() {
+        Flow<K, T> heaviest = null;
+        for (Flow<K, T> flow : active) {
+            if (heaviest == null || (long) flow.items.size() * heaviest.weight > (long) heaviest.items.size() * flow.weight) {
+                heaviest = flow;
+            }
+        }
+        return heaviest == null ? null : heaviest.key;
+    }
+
+    private void afterRemoval(Flow<K, T> flow) {
+        size--;
+        if (flow.items.isEmpty()) {
+            active.remove(flow);
+            flow.deficit = 0;
+            flow.hasTurn = false;
+        }
+    }
+
+    private static class Flow<K, T> {
+        final K key;
+        final int weight;
+        final ArrayDeque<Entry<T>> items = new ArrayDeque<>();
+        long deficit;
+        boolean hasTurn;
+
+        Flow(K key, int weight) {
+            this.key = key;
+            this.weight = weight;
+        }
+    }
+
+    private static class Entry<T> {
+        final long cost;
+        final T item;
+
+        Entry(long cost, T item) {
+            this.cost = cost;
+            this.item = item;
+        }
+    }
+}
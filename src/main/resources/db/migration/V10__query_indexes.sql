@@ -0,0 +1,30 @@
+-- ========================
+-- Indexes for the hot repository predicates
+-- ========================
+-- The case-insensitive lookups compare LOWER(column), which a plain index on the column
+-- cannot serve, so each gets an expression index. The (staff_id, requirement_id)
+-- existence check is already served by uk_doc_sub_staff_requirement (V4/V9).
+
+-- StaffRepository.findByStaffIdNumberIgnoreCase, findByStaffIdNumberAndEmailIgnoreCase
+CREATE INDEX IF NOT EXISTS idx_staff_id_number_lower ON staff (lower(staff_id_number));
+-- StaffRepository.findByEmailIgnoreCase
+CREATE INDEX IF NOT EXISTS idx_staff_email_lower ON staff (lower(email));
+
+-- HrUserRepository.findByEmailIgnoreCase (every HR login and JWT check)
+CREATE INDEX IF NOT EXISTS idx_hr_email_lower ON hr_users (lower(email));
+-- HrUserRepository.findByPasswordResetToken; almost every row has no token
+CREATE INDEX IF NOT EXISTS idx_hr_reset_token ON hr_users (password_reset_token)
+    WHERE password_reset_token IS NOT NULL;
+
+-- DepartmentRepository.findByNameIgnoreCase
+CREATE INDEX IF NOT EXISTS idx_department_name_lower ON departments (lower(name));
+
+-- DocumentRequirementRepository.findByDepartmentIdAndIsActiveTrue: the requirement list
+-- every staff member loads
+CREATE INDEX IF NOT EXISTS idx_doc_req_department_active ON document_requirements (department_id)
+    WHERE is_active;
+-- DocumentRequirementRepository.findByDepartmentIdAndDocumentName and the duplicate-name check
+CREATE INDEX IF NOT EXISTS idx_doc_req_dept_name_lower ON document_requirements (department_id, lower(document_name));
+
+-- DocumentSubmissionRepository.applyProcessingResult, once per finished image job
+CREATE INDEX IF NOT EXISTS idx_doc_sub_storage_path ON document_submissions (storage_backend, file_path);
@@ -0,0 +1,86 @@
+-- ========================
+-- DEFAULT partitions for the audit tables
+-- ========================
+-- Without one, an audit insert past the last pre-created month fails, and with it the
+-- business operation being audited, as soon as partition maintenance has missed enough
+-- runs. Rows that land here are moved into their monthly partition by the next
+-- ensure_audit_partitions() call; AuditPartitionServiceImpl alerts while any are present.
+--
+-- Note on ids: a primary key on a partitioned table must include the partition key, so
+-- it is (id, created_at) and the database does not enforce id alone to be unique, although
+-- the entities map @Id to id. Ids are generated (UuidV7Id) and never reused, which is
+-- what keeps them unique; nothing may insert audit rows with caller-supplied ids.
+
+DO $$
+DECLARE
+    parent_table TEXT;
+BEGIN
+    FOREACH parent_table IN ARRAY ARRAY['hr_activity_logs', 'staff_submission_logs',
+                                        'document_config_logs', 'cloudinary_upload_logs'] LOOP
+        IF to_regclass(parent_table || '_default') IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', parent_table || '_default', parent_table);
+        END IF;
+    END LOOP;
+END $$;
+
+-- A partition cannot be created over rows already in the DEFAULT partition, so build it
+-- standalone, move that month's rows across, then attach it.
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent_table TEXT, month_start DATE)
+RETURNS VOID AS $$
+DECLARE
+    partition_name TEXT := format('%s_p%s', parent_table, to_char(month_start, 'YYYY_MM'));
+    default_name TEXT := parent_table || '_default';
+    month_end DATE := (month_start + INTERVAL '1 month')::DATE;
+    moved BIGINT;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    IF to_regclass(default_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent_table, month_start, month_end);
+        RETURN;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                   partition_name, parent_table);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE created_at >= %L AND created_at < %L RETURNING *) ' ||
+                   'INSERT INTO %I SELECT * FROM moved',
+                   default_name, month_start, month_end, partition_name);
+    GET DIAGNOSTICS moved = ROW_COUNT;
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent_table, partition_name, month_start, month_end);
+
+    IF moved > 0 THEN
+        RAISE WARNING 'Moved % rows from % into %', moved, default_name, partition_name;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Also gives every month found in a DEFAULT partition its own partition, so a missed
+-- maintenance window heals on the next run.
+CREATE OR REPLACE FUNCTION ensure_audit_partitions(months_back INT, months_ahead INT)
+RETURNS VOID AS $$
+DECLARE
+    parent_table TEXT;
+    stray_month DATE;
+    i INT;
+BEGIN
+    FOREACH parent_table IN ARRAY ARRAY['hr_activity_logs', 'staff_submission_logs',
+                                        'document_config_logs', 'cloudinary_upload_logs'] LOOP
+        FOR i IN -months_back..months_ahead LOOP
+            PERFORM create_monthly_partition(
+                    parent_table,
+                    (date_trunc('month', now()) + make_interval(months => i))::DATE);
+        END LOOP;
+
+        IF to_regclass(parent_table || '_default') IS NOT NULL THEN
+            FOR stray_month IN EXECUTE format(
+                    'SELECT DISTINCT date_trunc(''month'', created_at)::DATE FROM %I', parent_table || '_default') LOOP
+                PERFORM create_monthly_partition(parent_table, stray_month);
+            END LOOP;
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
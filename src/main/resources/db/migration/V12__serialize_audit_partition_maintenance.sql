@@ -0,0 +1,36 @@
+-- ========================
+-- Serialize audit partition maintenance
+-- ========================
+-- Every node calls ensure_audit_partitions() on startup, outside the scheduler lock that
+-- guards the nightly run. create_monthly_partition() checks to_regclass() and then creates
+-- or attaches the partition, which is not atomic, so two nodes starting together (or one
+-- starting during another's maintenance) could fail with "relation already exists".
+-- A transaction-level advisory lock makes concurrent calls take turns; the second one then
+-- finds every partition in place and does nothing.
+
+CREATE OR REPLACE FUNCTION ensure_audit_partitions(months_back INT, months_ahead INT)
+RETURNS VOID AS $$
+DECLARE
+    parent_table TEXT;
+    stray_month DATE;
+    i INT;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('ensure_audit_partitions'));
+
+    FOREACH parent_table IN ARRAY ARRAY['hr_activity_logs', 'staff_submission_logs',
+                                        'document_config_logs', 'cloudinary_upload_logs'] LOOP
+        FOR i IN -months_back..months_ahead LOOP
+            PERFORM create_monthly_partition(
+                    parent_table,
+                    (date_trunc('month', now()) + make_interval(months => i))::DATE);
+        END LOOP;
+
+        IF to_regclass(parent_table || '_default') IS NOT NULL THEN
+            FOR stray_month IN EXECUTE format(
+                    'SELECT DISTINCT date_trunc(''month'', created_at)::DATE FROM %I', parent_table || '_default') LOOP
+                PERFORM create_monthly_partition(parent_table, stray_month);
+            END LOOP;
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,168 @@
+-- ========================
+-- Monthly range partitioning for the audit tables
+-- ========================
+-- hr_activity_logs, staff_submission_logs, document_config_logs and cloudinary_upload_logs
+-- are append-only and only ever queried by time window, so they are partitioned by month
+-- on created_at. Existing (non-partitioned) tables created by ddl-auto are converted in place.
+
+-- Creates the partition <parent>_pYYYY_MM covering [month_start, month_start + 1 month)
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent_table TEXT, month_start DATE)
+RETURNS VOID AS $$
+DECLARE
+    partition_name TEXT := format('%s_p%s', parent_table, to_char(month_start, 'YYYY_MM'));
+    month_end DATE := (month_start + INTERVAL '1 month')::DATE;
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent_table, month_start, month_end);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Makes sure every audit table has partitions from (now - months_back) to (now + months_ahead).
+-- Called by AuditPartitionServiceImpl on startup and by its nightly maintenance job.
+CREATE OR REPLACE FUNCTION ensure_audit_partitions(months_back INT, months_ahead INT)
+RETURNS VOID AS $$
+DECLARE
+    parent_table TEXT;
+    i INT;
+BEGIN
+    FOREACH parent_table IN ARRAY ARRAY['hr_activity_logs', 'staff_submission_logs',
+                                        'document_config_logs', 'cloudinary_upload_logs'] LOOP
+        FOR i IN -months_back..months_ahead LOOP
+            PERFORM create_monthly_partition(
+                    parent_table,
+                    (date_trunc('month', now()) + make_interval(months => i))::DATE);
+        END LOOP;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Move any plain tables out of the way so the partitioned parents can take their names
+DO $$
+DECLARE
+    parent_table TEXT;
+    legacy_table TEXT;
+    idx RECORD;
+BEGIN
+    FOREACH parent_table IN ARRAY ARRAY['hr_activity_logs', 'staff_submission_logs',
+                                        'document_config_logs', 'cloudinary_upload_logs'] LOOP
+        legacy_table := parent_table || '_legacy';
+
+        IF to_regclass(parent_table) IS NOT NULL
+                AND NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(parent_table)) THEN
+
+            EXECUTE format('ALTER TABLE %I RENAME TO %I', parent_table, legacy_table);
+            EXECUTE format('ALTER TABLE %I RENAME CONSTRAINT %I TO %I',
+                           legacy_table, parent_table || '_pkey', legacy_table || '_pkey');
+
+            -- free up the @Index names so they can be recreated on the partitioned parent
+            FOR idx IN SELECT indexname FROM pg_indexes
+                       WHERE tablename = legacy_table AND indexname <> legacy_table || '_pkey' LOOP
+                EXECUTE format('DROP INDEX %I', idx.indexname);
+            END LOOP;
+        END IF;
+    END LOOP;
+END $$;
+
+CREATE TABLE IF NOT EXISTS hr_activity_logs (
+    id                UUID         NOT NULL,
+    hr_user_email     VARCHAR(100) NOT NULL,
+    action            VARCHAR(100) NOT NULL,
+    target_department VARCHAR(100),
+    details           VARCHAR(2000),
+    created_at        TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_hr_activity_email ON hr_activity_logs (hr_user_email);
+CREATE INDEX IF NOT EXISTS idx_hr_activity_created ON hr_activity_logs (created_at);
+CREATE INDEX IF NOT EXISTS idx_hr_activity_action ON hr_activity_logs (action);
+
+CREATE TABLE IF NOT EXISTS staff_submission_logs (
+    id              UUID         NOT NULL,
+    staff_id_number VARCHAR(50)  NOT NULL,
+    department_name VARCHAR(100) NOT NULL,
+    action          VARCHAR(50)  NOT NULL,
+    details         VARCHAR(1000),
+    created_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_staff_sub_log_staff ON staff_submission_logs (staff_id_number);
+CREATE INDEX IF NOT EXISTS idx_staff_sub_log_created ON staff_submission_logs (created_at);
+
+CREATE TABLE IF NOT EXISTS document_config_logs (
+    id              UUID         NOT NULL,
+    hr_user_email   VARCHAR(100) NOT NULL,
+    department_name VARCHAR(100) NOT NULL,
+    action          VARCHAR(50)  NOT NULL,
+    document_name   VARCHAR(200) NOT NULL,
+    details         VARCHAR(1000),
+    created_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_doc_config_hr_user ON document_config_logs (hr_user_email);
+CREATE INDEX IF NOT EXISTS idx_doc_config_department ON document_config_logs (department_name);
+CREATE INDEX IF NOT EXISTS idx_doc_config_created ON document_config_logs (created_at);
+
+CREATE TABLE IF NOT EXISTS cloudinary_upload_logs (
+    id                   UUID         NOT NULL,
+    staff_id_number      VARCHAR(50)  NOT NULL,
+    document_name        VARCHAR(200) NOT NULL,
+    department_name      VARCHAR(100) NOT NULL,
+    upload_status        VARCHAR(20)  NOT NULL,
+    cloudinary_url       VARCHAR(500),
+    cloudinary_public_id VARCHAR(200),
+    error_message        VARCHAR(1000),
+    file_size            BIGINT       NOT NULL,
+    created_at           TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_cloud_log_staff ON cloudinary_upload_logs (staff_id_number);
+CREATE INDEX IF NOT EXISTS idx_cloud_log_created ON cloudinary_upload_logs (created_at);
+CREATE INDEX IF NOT EXISTS idx_cloud_log_status ON cloudinary_upload_logs (upload_status);
+
+-- Create partitions reaching back to the oldest legacy row, then copy the legacy data across
+DO $$
+DECLARE
+    parent_table TEXT;
+    legacy_table TEXT;
+    oldest TIMESTAMP;
+    months_back INT := 0;
+    columns TEXT;
+BEGIN
+    FOREACH parent_table IN ARRAY ARRAY['hr_activity_logs', 'staff_submission_logs',
+                                        'document_config_logs', 'cloudinary_upload_logs'] LOOP
+        legacy_table := parent_table || '_legacy';
+
+        IF to_regclass(legacy_table) IS NOT NULL THEN
+            EXECUTE format('SELECT min(created_at) FROM %I', legacy_table) INTO oldest;
+
+            IF oldest IS NOT NULL THEN
+                months_back := greatest(months_back,
+                        (extract(YEAR FROM age(date_trunc('month', now()), date_trunc('month', oldest))) * 12
+                         + extract(MONTH FROM age(date_trunc('month', now()), date_trunc('month', oldest))))::INT);
+            END IF;
+        END IF;
+    END LOOP;
+
+    PERFORM ensure_audit_partitions(months_back, 3);
+
+    FOREACH parent_table IN ARRAY ARRAY['hr_activity_logs', 'staff_submission_logs',
+                                        'document_config_logs', 'cloudinary_upload_logs'] LOOP
+        legacy_table := parent_table || '_legacy';
+
+        IF to_regclass(legacy_table) IS NOT NULL THEN
+            -- ddl-auto may have ordered the legacy columns differently, so copy by name
+            SELECT string_agg(quote_ident(column_name), ', ' ORDER BY ordinal_position) INTO columns
+            FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = parent_table;
+
+            EXECUTE format('INSERT INTO %I (%s) SELECT %s FROM %I', parent_table, columns, columns, legacy_table);
+            EXECUTE format('DROP TABLE %I', legacy_table);
+        END IF;
+    END LOOP;
+END $$;
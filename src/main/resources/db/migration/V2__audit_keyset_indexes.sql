@@ -0,0 +1,9 @@
+-- ========================
+-- Keyset paging indexes for the audit tables
+-- ========================
+-- /api/audit/*/cursor and the streaming exports order by (created_at, id);
+-- a composite index lets each partition serve the page with an index scan and no sort.
+
+CREATE INDEX IF NOT EXISTS idx_hr_activity_created_id ON hr_activity_logs (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_staff_sub_log_created_id ON staff_submission_logs (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_doc_config_created_id ON document_config_logs (created_at, id);
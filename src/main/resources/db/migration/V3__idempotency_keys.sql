@@ -0,0 +1,16 @@
+-- ========================
+-- Idempotency keys for the document upload endpoints
+-- ========================
+-- One row per (scoped) Idempotency-Key header. IN_PROGRESS rows act as a cross-node claim,
+-- COMPLETED rows hold the JSON response that retries get replayed until expires_at.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key     VARCHAR(300) PRIMARY KEY,
+    request_fingerprint VARCHAR(64)  NOT NULL,
+    status              VARCHAR(20)  NOT NULL,
+    response_body       TEXT,
+    created_at          TIMESTAMP(6) NOT NULL,
+    expires_at          TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_expires ON idempotency_keys (expires_at);
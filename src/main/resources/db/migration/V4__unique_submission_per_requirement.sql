@@ -0,0 +1,41 @@
+-- ========================
+-- One submission per (staff, requirement)
+-- ========================
+-- Backs up the in-process reservation in SubmissionReservationService so parallel
+-- uploads on different nodes cannot both insert. On a fresh database ddl-auto creates
+-- the table (and this index, from the entity) after Flyway runs, so only act if it exists.
+--
+-- Earlier races may have left duplicate pairs. The most recent upload of each pair stays;
+-- the older rows are moved, untouched, to document_submission_duplicates so HR can review
+-- them and the stored files they point to are still accounted for.
+
+DO $$
+DECLARE
+    moved BIGINT;
+BEGIN
+    IF to_regclass('document_submissions') IS NOT NULL THEN
+        CREATE TABLE IF NOT EXISTS document_submission_duplicates
+            (LIKE document_submissions INCLUDING DEFAULTS);
+        ALTER TABLE document_submission_duplicates
+            ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP(6) NOT NULL DEFAULT now();
+
+        WITH superseded AS (
+            DELETE FROM document_submissions ds
+            USING document_submissions newer
+            WHERE ds.staff_id = newer.staff_id
+              AND ds.requirement_id = newer.requirement_id
+              AND (ds.created_at, ds.id) < (newer.created_at, newer.id)
+            RETURNING ds.*
+        )
+        INSERT INTO document_submission_duplicates
+        SELECT superseded.*, now() FROM superseded;
+        GET DIAGNOSTICS moved = ROW_COUNT;
+
+        IF moved > 0 THEN
+            RAISE WARNING 'Moved % duplicate document submissions to document_submission_duplicates', moved;
+        END IF;
+
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_doc_sub_staff_requirement
+            ON document_submissions (staff_id, requirement_id);
+    END IF;
+END $$;
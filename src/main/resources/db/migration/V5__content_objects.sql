@@ -0,0 +1,18 @@
+-- ========================
+-- Content-addressed index of stored documents
+-- ========================
+-- Maps the SHA-256 of an uploaded file to the storage object holding it, so identical
+-- uploads share one object. ref_count tracks how many document submissions point at it.
+
+CREATE TABLE IF NOT EXISTS content_objects (
+    id              UUID         PRIMARY KEY,
+    content_hash    VARCHAR(64)  NOT NULL,
+    storage_backend VARCHAR(20)  NOT NULL,
+    storage_key     VARCHAR(500) NOT NULL,
+    file_url        VARCHAR(500),
+    size            BIGINT       NOT NULL,
+    ref_count       INTEGER      NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_content_hash_backend ON content_objects (content_hash, storage_backend);
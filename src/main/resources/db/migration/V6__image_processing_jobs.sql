@@ -0,0 +1,21 @@
+-- ========================
+-- Background image processing jobs
+-- ========================
+-- Uploaded images are acknowledged as soon as the original is stored; metadata stripping
+-- and resizing happen afterwards from this table, so queued work survives restarts.
+
+CREATE TABLE IF NOT EXISTS image_processing_jobs (
+    id               UUID          PRIMARY KEY,
+    storage_backend  VARCHAR(20)   NOT NULL,
+    storage_key      VARCHAR(500)  NOT NULL,
+    status           VARCHAR(20)   NOT NULL,
+    attempts         INTEGER       NOT NULL,
+    last_error       VARCHAR(1000),
+    result_checksum  VARCHAR(64),
+    result_size      BIGINT,
+    created_at       TIMESTAMP(6)  NOT NULL,
+    updated_at       TIMESTAMP(6)  NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_image_job_storage_key ON image_processing_jobs (storage_backend, storage_key);
+CREATE INDEX IF NOT EXISTS idx_image_job_status ON image_processing_jobs (status, updated_at);
@@ -0,0 +1,35 @@
+-- ========================
+-- Durable background job queue
+-- ========================
+-- Work that has to survive a restart (image sanitization, outgoing mail) is a row here
+-- rather than a task in an in-memory executor. Workers on any node claim due PENDING rows
+-- with FOR UPDATE SKIP LOCKED and hold a lease (locked_until) that they renew while the job
+-- runs; when a worker dies its lease runs out and the job is handed out again. Finished jobs
+-- are deleted, jobs out of attempts stay behind as DEAD until the retention purge.
+
+CREATE TABLE IF NOT EXISTS background_jobs (
+    id            UUID          PRIMARY KEY,
+    job_type      VARCHAR(50)   NOT NULL,
+    payload       TEXT          NOT NULL,
+    status        VARCHAR(20)   NOT NULL,
+    attempts      INTEGER       NOT NULL,
+    run_at        TIMESTAMP(6)  NOT NULL,
+    locked_by     VARCHAR(100),
+    lock_token    UUID,
+    locked_until  TIMESTAMP(6),
+    last_error    VARCHAR(1000),
+    created_at    TIMESTAMP(6)  NOT NULL,
+    updated_at    TIMESTAMP(6)  NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_background_job_due ON background_jobs (job_type, run_at) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_background_job_lease ON background_jobs (locked_until) WHERE status = 'RUNNING';
+CREATE INDEX IF NOT EXISTS idx_background_job_dead ON background_jobs (updated_at) WHERE status = 'DEAD';
+
+-- image jobs used to be dispatched straight from image_processing_jobs; hand the unfinished ones over
+UPDATE image_processing_jobs SET status = 'PENDING' WHERE status = 'RUNNING';
+
+INSERT INTO background_jobs (id, job_type, payload, status, attempts, run_at, created_at, updated_at)
+SELECT gen_random_uuid(), 'image-processing', id::TEXT, 'PENDING', 0, created_at, created_at, updated_at
+FROM image_processing_jobs
+WHERE status = 'PENDING';
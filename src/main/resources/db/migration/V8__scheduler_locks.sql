@@ -0,0 +1,14 @@
+-- ========================
+-- Cluster-wide locks for @Scheduled jobs
+-- ========================
+-- One row per @SchedulerLock name. A node holds the lock while locked_until is in the
+-- future (database clock, so node clock skew does not matter). Every takeover bumps
+-- fencing_token, so a node that lost its lease can tell before doing destructive work.
+
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+    name           VARCHAR(100)  PRIMARY KEY,
+    locked_by      VARCHAR(100)  NOT NULL,
+    locked_at      TIMESTAMP(6)  NOT NULL,
+    locked_until   TIMESTAMP(6)  NOT NULL,
+    fencing_token  BIGINT        NOT NULL
+);
@@ -0,0 +1,103 @@
+-- ========================
+-- Baseline for the core tables
+-- ========================
+-- departments, staff, document_requirements, document_submissions, hr_users and
+-- export_logs used to exist only once ddl-auto had run, which is after Flyway, so no
+-- migration could index them on a fresh database. They are created here as ddl-auto
+-- would; on existing databases every statement is a no-op. Index names match the entity
+-- @Index names so ddl-auto sees them as present. ddl-auto still adds the single-column
+-- unique constraints under its own generated names.
+
+CREATE TABLE IF NOT EXISTS departments (
+    id          UUID         NOT NULL PRIMARY KEY,
+    name        VARCHAR(100) NOT NULL,
+    description VARCHAR(255),
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS staff (
+    id              UUID         NOT NULL PRIMARY KEY,
+    staff_id_number VARCHAR(50)  NOT NULL,
+    full_name       VARCHAR(100) NOT NULL,
+    email           VARCHAR(100) NOT NULL,
+    department_id   UUID,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT fk_staff_department FOREIGN KEY (department_id) REFERENCES departments (id)
+);
+
+CREATE TABLE IF NOT EXISTS document_requirements (
+    id            UUID         NOT NULL PRIMARY KEY,
+    department_id UUID         NOT NULL,
+    document_name VARCHAR(200) NOT NULL,
+    is_required   BOOLEAN      NOT NULL,
+    is_active     BOOLEAN      NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    updated_at    TIMESTAMP(6),
+    CONSTRAINT fk_doc_req_department FOREIGN KEY (department_id) REFERENCES departments (id)
+);
+
+CREATE TABLE IF NOT EXISTS document_submissions (
+    id                UUID         NOT NULL PRIMARY KEY,
+    staff_id          UUID         NOT NULL,
+    requirement_id    UUID         NOT NULL,
+    file_path         VARCHAR(500) NOT NULL,
+    storage_backend   VARCHAR(20),
+    file_url          VARCHAR(500),
+    checksum          VARCHAR(64),
+    processing_status VARCHAR(20),
+    file_name         VARCHAR(200) NOT NULL,
+    file_size         BIGINT       NOT NULL,
+    mime_type         VARCHAR(150) NOT NULL,
+    created_at        TIMESTAMP(6) NOT NULL,
+    updated_at        TIMESTAMP(6),
+    CONSTRAINT fk_doc_sub_staff FOREIGN KEY (staff_id) REFERENCES staff (id),
+    CONSTRAINT fk_doc_sub_requirement FOREIGN KEY (requirement_id) REFERENCES document_requirements (id)
+);
+
+CREATE TABLE IF NOT EXISTS hr_users (
+    id                          UUID         NOT NULL PRIMARY KEY,
+    email                       VARCHAR(100) NOT NULL,
+    password                    VARCHAR(255) NOT NULL,
+    full_name                   VARCHAR(100) NOT NULL,
+    is_active                   BOOLEAN      NOT NULL,
+    is_first_login              BOOLEAN      NOT NULL,
+    created_at                  TIMESTAMP(6) NOT NULL,
+    password_reset_token        VARCHAR(500),
+    password_reset_token_expiry TIMESTAMP(6),
+    updated_at                  TIMESTAMP(6),
+    last_login_at               TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS export_logs (
+    id                       UUID         NOT NULL PRIMARY KEY,
+    hr_user_email            VARCHAR(100) NOT NULL,
+    department_filter        VARCHAR(100),
+    submission_status_filter VARCHAR(50),
+    date_range_start         TIMESTAMP(6),
+    date_range_end           TIMESTAMP(6),
+    total_records_exported   INTEGER      NOT NULL,
+    created_at               TIMESTAMP(6) NOT NULL
+);
+
+-- the entity @Index set
+CREATE UNIQUE INDEX IF NOT EXISTS idx_department_name ON departments (name);
+
+CREATE INDEX IF NOT EXISTS idx_staff_email ON staff (email);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_staff_id_number ON staff (staff_id_number);
+CREATE INDEX IF NOT EXISTS idx_staff_department ON staff (department_id);
+
+CREATE INDEX IF NOT EXISTS idx_doc_req_department ON document_requirements (department_id);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_doc_req_dept_name ON document_requirements (department_id, document_name);
+
+CREATE INDEX IF NOT EXISTS idx_doc_sub_staff ON document_submissions (staff_id);
+CREATE INDEX IF NOT EXISTS idx_doc_sub_requirement ON document_submissions (requirement_id);
+CREATE INDEX IF NOT EXISTS idx_doc_sub_created ON document_submissions (created_at);
+-- V4 skipped this on a database that had no document_submissions yet
+CREATE UNIQUE INDEX IF NOT EXISTS uk_doc_sub_staff_requirement ON document_submissions (staff_id, requirement_id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_hr_email ON hr_users (email);
+
+CREATE INDEX IF NOT EXISTS idx_export_hr_user ON export_logs (hr_user_email);
+CREATE INDEX IF NOT EXISTS idx_export_created ON export_logs (created_at);
@@ -0,0 +1,75 @@
+package com.hrplatform.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Which later requests the filter keeps on the primary, observed through the route a
+ * read-only transaction would get inside the filter chain.
+ */
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(15);
+    private final RoutingDataSource router = new RoutingDataSource(() -> true);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void aClientsOwnReadsStayOnThePrimaryAfterItWrites() throws Exception {
+        assertThat(routeOf(request("GET", "token-a", null))).isEqualTo(RoutingDataSource.Route.REPLICA);
+
+        routeOf(request("POST", "token-a", null));
+
+        assertThat(routeOf(request("GET", "token-a", null))).isEqualTo(RoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void otherClientsBehindTheSameAddressAreNotPinned() throws Exception {
+        routeOf(request("POST", "token-a", "10.0.0.1"));
+
+        assertThat(routeOf(request("GET", "token-b", "10.0.0.1"))).isEqualTo(RoutingDataSource.Route.REPLICA);
+        assertThat(routeOf(request("GET", null, "10.0.0.1"))).isEqualTo(RoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void aSessionIssuedByTheWriteIsCoveredOnTheNextRequest() throws Exception {
+        MockHttpServletRequest selectDepartment = request("POST", null, null);
+        FilterChain issuesToken = (req, res) ->
+                req.setAttribute(ReadYourWritesFilter.ISSUED_SESSION_TOKEN, "token-new");
+        filter.doFilter(selectDepartment, new MockHttpServletResponse(), issuesToken);
+
+        assertThat(routeOf(request("GET", "token-new", null))).isEqualTo(RoutingDataSource.Route.PRIMARY);
+    }
+
+    private RoutingDataSource.Route routeOf(MockHttpServletRequest request) throws Exception {
+        AtomicReference<Object> route = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            route.set(router.determineCurrentLookupKey());
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        });
+        return (RoutingDataSource.Route) route.get();
+    }
+
+    private static MockHttpServletRequest request(String method, String sessionToken, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/staff/requirements");
+        if (sessionToken != null) {
+            request.addHeader("X-Session-Token", sessionToken);
+        }
+        if (remoteAddr != null) {
+            request.setRemoteAddr(remoteAddr);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,54 @@
+package com.hrplatform.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoutingDataSourceTest {
+
+    private final AtomicBoolean replicaUsable = new AtomicBoolean(true);
+    private final RoutingDataSource router = new RoutingDataSource(replicaUsable::get);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaWhileItIsUsable() {
+        assertThat(router.determineCurrentLookupKey()).isEqualTo(RoutingDataSource.Route.PRIMARY);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(router.determineCurrentLookupKey()).isEqualTo(RoutingDataSource.Route.REPLICA);
+
+        replicaUsable.set(false);
+        assertThat(router.determineCurrentLookupKey()).isEqualTo(RoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void anExplicitExportRouteWinsOverTheReplica() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (RoutingDataSource.Scope ignored = RoutingDataSource.bind(RoutingDataSource.Route.EXPORT)) {
+            assertThat(router.determineCurrentLookupKey()).isEqualTo(RoutingDataSource.Route.EXPORT);
+        }
+        assertThat(router.determineCurrentLookupKey()).isEqualTo(RoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void theBulkheadsPrimaryBindingStillLetsReadsUseTheReplica() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (RoutingDataSource.Scope ignored = RoutingDataSource.bind(RoutingDataSource.Route.PRIMARY)) {
+            assertThat(router.determineCurrentLookupKey()).isEqualTo(RoutingDataSource.Route.REPLICA);
+
+            try (RoutingDataSource.Scope pinned = RoutingDataSource.pinReadsToPrimary()) {
+                assertThat(router.determineCurrentLookupKey()).isEqualTo(RoutingDataSource.Route.PRIMARY);
+            }
+        }
+    }
+}
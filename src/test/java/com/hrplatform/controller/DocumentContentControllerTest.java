@@ -0,0 +1,235 @@
+package com.hrplatform.controller;
+
+import com.hrplatform.service.DocumentContentService;
+import com.hrplatform.service.DocumentContentService.DocumentContent;
+import com.hrplatform.service.ThumbnailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Range, ETag and conditional GET handling of the content endpoint, plus a concurrent
+ * download benchmark that runs only against a live instance: BENCHMARK_DOWNLOAD_URL is the
+ * full /api/documents/{id}/content URL of a locally stored document and
+ * BENCHMARK_DOWNLOAD_TOKEN an HR bearer token (BENCHMARK_DOWNLOAD_CLIENTS,
+ * BENCHMARK_DOWNLOAD_REQUESTS default to 32 and 2000). Half the requests ask for the first
+ * 64 KB only, the way PDF viewers open a document.
+ */
+class DocumentContentControllerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentContentControllerTest.class);
+    private static final String ETAG = "\"abc123\"";
+
+    @TempDir
+    Path dir;
+
+    private byte[] bytes;
+    private DocumentContentController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bytes = new byte[10_000];
+        new Random(1).nextBytes(bytes);
+        Path file = Files.write(dir.resolve("doc.pdf"), bytes);
+
+        DocumentContentService contentService = mock(DocumentContentService.class);
+        when(contentService.getContent(any())).thenReturn(DocumentContent.builder()
+                .fileName("doc.pdf")
+                .mimeType("application/pdf")
+                .size(bytes.length)
+                .etag(ETAG)
+                .lastModified(Instant.parse("2026-01-01T00:00:00Z"))
+                .localPath(file)
+                .build());
+
+        controller = new DocumentContentController(contentService, mock(ThumbnailService.class));
+        ReflectionTestUtils.setField(controller, "cacheMaxAgeSeconds", 3600L);
+    }
+
+    @Test
+    void servesTheWholeFileWithValidators() throws Exception {
+        MockHttpServletResponse response = get(new MockHttpServletRequest("GET", "/"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(bytes);
+        assertThat(response.getHeader("ETag")).isEqualTo(ETAG);
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("private, max-age=3600");
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(response.getContentLengthLong()).isEqualTo(bytes.length);
+    }
+
+    @Test
+    void servesASingleRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=100-199");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 100-199/10000");
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(bytes, 100, 200));
+    }
+
+    @Test
+    void answersUnsatisfiableRangesWith416() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=20000-");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */10000");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void answersRangesStartingAtTheEndOfTheFileWith416() throws Exception {
+        for (String range : List.of("bytes=10000-", "bytes=10000-10005", "bytes=0-9,10000-")) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+            request.addHeader("Range", range);
+
+            MockHttpServletResponse response = get(request);
+
+            assertThat(response.getStatus()).as(range).isEqualTo(416);
+            assertThat(response.getHeader("Content-Range")).as(range).isEqualTo("bytes */10000");
+            assertThat(response.getContentAsByteArray()).as(range).isEmpty();
+        }
+    }
+
+    @Test
+    void ignoresTheRangeWhenIfRangeNamesAnOldVersion() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Range", "bytes=0-9");
+        request.addHeader("If-Range", "\"older\"");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(bytes);
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWith304() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", "\"other\", W/" + ETAG);
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader("ETag")).isEqualTo(ETAG);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void handsTheFileToSendfileWhenTheConnectorSupportsIt() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=10-19");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(dir.resolve("doc.pdf").toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(10L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(20L);
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BENCHMARK_DOWNLOAD_URL", matches = ".+")
+    void concurrentDownloadBenchmark() throws Exception {
+        URI uri = URI.create(System.getenv("BENCHMARK_DOWNLOAD_URL"));
+        String token = env("BENCHMARK_DOWNLOAD_TOKEN", "");
+        int clients = Integer.parseInt(env("BENCHMARK_DOWNLOAD_CLIENTS", "32"));
+        int requests = Integer.parseInt(env("BENCHMARK_DOWNLOAD_REQUESTS", "2000"));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Callable<long[]>> tasks = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                boolean ranged = i % 2 == 0;
+                tasks.add(() -> {
+                    HttpRequest.Builder builder = HttpRequest.newBuilder(uri).GET()
+                            .header("Authorization", "Bearer " + token);
+                    if (ranged) {
+                        builder.header("Range", "bytes=0-65535");
+                    }
+                    long start = System.nanoTime();
+                    HttpResponse<InputStream> response = client.send(builder.build(),
+                            HttpResponse.BodyHandlers.ofInputStream());
+                    long read;
+                    try (InputStream body = response.body()) {
+                        read = body.transferTo(OutputStream.nullOutputStream());
+                    }
+                    return new long[]{response.statusCode(), read, System.nanoTime() - start};
+                });
+            }
+
+            long start = System.nanoTime();
+            List<Future<long[]>> results = executor.invokeAll(tasks);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long totalBytes = 0;
+            long[] latencies = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                long[] result = results.get(i).get();
+                assertThat(result[0]).as("status of request " + i).isIn(200L, 206L);
+                totalBytes += result[1];
+                latencies[i] = result[2];
+            }
+            Arrays.sort(latencies);
+
+            log.info("{} downloads by {} clients: {} req/s, {} MB/s, p50 {} ms, p99 {} ms",
+                    requests, clients,
+                    String.format("%.0f", requests / seconds),
+                    String.format("%.1f", totalBytes / 1048576.0 / seconds),
+                    String.format("%.1f", latencies[requests / 2] / 1e6),
+                    String.format("%.1f", latencies[(int) (requests * 0.99)] / 1e6));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getDocumentContent(UUID.randomUUID(), request, response);
+        return response;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
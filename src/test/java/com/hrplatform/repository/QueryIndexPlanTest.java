@@ -0,0 +1,329 @@
+package com.hrplatform.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the Flyway migrations into a scratch schema, calls each hot repository method and
+ * checks with EXPLAIN that the SQL Hibernate sent for it is served by the index meant for
+ * it. The SQL is captured with a StatementInspector, so a change to a query, a mapping or
+ * the Hibernate version is checked as it actually runs. Sequential scans are switched off
+ * so the answer does not depend on table size: a plan that still scans a table has no
+ * usable index for it.
+ *
+ * The statements are explained with EXPLAIN (GENERIC_PLAN), i.e. the plan for unknown
+ * parameter values, which needs PostgreSQL 16 or later. Needs PLAN_TEST_DB_URL (and
+ * PLAN_TEST_DB_USER, PLAN_TEST_DB_PASSWORD, default postgres) pointing at a PostgreSQL
+ * database it may create a schema in.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "PLAN_TEST_DB_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryIndexPlanTest {
+
+    private static final String SCHEMA = "query_plan_test";
+
+    // index names in plan lines: "Index Scan using <name> on ...", "Bitmap Index Scan on <name>"
+    private static final Pattern INDEX_USED = Pattern.compile("(?:using|Bitmap Index Scan on) (\\S+)");
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private CapturedSql capturedSql;
+
+    @Autowired
+    private StaffRepository staffRepository;
+    @Autowired
+    private HrUserRepository hrUserRepository;
+    @Autowired
+    private DepartmentRepository departmentRepository;
+    @Autowired
+    private DocumentRequirementRepository documentRequirementRepository;
+    @Autowired
+    private DocumentSubmissionRepository documentSubmissionRepository;
+    @Autowired
+    private HrActivityLogRepository hrActivityLogRepository;
+    @Autowired
+    private StaffSubmissionLogRepository staffSubmissionLogRepository;
+    @Autowired
+    private DocumentConfigLogRepository documentConfigLogRepository;
+    @Autowired
+    private BackgroundJobRepository backgroundJobRepository;
+
+    @DynamicPropertySource
+    static void planTestDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("PLAN_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> env("PLAN_TEST_DB_USER", "postgres"));
+        registry.add("spring.datasource.password", () -> env("PLAN_TEST_DB_PASSWORD", "postgres"));
+        // the native queries are unqualified, as in production
+        registry.add("spring.datasource.hikari.connection-init-sql", () -> "SET search_path TO " + SCHEMA);
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @BeforeAll
+    void requireGenericPlans() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assumeTrue(connection.getMetaData().getDatabaseMajorVersion() >= 16,
+                    "EXPLAIN (GENERIC_PLAN) needs PostgreSQL 16 or later");
+        }
+    }
+
+    @AfterAll
+    void dropSchema() {
+        new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    Stream<Arguments> repositoryQueries() {
+        UUID id = UUID.randomUUID();
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+        LocalDateTime to = from.plusMonths(1);
+        Pageable page = PageRequest.of(0, 50);
+
+        return Stream.of(
+                query("StaffRepository.findByStaffIdNumberIgnoreCase",
+                        () -> staffRepository.findByStaffIdNumberIgnoreCase("EVC-001"),
+                        "idx_staff_id_number_lower"),
+                query("StaffRepository.findByStaffIdNumberAndEmailIgnoreCase",
+                        () -> staffRepository.findByStaffIdNumberAndEmailIgnoreCase("EVC-001", "a@b.c"),
+                        "idx_staff_id_number_lower|idx_staff_email_lower"),
+                query("StaffRepository.findByEmailIgnoreCase",
+                        () -> staffRepository.findByEmailIgnoreCase("a@b.c"),
+                        "idx_staff_email_lower"),
+                query("StaffRepository.existsByStaffIdNumber",
+                        () -> staffRepository.existsByStaffIdNumber("EVC-001"),
+                        "idx_staff_id_number"),
+                query("StaffRepository.findByDepartmentId",
+                        () -> staffRepository.findByDepartmentId(id, page),
+                        "idx_staff_department"),
+                query("StaffRepository.findByIdWithDocuments",
+                        () -> staffRepository.findByIdWithDocuments(id),
+                        "staff_pkey", "idx_doc_sub_staff|uk_doc_sub_staff_requirement"),
+                query("HrUserRepository.findByEmailIgnoreCase",
+                        () -> hrUserRepository.findByEmailIgnoreCase("hr@b.c"),
+                        "idx_hr_email_lower"),
+                query("HrUserRepository.findByEmail",
+                        () -> hrUserRepository.findByEmail("hr@b.c"),
+                        "idx_hr_email"),
+                query("HrUserRepository.findByPasswordResetToken",
+                        () -> hrUserRepository.findByPasswordResetToken("token"),
+                        "idx_hr_reset_token"),
+                query("DepartmentRepository.findByNameIgnoreCase",
+                        () -> departmentRepository.findByNameIgnoreCase("Finance"),
+                        "idx_department_name_lower"),
+                query("DocumentRequirementRepository.findByDepartmentIdAndIsActiveTrue",
+                        () -> documentRequirementRepository.findByDepartmentIdAndIsActiveTrue(id),
+                        "idx_doc_req_department_active|idx_doc_req_department"),
+                query("DocumentRequirementRepository.findByDepartmentId",
+                        () -> documentRequirementRepository.findByDepartmentId(id),
+                        "idx_doc_req_department|idx_doc_req_dept_name|idx_doc_req_dept_name_lower"),
+                query("DocumentRequirementRepository.findByDepartmentIdAndDocumentName",
+                        () -> documentRequirementRepository.findByDepartmentIdAndDocumentName(id, "Passport"),
+                        "idx_doc_req_dept_name_lower"),
+                query("DocumentSubmissionRepository.existsByStaffIdAndDocumentRequirementId",
+                        () -> documentSubmissionRepository.existsByStaffIdAndDocumentRequirementId(id, id),
+                        "uk_doc_sub_staff_requirement"),
+                query("DocumentSubmissionRepository.findByStaffIdAndDocumentRequirementId",
+                        () -> documentSubmissionRepository.findByStaffIdAndDocumentRequirementId(id, id),
+                        "uk_doc_sub_staff_requirement"),
+                query("DocumentSubmissionRepository.findByStaffId",
+                        () -> documentSubmissionRepository.findByStaffId(id),
+                        "idx_doc_sub_staff|uk_doc_sub_staff_requirement"),
+                query("DocumentSubmissionRepository.findByDepartmentId",
+                        () -> documentSubmissionRepository.findByDepartmentId(id),
+                        "idx_staff_department", "idx_doc_sub_staff|uk_doc_sub_staff_requirement"),
+                query("DocumentSubmissionRepository.findByDateRange",
+                        () -> documentSubmissionRepository.findByDateRange(from, to),
+                        "idx_doc_sub_created"),
+                query("DocumentSubmissionRepository.findByDepartmentIdAndDateRange",
+                        () -> documentSubmissionRepository.findByDepartmentIdAndDateRange(id, from, to),
+                        "idx_staff_department|staff_pkey",
+                        "idx_doc_sub_staff|uk_doc_sub_staff_requirement|idx_doc_sub_created"),
+                query("DocumentSubmissionRepository.applyProcessingResult",
+                        () -> documentSubmissionRepository.applyProcessingResult("local", "medical/a.pdf", "DONE", null, null),
+                        "idx_doc_sub_storage_path"),
+                // each monthly partition carries its own copy of the (created_at, id) index
+                query("HrActivityLogRepository.findFirstPage",
+                        () -> hrActivityLogRepository.findFirstPage(from, to, page),
+                        "hr_activity_logs_.*_created_at_id_idx"),
+                query("HrActivityLogRepository.findPageAfter",
+                        () -> hrActivityLogRepository.findPageAfter(from, to, to, id, page),
+                        "hr_activity_logs_.*_created_at_id_idx"),
+                query("StaffSubmissionLogRepository.findFirstPage",
+                        () -> staffSubmissionLogRepository.findFirstPage(from, to, page),
+                        "staff_submission_logs_.*_created_at_id_idx"),
+                query("StaffSubmissionLogRepository.findPageAfter",
+                        () -> staffSubmissionLogRepository.findPageAfter(from, to, to, id, page),
+                        "staff_submission_logs_.*_created_at_id_idx"),
+                query("DocumentConfigLogRepository.findFirstPage",
+                        () -> documentConfigLogRepository.findFirstPage(from, to, page),
+                        "document_config_logs_.*_created_at_id_idx"),
+                query("DocumentConfigLogRepository.findPageAfter",
+                        () -> documentConfigLogRepository.findPageAfter(from, to, to, id, page),
+                        "document_config_logs_.*_created_at_id_idx"),
+                query("BackgroundJobRepository.lockDue",
+                        () -> backgroundJobRepository.lockDue("IMAGE_PROCESSING", 10),
+                        "idx_background_job_due"),
+                query("BackgroundJobRepository.requeueExpired",
+                        () -> backgroundJobRepository.requeueExpired(),
+                        "idx_background_job_lease")
+        );
+    }
+
+    /**
+     * Every expected entry must be matched by one of the indexes in the plan; an entry is a
+     * regex over index names, so "a|b" accepts either.
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void usesItsIndex(String repositoryMethod, Runnable call, String[] expectedIndexes) throws Exception {
+        String sql = capturedSql.sentBy(call);
+        String plan = explain(sql);
+        List<String> indexes = indexesUsed(plan);
+
+        assertThat(plan).as(repositoryMethod + " plan for\n" + sql).doesNotContain("Seq Scan");
+        for (String expected : expectedIndexes) {
+            assertThat(indexes.stream().anyMatch(index -> index.matches(expected)))
+                    .as(repositoryMethod + " should use " + expected + " for\n" + sql + "\n" + plan)
+                    .isTrue();
+        }
+    }
+
+    private String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // SET LOCAL, so the pooled connection goes back to the pool unchanged
+                statement.execute("SET LOCAL enable_seqscan = off");
+                try (ResultSet rs = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numberParameters(sql))) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+        return plan.toString();
+    }
+
+    // Hibernate sends JDBC ? placeholders, EXPLAIN (GENERIC_PLAN) takes $1..$n
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        boolean inLiteral = false;
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    private static List<String> indexesUsed(String plan) {
+        List<String> indexes = new ArrayList<>();
+        Matcher matcher = INDEX_USED.matcher(plan);
+        while (matcher.find()) {
+            indexes.add(matcher.group(1));
+        }
+        return indexes;
+    }
+
+    private static Arguments query(String repositoryMethod, Runnable call, String... expectedIndexes) {
+        return Arguments.of(repositoryMethod, call, expectedIndexes);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    /**
+     * Records every statement Hibernate prepares, native queries included.
+     */
+    static class CapturedSql implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        // the tables are empty, so each repository call is exactly one statement
+        String sentBy(Runnable call) {
+            statements.clear();
+            call.run();
+            assertThat(statements).as("statements sent").hasSize(1);
+            return statements.get(0);
+        }
+    }
+
+    @TestConfiguration
+    static class PlanTestConfig {
+
+        @Bean
+        CapturedSql capturedSql() {
+            return new CapturedSql();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer captureSql(CapturedSql capturedSql) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, capturedSql);
+        }
+
+        // migrate into a fresh schema every run
+        @Bean
+        FlywayMigrationStrategy freshSchema() {
+            return flyway -> {
+                new JdbcTemplate(flyway.getConfiguration().getDataSource())
+                        .execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+                flyway.migrate();
+            };
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.exception.VirusScanException;
+import com.hrplatform.service.VirusScanService.StreamScan;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * ClamAVServiceImpl against a fake clamd on a local socket that speaks the same
+ * z-command protocol: IDSESSION, INSTREAM with length-prefixed chunks, numbered replies.
+ */
+class ClamAVServiceImplTest {
+
+    private static final byte[] EICAR = "X5O!P%@AP[4\\PZX54(P^)7CC)7}$EICAR-STANDARD-ANTIVIRUS-TEST-FILE!$H+H*"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private FakeClamd clamd;
+    private SimpleMeterRegistry meterRegistry;
+    private ClamAVServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clamd = new FakeClamd();
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ClamAVServiceImpl(2, 100, meterRegistry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "host", "127.0.0.1");
+        ReflectionTestUtils.setField(service, "port", clamd.port());
+        ReflectionTestUtils.setField(service, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(service, "readTimeoutMs", 2000);
+        ReflectionTestUtils.setField(service, "chunkBytes", 1000);
+        ReflectionTestUtils.setField(service, "idleTimeoutSeconds", 20L);
+        ReflectionTestUtils.setField(service, "acquireTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(service, "failOpen", false);
+        ReflectionTestUtils.setField(service, "verdictCacheTtlMinutes", 60L);
+        ReflectionTestUtils.setField(service, "streamIdleTimeoutMs", 10_000L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.closeSessions();
+        clamd.close();
+    }
+
+    @Test
+    void streamsTheFileInLengthPrefixedChunks() {
+        service.scanFile(file("a.pdf", content(2500, 'a')));
+
+        assertThat(clamd.chunkSizes).containsExactly(1000, 1000, 500);
+        assertThat(clamd.scanned).hasSize(1);
+        assertThat(clamd.scanned.get(0)).isEqualTo(content(2500, 'a'));
+        assertThat(meterRegistry.get("virus.scan.duration").tags("mode", "multipart", "result", "clean").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("virus.scan.bytes").tags("mode", "multipart").summary().totalAmount())
+                .isEqualTo(2500);
+    }
+
+    @Test
+    void reusesOneSessionForConsecutiveScans() {
+        service.scanFile(file("a.pdf", content(100, 'a')));
+        service.scanFile(file("b.pdf", content(100, 'b')));
+        service.scanFile(file("c.pdf", content(100, 'c')));
+
+        assertThat(clamd.connections.get()).isEqualTo(1);
+        assertThat(clamd.sessionsStarted.get()).isEqualTo(1);
+        assertThat(clamd.scanned).hasSize(3);
+    }
+
+    @Test
+    void rejectsInfectedFilesAndAnswersRepeatsFromTheCache() {
+        assertThatThrownBy(() -> service.scanFile(file("eicar.pdf", EICAR)))
+                .isInstanceOf(VirusScanException.class)
+                .satisfies(e -> assertThat(((VirusScanException) e).getVirusName()).isEqualTo("Eicar-Test-Signature"));
+
+        assertThatThrownBy(() -> service.scanFile(file("again.pdf", EICAR)))
+                .isInstanceOf(VirusScanException.class)
+                .satisfies(e -> assertThat(((VirusScanException) e).isInfected()).isTrue());
+
+        assertThat(clamd.scanned).hasSize(1);
+        assertThat(meterRegistry.get("virus.scan.cache.hits").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("virus.scan.duration").tags("result", "infected").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void errorRepliesFailTheScan() {
+        clamd.reply = Reply.ERROR;
+
+        assertThatThrownBy(() -> service.scanFile(file("big.pdf", content(100, 'a'))))
+                .isInstanceOf(VirusScanException.class)
+                .hasMessageContaining("size limit exceeded")
+                .satisfies(e -> assertThat(((VirusScanException) e).isInfected()).isFalse());
+        assertThat(meterRegistry.get("virus.scan.duration").tags("result", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void aSilentClamdTimesOutInsteadOfHangingTheUpload() {
+        clamd.reply = Reply.NONE;
+        ReflectionTestUtils.setField(service, "readTimeoutMs", 200);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                assertThatThrownBy(() -> service.scanFile(file("a.pdf", content(100, 'a'))))
+                        .isInstanceOf(VirusScanException.class)
+                        .hasMessageContaining("Virus scan failed"));
+    }
+
+    @Test
+    void retriesOnAFreshSessionWhenClamdDroppedThePooledOne() throws Exception {
+        service.scanFile(file("a.pdf", content(100, 'a')));
+        clamd.dropConnections();
+
+        service.scanFile(file("b.pdf", content(100, 'b')));
+
+        assertThat(clamd.connections.get()).isEqualTo(2);
+        assertThat(clamd.scanned).hasSize(2);
+    }
+
+    @Test
+    void streamScanSendsWhatIsWrittenAndReturnsTheVerdict() throws Exception {
+        try (StreamScan scan = service.openStreamScan()) {
+            scan.write(content(1500, 'a'));
+            scan.write(content(10, 'b'));
+            scan.finish("a.pdf", null);
+        }
+
+        assertThat(clamd.chunkSizes).containsExactly(1500, 10);
+        assertThat(meterRegistry.get("virus.scan.bytes").tags("mode", "stream").summary().totalAmount())
+                .isEqualTo(1510);
+
+        StreamScan infected = service.openStreamScan();
+        infected.write(EICAR);
+        assertThatThrownBy(() -> infected.finish("eicar.pdf", null))
+                .isInstanceOf(VirusScanException.class)
+                .satisfies(e -> assertThat(((VirusScanException) e).isInfected()).isTrue());
+
+        assertThat(clamd.connections.get()).isEqualTo(1);
+    }
+
+    @Test
+    void streamScanOnlyConnectsOnceBytesArrive() throws Exception {
+        StreamScan scan = service.openStreamScan();
+        assertThat(clamd.connections.get()).isZero();
+
+        scan.write(content(10, 'a'));
+        scan.finish("a.pdf", null);
+
+        assertThat(clamd.connections.get()).isEqualTo(1);
+    }
+
+    @Test
+    void aStalledStreamGivesItsSessionBackAndFails() throws Exception {
+        ReflectionTestUtils.setField(service, "streamIdleTimeoutMs", 200L);
+        ReflectionTestUtils.setField(service, "acquireTimeoutMs", 100L);
+
+        StreamScan stalled = service.openStreamScan();
+        stalled.write(content(10, 'a'));
+        StreamScan other = service.openStreamScan();
+        other.write(content(10, 'b'));
+
+        // both scans hold the only two permits until they go quiet for long enough
+        Thread.sleep(600);
+        StreamScan third = service.openStreamScan();
+        third.write(content(10, 'c'));
+        third.finish("c.pdf", null);
+
+        assertThatThrownBy(() -> stalled.write(content(10, 'a')))
+                .hasMessageContaining("no upload data");
+        assertThatThrownBy(() -> stalled.finish("a.pdf", null))
+                .isInstanceOf(VirusScanException.class)
+                .hasMessageContaining("stalled");
+    }
+
+    private static MockMultipartFile file(String name, byte[] content) {
+        return new MockMultipartFile("file", name, "application/pdf", content);
+    }
+
+    private static byte[] content(int length, char fill) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) fill);
+        return bytes;
+    }
+
+    private enum Reply { VERDICT, ERROR, NONE }
+
+    /**
+     * Minimal clamd: answers EICAR with FOUND and everything else with OK, or with an
+     * ERROR / no reply at all when told to.
+     */
+    private static class FakeClamd implements AutoCloseable {
+
+        private final ServerSocket server = new ServerSocket(0);
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger sessionsStarted = new AtomicInteger();
+        final List<Integer> chunkSizes = new CopyOnWriteArrayList<>();
+        final List<byte[]> scanned = new CopyOnWriteArrayList<>();
+        volatile Reply reply = Reply.VERDICT;
+
+        FakeClamd() throws IOException {
+            executor.execute(this::acceptLoop);
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        void dropConnections() throws IOException {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+
+        private void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.incrementAndGet();
+                    sockets.add(socket);
+                    executor.execute(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                boolean session = false;
+                int requestId = 0;
+
+                while (true) {
+                    String command = readCommand(in);
+                    if (command == null || command.equals("zEND")) {
+                        return;
+                    }
+                    if (command.equals("zIDSESSION")) {
+                        session = true;
+                        sessionsStarted.incrementAndGet();
+                        continue;
+                    }
+                    if (command.equals("zPING")) {
+                        out.write("PONG\0".getBytes(StandardCharsets.US_ASCII));
+                        continue;
+                    }
+                    if (!command.equals("zINSTREAM")) {
+                        return;
+                    }
+
+                    requestId++;
+                    ByteArrayOutputStream content = new ByteArrayOutputStream();
+                    int length;
+                    while ((length = in.readInt()) > 0) {
+                        chunkSizes.add(length);
+                        content.write(in.readNBytes(length));
+                    }
+                    scanned.add(content.toByteArray());
+
+                    String prefix = session ? requestId + ": " : "";
+                    switch (reply) {
+                        case NONE -> {
+                            // keep the connection open and say nothing
+                            in.read();
+                            return;
+                        }
+                        case ERROR -> {
+                            out.write((prefix + "INSTREAM size limit exceeded. ERROR\0").getBytes(StandardCharsets.US_ASCII));
+                            return;
+                        }
+                        default -> {
+                            String verdict = new String(content.toByteArray(), StandardCharsets.US_ASCII).contains("EICAR")
+                                    ? "stream: Eicar-Test-Signature FOUND" : "stream: OK";
+                            out.write((prefix + verdict + "\0").getBytes(StandardCharsets.US_ASCII));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // client went away
+            }
+        }
+
+        private String readCommand(DataInputStream in) throws IOException {
+            ByteArrayOutputStream command = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) > 0) {
+                command.write(b);
+            }
+            return b == -1 ? null : command.toString(StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+            dropConnections();
+            executor.shutdownNow();
+        }
+    }
+}
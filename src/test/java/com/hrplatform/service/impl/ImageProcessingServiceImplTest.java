@@ -0,0 +1,171 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.config.FileStorageConfig;
+import com.hrplatform.exception.ImageProcessingException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The subsampled image pipeline, plus a benchmark over a corpus of real photos that runs
+ * only when BENCHMARK_IMAGE_DIR points at a directory of JPEG/PNG files. For each photo it
+ * compares heap allocated and time taken against a plain full-resolution ImageIO.read.
+ */
+class ImageProcessingServiceImplTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageProcessingServiceImplTest.class);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void downsizesALargeJpegToTheMaxDimension() throws Exception {
+        Path photo = writeImage(dir.resolve("photo.jpg"), 3000, 2000, "jpeg");
+
+        service(1024, 100_000_000L).processImage(photo.toFile());
+
+        BufferedImage result = ImageIO.read(photo.toFile());
+        assertThat(result.getWidth()).isEqualTo(1024);
+        assertThat(result.getHeight()).isEqualTo(682);
+        assertThat(formatOf(photo.toFile())).isEqualTo("jpeg");
+    }
+
+    @Test
+    void keepsSmallPngsAtTheirSizeAndFormat() throws Exception {
+        Path image = writeImage(dir.resolve("scan.png"), 800, 600, "png");
+
+        service(1024, 100_000_000L).processImage(image.toFile());
+
+        BufferedImage result = ImageIO.read(image.toFile());
+        assertThat(result.getWidth()).isEqualTo(800);
+        assertThat(result.getHeight()).isEqualTo(600);
+        assertThat(formatOf(image.toFile())).isEqualTo("png");
+    }
+
+    @Test
+    void rejectsImagesAboveThePixelLimitBeforeDecoding() throws Exception {
+        Path photo = writeImage(dir.resolve("huge.jpg"), 2000, 2000, "jpeg");
+        byte[] original = Files.readAllBytes(photo);
+
+        assertThatThrownBy(() -> service(1024, 1_000_000L).processImage(photo.toFile()))
+                .isInstanceOf(ImageProcessingException.class)
+                .hasMessageContaining("too large");
+        assertThat(Files.readAllBytes(photo)).isEqualTo(original);
+    }
+
+    @Test
+    void decodeScaledFitsWithinTheRequestedSize() throws Exception {
+        Path photo = writeImage(dir.resolve("photo.jpg"), 3000, 2000, "jpeg");
+
+        BufferedImage thumbnail = service(2048, 100_000_000L).decodeScaled(photo.toFile(), 256);
+
+        assertThat(Math.max(thumbnail.getWidth(), thumbnail.getHeight())).isEqualTo(256);
+    }
+
+    @Test
+    void leavesNonImagesAlone() throws Exception {
+        Path pdf = Files.writeString(dir.resolve("doc.pdf"), "%PDF-1.7");
+
+        service(1024, 100_000_000L).processImage(pdf.toFile());
+
+        assertThat(Files.readString(pdf)).isEqualTo("%PDF-1.7");
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BENCHMARK_IMAGE_DIR", matches = ".+")
+    void corpusBenchmarkAgainstFullResolutionDecode() throws Exception {
+        List<Path> corpus;
+        try (var files = Files.list(Paths.get(System.getenv("BENCHMARK_IMAGE_DIR")))) {
+            corpus = files.filter(path -> path.toString().toLowerCase().matches(".*\\.(jpe?g|png)$")).sorted().toList();
+        }
+        assertThat(corpus).as("images in BENCHMARK_IMAGE_DIR").isNotEmpty();
+
+        ImageProcessingServiceImpl service = service(2048, 100_000_000L);
+        long fullBytes = 0;
+        long pipelineBytes = 0;
+
+        for (Path source : corpus) {
+            Path copy = Files.copy(source, dir.resolve(source.getFileName()));
+
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            BufferedImage full = ImageIO.read(source.toFile());
+            long fullMillis = (System.nanoTime() - start) / 1_000_000;
+            long fullAllocated = allocatedBytes() - allocated;
+            int width = full.getWidth();
+            int height = full.getHeight();
+            full = null;
+
+            allocated = allocatedBytes();
+            start = System.nanoTime();
+            service.processImage(copy.toFile());
+            long pipelineMillis = (System.nanoTime() - start) / 1_000_000;
+            long pipelineAllocated = allocatedBytes() - allocated;
+
+            log.info("{} ({}x{}): full decode {} MB in {} ms, pipeline {} MB in {} ms",
+                    source.getFileName(), width, height,
+                    fullAllocated / 1048576, fullMillis, pipelineAllocated / 1048576, pipelineMillis);
+
+            fullBytes += fullAllocated;
+            pipelineBytes += pipelineAllocated;
+            Files.delete(copy);
+        }
+
+        log.info("{} images: full decode allocated {} MB, pipeline {} MB (decode, resize and re-encode)",
+                corpus.size(), fullBytes / 1048576, pipelineBytes / 1048576);
+        assertThat(pipelineBytes).isLessThan(fullBytes);
+    }
+
+    private ImageProcessingServiceImpl service(int maxDimension, long maxSourcePixels) {
+        FileStorageConfig config = new FileStorageConfig();
+        ReflectionTestUtils.setField(config, "imageProcessingEnabled", true);
+        ReflectionTestUtils.setField(config, "maxImageDimension", maxDimension);
+        ReflectionTestUtils.setField(config, "jpegQuality", 0.85f);
+        ReflectionTestUtils.setField(config, "maxConcurrentImageOperations", 2);
+        ReflectionTestUtils.setField(config, "maxSourcePixels", maxSourcePixels);
+        return new ImageProcessingServiceImpl(config);
+    }
+
+    private static Path writeImage(Path path, int width, int height, String format) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, Color.BLUE, width, height, Color.ORANGE));
+        g2d.fillRect(0, 0, width, height);
+        g2d.dispose();
+        ImageIO.write(image, format, path.toFile());
+        return path;
+    }
+
+    private static String formatOf(File file) throws Exception {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            return readers.next().getFormatName().toLowerCase();
+        }
+    }
+
+    // bytes this thread has allocated so far (HotSpot)
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
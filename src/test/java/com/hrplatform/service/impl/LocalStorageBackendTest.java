@@ -0,0 +1,151 @@
+package com.hrplatform.service.impl;
+
+import com.hrplatform.config.FileStorageConfig;
+import com.hrplatform.service.StorageBackend.StoredFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * LocalStorageBackend keys and writes, plus a throughput benchmark against a plain
+ * stream copy that runs only when BENCHMARK_STORAGE_DIR points at a directory on the disk
+ * to measure (BENCHMARK_STORAGE_FILES, BENCHMARK_STORAGE_FILE_BYTES default to 200 and
+ * 5242880). A tmpfs directory measures nothing useful: fsync is free there.
+ */
+class LocalStorageBackendTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalStorageBackendTest.class);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void sameFileNameTwiceGetsTwoKeysAndKeepsBothFiles() throws Exception {
+        LocalStorageBackend backend = backend(root, false);
+
+        StoredFile first = backend.store(new MockMultipartFile("file", "a.pdf", "application/pdf", bytes(1000, 1)),
+                "medical", "jane_doe_passport_12345");
+        StoredFile second = backend.store(new MockMultipartFile("file", "a.pdf", "application/pdf", bytes(1000, 2)),
+                "medical", "jane_doe_passport_12345");
+
+        assertThat(first.getStorageKey()).isNotEqualTo(second.getStorageKey());
+        assertThat(first.getStorageKey()).startsWith("medical/").endsWith(".pdf");
+        assertThat(Files.readAllBytes(backend.resolve(first.getStorageKey()))).isEqualTo(bytes(1000, 1));
+        assertThat(Files.readAllBytes(backend.resolve(second.getStorageKey()))).isEqualTo(bytes(1000, 2));
+    }
+
+    @Test
+    void streamedContentIsStoredWholeAndNoTempFileIsLeft() throws Exception {
+        LocalStorageBackend backend = backend(root, true);
+        byte[] content = bytes(3 * 1024 * 1024 + 17, 3);
+
+        StoredFile stored = backend.store(new ByteArrayInputStream(content), "finance", "report", "xlsx");
+
+        assertThat(stored.getSize()).isEqualTo(content.length);
+        assertThat(Files.readAllBytes(backend.resolve(stored.getStorageKey()))).isEqualTo(content);
+        try (var temp = Files.list(root.resolve(".tmp"))) {
+            assertThat(temp).isEmpty();
+        }
+    }
+
+    @Test
+    void refusesKeysOutsideTheRoot() throws Exception {
+        LocalStorageBackend backend = backend(root, false);
+
+        assertThatThrownBy(() -> backend.resolve("../outside.pdf"))
+                .hasMessageContaining("Invalid storage key");
+        assertThatThrownBy(() -> backend.resolve("."))
+                .hasMessageContaining("Invalid storage key");
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BENCHMARK_STORAGE_DIR", matches = ".+")
+    void throughputBenchmarkAgainstStreamCopy() throws Exception {
+        Path dir = Paths.get(System.getenv("BENCHMARK_STORAGE_DIR")).toAbsolutePath();
+        int files = Integer.parseInt(env("BENCHMARK_STORAGE_FILES", "200"));
+        int fileBytes = Integer.parseInt(env("BENCHMARK_STORAGE_FILE_BYTES", "5242880"));
+
+        // spooled multipart parts are files, which is what lets transferFrom copy in the kernel
+        Path source = Files.createTempFile(dir, "bench-source-", ".bin");
+        Path baselineDir = Files.createDirectories(dir.resolve("bench-stream-copy"));
+        LocalStorageBackend backend = backend(Files.createDirectories(dir.resolve("bench-backend")), true);
+        try {
+            Files.write(source, bytes(fileBytes, 4));
+
+            long start = System.nanoTime();
+            for (int i = 0; i < files; i++) {
+                try (InputStream in = new FileInputStream(source.toFile());
+                     OutputStream out = Files.newOutputStream(baselineDir.resolve("copy-" + i + ".bin"))) {
+                    in.transferTo(out);
+                }
+            }
+            double streamSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            for (int i = 0; i < files; i++) {
+                try (InputStream in = new FileInputStream(source.toFile())) {
+                    StoredFile stored = backend.store(in, "bench", "file", "bin");
+                    assertThat(stored.getSize()).isEqualTo(fileBytes);
+                }
+            }
+            double backendSeconds = (System.nanoTime() - start) / 1e9;
+
+            double mb = (double) files * fileBytes / 1048576.0;
+            log.info("{} files of {} bytes: stream copy (no fsync) {} MB/s, {} files/s; " +
+                            "transferFrom + fsync + rename {} MB/s, {} files/s",
+                    files, fileBytes,
+                    String.format("%.1f", mb / streamSeconds), String.format("%.0f", files / streamSeconds),
+                    String.format("%.1f", mb / backendSeconds), String.format("%.0f", files / backendSeconds));
+        } finally {
+            Files.deleteIfExists(source);
+            deleteTree(baselineDir);
+            deleteTree(dir.resolve("bench-backend"));
+        }
+    }
+
+    private static LocalStorageBackend backend(Path rootDir, boolean fsync) throws Exception {
+        FileStorageConfig config = new FileStorageConfig();
+        ReflectionTestUtils.setField(config, "localRootDir", rootDir.toString());
+        ReflectionTestUtils.setField(config, "fsyncEnabled", fsync);
+        ReflectionTestUtils.setField(config, "transferChunkBytes", 8L * 1024 * 1024);
+        return new LocalStorageBackend(config);
+    }
+
+    private static byte[] bytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static void deleteTree(Path dir) throws Exception {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (var paths = Files.walk(dir)) {
+            for (Path path : paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,210 @@
+package com.hrplatform.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the limiter with a fake clock: a call's RTT is however far the clock is moved
+ * between acquire and completion. Tests that need a baseline make one call first.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASELINE_MS = 10;
+    // long enough that the baseline window never rolls over unless a test asks for it
+    private static final int LONG_WINDOW = 1_000_000;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void startsAtTheInitialLimitAndTakesTheBaselineFromTheFirstCall() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(LONG_WINDOW);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        assertThat(limiter.getBaselineRttNanos()).isEqualTo(-1);
+
+        call(limiter, BASELINE_MS);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        assertThat(limiter.getBaselineRttNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(BASELINE_MS));
+    }
+
+    @Test
+    void aFullLimitIsUsableFromTheStart() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(LONG_WINDOW);
+
+        List<AdaptiveConcurrencyLimiter.Call> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calls.add(limiter.acquire(0, TimeUnit.MILLISECONDS));
+        }
+
+        assertThat(calls).doesNotContainNull();
+    }
+
+    @Test
+    void fastCallsAtFullUtilisationGrowTheLimitUpToTheCeiling() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(LONG_WINDOW);
+        call(limiter, BASELINE_MS);
+
+        runRound(limiter, BASELINE_MS);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        runRound(limiter, BASELINE_MS);
+        assertThat(limiter.getLimit()).isEqualTo(11);
+
+        for (int i = 0; i < 100; i++) {
+            runRound(limiter, BASELINE_MS);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void fastCallsWellBelowTheLimitDoNotGrowIt() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(LONG_WINDOW);
+        call(limiter, BASELINE_MS);
+
+        for (int i = 0; i < 100; i++) {
+            call(limiter, BASELINE_MS);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void slowCallsHalveTheLimitOncePerRoundTripDownToTheFloor() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(LONG_WINDOW);
+        call(limiter, BASELINE_MS);
+
+        AdaptiveConcurrencyLimiter.Call first = limiter.acquire(0, TimeUnit.MILLISECONDS);
+        AdaptiveConcurrencyLimiter.Call sameRoundTrip = limiter.acquire(0, TimeUnit.MILLISECONDS);
+        advance(3 * BASELINE_MS);
+
+        first.onSuccess(1);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        // started before the decrease, so it already ran under the old limit
+        sameRoundTrip.onSuccess(1);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        call(limiter, 3 * BASELINE_MS);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        call(limiter, 3 * BASELINE_MS);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void droppedCallsAreCongestionButIgnoredOnesAreNot() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(LONG_WINDOW);
+        call(limiter, BASELINE_MS);
+
+        limiter.acquire(0, TimeUnit.MILLISECONDS).onIgnored();
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        limiter.acquire(0, TimeUnit.MILLISECONDS).onDropped();
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void costFactorKeepsLargeCallsFromLookingLikeCongestion() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(LONG_WINDOW);
+        call(limiter, BASELINE_MS);
+
+        AdaptiveConcurrencyLimiter.Call bigUpload = limiter.acquire(0, TimeUnit.MILLISECONDS);
+        advance(5 * BASELINE_MS);
+        bigUpload.onSuccess(5);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void rejectsOnceTheLimitIsInUseUntilACallCompletes() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(LONG_WINDOW);
+        call(limiter, BASELINE_MS);
+
+        List<AdaptiveConcurrencyLimiter.Call> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calls.add(limiter.acquire(0, TimeUnit.MILLISECONDS));
+        }
+        assertThat(calls).doesNotContainNull();
+
+        assertThat(limiter.acquire(0, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(limiter.acquire(20, TimeUnit.MILLISECONDS)).isNull();
+
+        calls.get(0).onIgnored();
+        // completing twice must not free a second slot
+        calls.get(0).onIgnored();
+
+        assertThat(limiter.acquire(0, TimeUnit.MILLISECONDS)).isNotNull();
+        assertThat(limiter.acquire(0, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void rollingOverTheBaselineWindowNeverCutsTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(5);
+        call(limiter, BASELINE_MS);
+        runRound(limiter, BASELINE_MS);
+        int limit = limiter.getLimit();
+
+        for (int i = 0; i < 100; i++) {
+            call(limiter, BASELINE_MS);
+            assertThat(limiter.getLimit()).isEqualTo(limit);
+        }
+    }
+
+    @Test
+    void theBaselineFollowsTheUpstreamWhenItDrifts() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(5);
+        call(limiter, BASELINE_MS);
+
+        // the upstream got slower for good: congestion at first, until the 10 ms sample
+        // has aged out of both windows
+        for (int i = 0; i < 9; i++) {
+            call(limiter, 4 * BASELINE_MS);
+        }
+        assertThat(limiter.getBaselineRttNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(4 * BASELINE_MS));
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        // that is the new normal, not congestion
+        for (int i = 0; i < 10; i++) {
+            runRound(limiter, 4 * BASELINE_MS);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(2);
+
+        // and once it recovers, the lower RTT is the baseline straight away
+        call(limiter, BASELINE_MS);
+        assertThat(limiter.getBaselineRttNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(BASELINE_MS));
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int baselineWindow) {
+        return new AdaptiveConcurrencyLimiter(10, 2, 20, 0.5, 2.0, baselineWindow, now::get);
+    }
+
+    private void call(AdaptiveConcurrencyLimiter limiter, long rttMs) throws Exception {
+        AdaptiveConcurrencyLimiter.Call call = limiter.acquire(0, TimeUnit.MILLISECONDS);
+        assertThat(call).isNotNull();
+        advance(rttMs);
+        call.onSuccess(1);
+    }
+
+    // fills the current limit, then completes every call after the same RTT
+    private void runRound(AdaptiveConcurrencyLimiter limiter, long rttMs) throws Exception {
+        List<AdaptiveConcurrencyLimiter.Call> calls = new ArrayList<>();
+        int limit = limiter.getLimit();
+        for (int i = 0; i < limit; i++) {
+            calls.add(limiter.acquire(0, TimeUnit.MILLISECONDS));
+        }
+        advance(rttMs);
+        for (AdaptiveConcurrencyLimiter.Call call : calls) {
+            call.onSuccess(1);
+        }
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,169 @@
+package com.hrplatform.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the breaker's transitions with a fake clock: window of 10, trips at 50% once 4
+ * calls are recorded, stays open for 30 s, then lets 2 trial calls through.
+ */
+class CircuitBreakerTest {
+
+    private static final long OPEN_MS = 30_000;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final CircuitBreaker breaker =
+            new CircuitBreaker(10, 4, 0.5, TimeUnit.MILLISECONDS.toNanos(OPEN_MS), 2, now::get);
+    private final List<String> transitions = new ArrayList<>();
+
+    {
+        breaker.setStateListener((from, to) -> transitions.add(from + "->" + to));
+    }
+
+    @Test
+    void staysClosedUntilTheMinimumNumberOfCallsIsRecorded() {
+        fail(3);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).isEqualTo(1.0);
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(transitions).containsExactly("CLOSED->OPEN");
+    }
+
+    @Test
+    void staysClosedWhileTheFailureRateIsBelowTheThreshold() {
+        for (int i = 0; i < 20; i++) {
+            succeed(2);
+            fail(1);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).isLessThan(0.5);
+    }
+
+    @Test
+    void onlyTheLastWindowOfCallsCounts() {
+        fail(3);
+        succeed(10);
+
+        assertThat(breaker.getFailureRate()).isZero();
+        fail(4);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        fail(1);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void openRejectsCallsAndCountsDownTheOpenDuration() {
+        trip();
+
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getRemainingOpenNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+
+        advance(OPEN_MS - 1);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getRemainingOpenNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenAdmitsTheTrialCallsAndClosesWhenAllSucceed() {
+        trip();
+        advance(OPEN_MS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.getRemainingOpenNanos()).isZero();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).as("third trial call").isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).as("fresh window").isZero();
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+
+        // the old failures are gone: it takes the minimum number of calls again to trip
+        fail(3);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void aFailedTrialCallReopensForAnotherFullDuration() {
+        trip();
+        advance(OPEN_MS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getRemainingOpenNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN");
+    }
+
+    @Test
+    void anIgnoredTrialCallFreesItsSlot() {
+        trip();
+        advance(OPEN_MS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onIgnored();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void ignoredCallsDoNotCountWhileClosed() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onIgnored();
+        }
+        fail(3);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void trip() {
+        fail(4);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void fail(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+    }
+
+    private void succeed(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onSuccess();
+        }
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,155 @@
+package com.hrplatform.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Signature-based content detection, plus a timing run that only happens when
+ * BENCHMARK_SNIFF is set (BENCHMARK_SNIFF_ITERATIONS defaults to 100000). The benchmark
+ * files are 5 MB and in memory, so it measures the detection itself, not the disk.
+ */
+class FileUtilTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FileUtilTest.class);
+
+    private static final String DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+    @Test
+    void detectsEachAllowedTypeFromItsSignature() throws Exception {
+        assertThat(FileUtil.detectContentType(file("a.pdf", pdf(4096)))).isEqualTo("application/pdf");
+        assertThat(FileUtil.detectContentType(file("a.jpg", jpeg(4096)))).isEqualTo("image/jpeg");
+        assertThat(FileUtil.detectContentType(file("a.png", png(4096)))).isEqualTo("image/png");
+        assertThat(FileUtil.detectContentType(file("a.doc", ole2(4096)))).isEqualTo("application/msword");
+        assertThat(FileUtil.detectContentType(file("a.docx", docx(4096)))).isEqualTo(DOCX);
+    }
+
+    @Test
+    void aZipWithoutWordPartsIsNotADocx() throws Exception {
+        byte[] zip = zip(Map.of("xl/workbook.xml", "<workbook/>".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(FileUtil.detectContentType(file("a.docx", zip))).isNull();
+    }
+
+    @Test
+    void rejectsContentThatDoesNotMatchTheExtension() throws Exception {
+        assertThat(FileUtil.detectValidContentType(file("a.pdf", png(4096)))).isNull();
+        assertThat(FileUtil.detectValidContentType(file("a.exe", pdf(4096)))).isNull();
+        assertThat(FileUtil.detectValidContentType(file("a.PDF", pdf(4096)))).isEqualTo("application/pdf");
+        assertThat(FileUtil.isValidFileType(file("a.jpg", "not an image".getBytes(StandardCharsets.UTF_8)))).isFalse();
+    }
+
+    @Test
+    void streamedDetectionUsesOnlyTheHeadAndTail() throws Exception {
+        byte[] content = docx(2 * 1024 * 1024);
+        int tailBytes = FileUtil.getStreamingTailBytes();
+        byte[] head = Arrays.copyOf(content, FileUtil.getSniffBytes());
+        byte[] tail = Arrays.copyOfRange(content, content.length - tailBytes, content.length);
+
+        assertThat(FileUtil.detectContentType(head, tail, content.length)).isEqualTo(DOCX);
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BENCHMARK_SNIFF", matches = ".+")
+    void detectionCostsMicroseconds() throws Exception {
+        int iterations = Integer.parseInt(env("BENCHMARK_SNIFF_ITERATIONS", "100000"));
+        int size = 5 * 1024 * 1024;
+
+        Map<String, MockMultipartFile> files = new LinkedHashMap<>();
+        files.put("pdf", file("a.pdf", pdf(size)));
+        files.put("jpeg", file("a.jpg", jpeg(size)));
+        files.put("png", file("a.png", png(size)));
+        files.put("doc", file("a.doc", ole2(size)));
+        files.put("docx", file("a.docx", docx(size)));
+
+        for (Map.Entry<String, MockMultipartFile> entry : files.entrySet()) {
+            MockMultipartFile file = entry.getValue();
+
+            for (int i = 0; i < iterations / 10; i++) {
+                FileUtil.detectValidContentType(file);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                assertThat(FileUtil.detectValidContentType(file)).isNotNull();
+            }
+            double microsPerCall = (System.nanoTime() - start) / 1e3 / iterations;
+
+            log.info("{}: {} us per detection on a {} byte file", entry.getKey(),
+                    String.format("%.2f", microsPerCall), size);
+            assertThat(microsPerCall).as(entry.getKey() + " us per detection").isLessThan(1000);
+        }
+    }
+
+    private static MockMultipartFile file(String name, byte[] content) {
+        return new MockMultipartFile("file", name, "application/octet-stream", content);
+    }
+
+    private static byte[] pdf(int size) {
+        return withHead(size, "%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] jpeg(int size) {
+        return withHead(size, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0});
+    }
+
+    private static byte[] png(int size) {
+        return withHead(size, new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+    }
+
+    private static byte[] ole2(int size) {
+        return withHead(size, new byte[]{(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0,
+                (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1});
+    }
+
+    // a stored (uncompressed) media part pads the zip to roughly the requested size
+    private static byte[] docx(int size) throws Exception {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("[Content_Types].xml", "<Types/>".getBytes(StandardCharsets.UTF_8));
+        entries.put("word/media/image1.png", random(Math.max(0, size - 1024), 7));
+        entries.put("word/document.xml", "<w:document/>".getBytes(StandardCharsets.UTF_8));
+        return zip(entries);
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] withHead(int size, byte[] head) {
+        byte[] content = random(size, head.length);
+        System.arraycopy(head, 0, content, 0, head.length);
+        return content;
+    }
+
+    private static byte[] random(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,69 @@
+package com.hrplatform.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBackoffTest {
+
+    @Test
+    void ceilingDoublesPerAttemptUpToTheMaximum() {
+        RetryBackoff backoff = new RetryBackoff(500, 5000);
+
+        assertThat(backoff.ceilingMs(1)).isEqualTo(500);
+        assertThat(backoff.ceilingMs(2)).isEqualTo(1000);
+        assertThat(backoff.ceilingMs(3)).isEqualTo(2000);
+        assertThat(backoff.ceilingMs(4)).isEqualTo(4000);
+        assertThat(backoff.ceilingMs(5)).isEqualTo(5000);
+        assertThat(backoff.ceilingMs(100)).isEqualTo(5000);
+    }
+
+    @Test
+    void largeAttemptNumbersDoNotOverflow() {
+        RetryBackoff backoff = new RetryBackoff(500, Long.MAX_VALUE);
+
+        assertThat(backoff.ceilingMs(64)).isEqualTo(500L << 20);
+        assertThat(backoff.ceilingMs(Integer.MAX_VALUE)).isEqualTo(500L << 20);
+    }
+
+    @Test
+    void delayCoversTheWholeRangeFromZeroToTheCeiling() {
+        List<Long> bounds = new ArrayList<>();
+        RetryBackoff lowest = new RetryBackoff(500, 5000, bound -> {
+            bounds.add(bound);
+            return 0;
+        });
+        RetryBackoff highest = new RetryBackoff(500, 5000, bound -> bound - 1);
+
+        assertThat(lowest.delayMs(3)).isZero();
+        assertThat(bounds).containsExactly(2001L);
+        assertThat(highest.delayMs(3)).isEqualTo(2000);
+        assertThat(highest.delayMs(10)).isEqualTo(5000);
+    }
+
+    @Test
+    void randomDelaysStayWithinTheCeiling() {
+        Random random = new Random(42);
+        RetryBackoff backoff = new RetryBackoff(500, 5000, random::nextLong);
+
+        for (int attempt = 1; attempt <= 8; attempt++) {
+            long ceiling = backoff.ceilingMs(attempt);
+            for (int i = 0; i < 1000; i++) {
+                assertThat(backoff.delayMs(attempt)).isBetween(0L, ceiling);
+            }
+        }
+    }
+
+    @Test
+    void theDefaultRandomSourceStaysWithinTheCeilingToo() {
+        RetryBackoff backoff = new RetryBackoff(100, 1000);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(backoff.delayMs(2)).isBetween(0L, 200L);
+        }
+    }
+}
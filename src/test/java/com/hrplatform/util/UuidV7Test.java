@@ -0,0 +1,161 @@
+package com.hrplatform.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UuidV7 format and ordering, plus an insert benchmark against random v4 keys that runs
+ * only when BENCHMARK_DB_URL points at a PostgreSQL database it may create tables in
+ * (BENCHMARK_DB_USER, BENCHMARK_DB_PASSWORD, BENCHMARK_ROWS default to postgres,
+ * postgres, 1000000).
+ */
+class UuidV7Test {
+
+    private static final Logger log = LoggerFactory.getLogger(UuidV7Test.class);
+
+    @Test
+    void isVersion7WithTheRfcVariantAndCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        // a burst elsewhere in the JVM can have pushed the sequence a few ms ahead
+        assertThat(UuidV7.timestampMillis(uuid)).isBetween(before, System.currentTimeMillis() + 50);
+    }
+
+    @Test
+    void staysStrictlyIncreasingPastTheSequenceLimit() {
+        UUID previous = UuidV7.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7.next();
+            // UUID.compareTo compares signed longs, the database compares bytes
+            assertThat(next.toString()).isGreaterThan(previous.toString());
+            previous = next;
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameTimestampAndSequence() throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<long[]>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    long[] stamps = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        stamps[i] = UuidV7.next().getMostSignificantBits();
+                    }
+                    return stamps;
+                });
+            }
+
+            List<Long> all = new ArrayList<>(threads * perThread);
+            for (Future<long[]> future : executor.invokeAll(tasks)) {
+                long[] stamps = future.get();
+                for (int i = 0; i < stamps.length; i++) {
+                    if (i > 0) {
+                        assertThat(stamps[i]).isGreaterThan(stamps[i - 1]);
+                    }
+                    all.add(stamps[i]);
+                }
+            }
+            assertThat(all).doesNotHaveDuplicates();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BENCHMARK_DB_URL", matches = ".+")
+    void insertBenchmarkAgainstRandomKeys() throws Exception {
+        int rows = Integer.parseInt(env("BENCHMARK_ROWS", "1000000"));
+
+        try (Connection connection = DriverManager.getConnection(System.getenv("BENCHMARK_DB_URL"),
+                env("BENCHMARK_DB_USER", "postgres"), env("BENCHMARK_DB_PASSWORD", "postgres"))) {
+
+            Result v4 = insert(connection, "uuid_bench_v4", rows, UUID::randomUUID);
+            Result v7 = insert(connection, "uuid_bench_v7", rows, UuidV7::next);
+
+            log.info("{} rows with v4 keys: {} inserts/s, primary key index {} MB",
+                    rows, (long) v4.rowsPerSecond, v4.indexBytes / 1048576);
+            log.info("{} rows with v7 keys: {} inserts/s, primary key index {} MB",
+                    rows, (long) v7.rowsPerSecond, v7.indexBytes / 1048576);
+
+            // appending fills leaf pages, random inserts leave them split half empty
+            assertThat(v7.indexBytes).isLessThan(v4.indexBytes);
+        }
+    }
+
+    private Result insert(Connection connection, String table, int rows, Supplier<UUID> ids) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, created_at TIMESTAMP NOT NULL DEFAULT now())");
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table + " (id) VALUES (?)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setObject(1, ids.get());
+                insert.addBatch();
+                if (i % 1000 == 0 || i == rows) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long indexBytes;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_relation_size('" + table + "_pkey')")) {
+            rs.next();
+            indexBytes = rs.getLong(1);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + table);
+        }
+        return new Result(rows / seconds, indexBytes);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static class Result {
+
+        private final double rowsPerSecond;
+        private final long indexBytes;
+
+        Result(double rowsPerSecond, long indexBytes) {
+            this.rowsPerSecond = rowsPerSecond;
+            this.indexBytes = indexBytes;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.hrplatform.util;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Discrete-event simulation of an upload burst: one department bulk-uploads 400 files (100
+ * requests of 4) while two others keep submitting 3-file requests. Each request goes
+ * through the admission gate (30 file permits, 50 waiting, 2 s wait) and its files then
+ * queue for the 10 upload workers; its permits are released when its last file is done.
+ *
+ * Runs in virtual time and compares three set-ups: FIFO gate and FIFO workers, FIFO gate
+ * and fair workers, fair gate and fair workers. The FIFO gate is the same
+ * FairAdmissionQueue with every request under one key: oldest waiter first, and the
+ * arriving request is the one shed on overflow.
+ */
+class WeightedFairQueueSimulationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WeightedFairQueueSimulationTest.class);
+
+    private static final int WORKERS = 10;
+    private static final double BYTES_PER_SECOND = 1024 * 1024;
+    private static final long QUANTUM = 1024 * 1024;
+
+    private static final int PERMITS = 30;
+    private static final int MAX_WAITING = 50;
+    private static final double MAX_WAIT_SECONDS = 2;
+
+    private static final List<String> LIGHT = List.of("Finance", "Legal");
+
+    @Test
+    void lightDepartmentsAreNotStarvedByABurst() {
+        Map<String, Stats> fifo = simulate(skewedLoad(), request -> "", new FifoScheduler());
+        Map<String, Stats> fairWorkers = simulate(skewedLoad(), request -> "", new FairScheduler());
+        Map<String, Stats> fair = simulate(skewedLoad(), request -> request.department, new FairScheduler());
+
+        log.info(String.format("%-12s %9s %22s %22s %22s", "department", "requests",
+                "FIFO gate+workers", "FIFO gate, fair workers", "fair gate+workers"));
+        log.info(String.format("%-12s %9s %22s %22s %22s", "", "",
+                "rejected / p95 (s)", "rejected / p95 (s)", "rejected / p95 (s)"));
+        for (String department : fair.keySet()) {
+            log.info(String.format("%-12s %9d %22s %22s %22s", department, fair.get(department).requests,
+                    fifo.get(department), fairWorkers.get(department), fair.get(department)));
+        }
+
+        for (String light : LIGHT) {
+            // fair workers alone do not help: the light requests never get past the FIFO gate
+            assertThat(fairWorkers.get(light).rejected).as(light + " rejected, FIFO gate").isGreaterThan(0);
+
+            // at the fair gate they only wait for the next permits to free up, not for the burst
+            assertThat(fair.get(light).rejected).as(light + " rejected, fair gate").isZero();
+            assertThat(fair.get(light).p95()).as(light + " p95, fair gate").isLessThan(15);
+        }
+
+        // the burst pays for itself: no more requests are rejected overall, and all of them are its own
+        int fifoRejected = fairWorkers.values().stream().mapToInt(s -> s.rejected).sum();
+        int fairRejected = fair.values().stream().mapToInt(s -> s.rejected).sum();
+        assertThat(fair.get("Operations").rejected).isEqualTo(fairRejected);
+        assertThat(fairRejected).isLessThanOrEqualTo(fifoRejected);
+    }
+
+    @Test
+    void withoutContentionTheGateAdmitsEverything() {
+        List<Request> load = new ArrayList<>();
+        Random random = new Random(7);
+        for (String department : LIGHT) {
+            for (double t = 1; t < 120; t += 5) {
+                load.add(new Request(department, t, random, 3));
+            }
+        }
+        load.sort(Comparator.comparingDouble(request -> request.arrival));
+
+        Map<String, Stats> fair = simulate(load, request -> request.department, new FairScheduler());
+
+        for (String department : LIGHT) {
+            assertThat(fair.get(department).rejected).isZero();
+            assertThat(fair.get(department).latencies).hasSize(24);
+        }
+    }
+
+    @Test
+    void weightsSplitTheWorkersProportionally() {
+        WeightedFairQueue<String, String> queue = new WeightedFairQueue<>(QUANTUM, d -> d.equals("HR") ? 3 : 1);
+        for (int i = 0; i < 400; i++) {
+            queue.offer("HR", QUANTUM, "HR");
+            queue.offer("Finance", QUANTUM, "Finance");
+        }
+
+        Map<String, Integer> served = new HashMap<>();
+        for (int i = 0; i < 400; i++) {
+            served.merge(queue.poll(), 1, Integer::sum);
+        }
+
+        assertThat(served.get("HR")).isEqualTo(300);
+        assertThat(served.get("Finance")).isEqualTo(100);
+    }
+
+    @Test
+    void overflowIsShedFromTheDepartmentWithTheMostWaiting() {
+        List<String> admitted = new ArrayList<>();
+        List<String> shed = new ArrayList<>();
+        FairAdmissionQueue<String, String> gate = new FairAdmissionQueue<>(4, 5, d -> 1, admitted::add, shed::add);
+
+        assertThat(gate.offer("Operations", 4, "ops-1")).isTrue();
+        for (int i = 2; i <= 5; i++) {
+            assertThat(gate.offer("Operations", 2, "ops-" + i)).isFalse();
+        }
+        assertThat(gate.offer("Finance", 2, "fin-1")).isFalse();
+        assertThat(shed).isEmpty();
+
+        // one over the limit: the newest Operations request goes, not the arriving one
+        assertThat(gate.offer("Legal", 2, "legal-1")).isFalse();
+        assertThat(shed).containsExactly("ops-5");
+        assertThat(gate.getWaiting("Operations")).isEqualTo(3);
+
+        gate.release(4);
+        assertThat(admitted).containsExactly("ops-2", "ops-3");
+
+        // Finance queued after ops-4 but it is its turn
+        gate.release(2);
+        assertThat(admitted).containsExactly("ops-2", "ops-3", "fin-1");
+
+        assertThat(gate.cancel("Legal", "legal-1")).isTrue();
+        assertThat(gate.cancel("Finance", "fin-1")).as("already admitted").isFalse();
+        assertThat(gate.getWaiting()).isEqualTo(1);
+    }
+
+    private List<Request> skewedLoad() {
+        Random random = new Random(42);
+        List<Request> load = new ArrayList<>();
+
+        // mass onboarding: 100 staff upload 4 files of 0.5-4 MB each within the first 20 seconds
+        for (int i = 0; i < 100; i++) {
+            load.add(new Request("Operations", random.nextDouble() * 20, random, 4));
+        }
+
+        // everyone else: a 3-file upload every 5 seconds for two minutes
+        for (String department : LIGHT) {
+            for (double t = 1; t < 120; t += 5) {
+                load.add(new Request(department, t, random, 3));
+            }
+        }
+
+        load.sort(Comparator.comparingDouble(request -> request.arrival));
+        return load;
+    }
+
+    private Map<String, Stats> simulate(List<Request> load, Function<Request, String> gateKey, Scheduler scheduler) {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        for (Request request : load) {
+            stats.computeIfAbsent(request.department, d -> new Stats()).requests++;
+        }
+
+        List<Request> admitted = new ArrayList<>();
+        List<Request> shed = new ArrayList<>();
+        FairAdmissionQueue<String, Request> gate =
+                new FairAdmissionQueue<>(PERMITS, MAX_WAITING, key -> 1, admitted::add, shed::add);
+
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        for (Request request : load) {
+            events.add(new Event(request.arrival, EventType.ARRIVAL, request));
+        }
+        int running = 0;
+
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            double now = event.time;
+            Request request = event.request;
+
+            switch (event.type) {
+                case ARRIVAL -> {
+                    request.waiting = true;
+                    if (gate.offer(gateKey.apply(request), request.permits(), request)) {
+                        admitted.add(request);
+                    } else {
+                        events.add(new Event(now + MAX_WAIT_SECONDS, EventType.TIMEOUT, request));
+                    }
+                }
+                case TIMEOUT -> {
+                    if (request.waiting && gate.cancel(gateKey.apply(request), request)) {
+                        shed.add(request);
+                    }
+                }
+                case FINISH -> {
+                    running--;
+                    if (--request.filesLeft == 0) {
+                        stats.get(request.department).latencies.add(now - request.arrival);
+                        gate.release(request.permits());
+                    }
+                }
+            }
+
+            for (Request rejected : shed) {
+                rejected.waiting = false;
+                stats.get(rejected.department).rejected++;
+            }
+            shed.clear();
+            for (Request started : admitted) {
+                started.waiting = false;
+                for (long size : started.sizes) {
+                    scheduler.offer(new Task(started, size));
+                }
+            }
+            admitted.clear();
+
+            while (running < WORKERS && !scheduler.isEmpty()) {
+                Task task = scheduler.poll();
+                running++;
+                events.add(new Event(now + task.size / BYTES_PER_SECOND, EventType.FINISH, task.request));
+            }
+        }
+
+        return stats;
+    }
+
+    private enum EventType { ARRIVAL, TIMEOUT, FINISH }
+
+    private static class Event implements Comparable<Event> {
+        private static long sequence;
+
+        final double time;
+        final EventType type;
+        final Request request;
+        final long order = sequence++;
+
+        Event(double time, EventType type, Request request) {
+            this.time = time;
+            this.type = type;
+            this.request = request;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Double.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(order, other.order);
+        }
+    }
+
+    private interface Scheduler {
+        void offer(Task task);
+
+        Task poll();
+
+        boolean isEmpty();
+    }
+
+    private static class FifoScheduler implements Scheduler {
+        private final ArrayDeque<Task> queue = new ArrayDeque<>();
+
+        public void offer(Task task) {
+            queue.addLast(task);
+        }
+
+        public Task poll() {
+            return queue.pollFirst();
+        }
+
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
+
+    private static class FairScheduler implements Scheduler {
+        private final WeightedFairQueue<String, Task> queue = new WeightedFairQueue<>(QUANTUM, d -> 1);
+
+        public void offer(Task task) {
+            queue.offer(task.request.department, task.size, task);
+        }
+
+        public Task poll() {
+            return queue.poll();
+        }
+
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
+
+    private static class Request {
+        final String department;
+        final double arrival;
+        final long[] sizes;
+        int filesLeft;
+        boolean waiting;
+
+        Request(String department, double arrival, Random random, int files) {
+            this.department = department;
+            this.arrival = arrival;
+            this.sizes = new long[files];
+            for (int i = 0; i < files; i++) {
+                sizes[i] = (long) ((0.5 + random.nextDouble() * 3.5) * 1024 * 1024);
+            }
+            this.filesLeft = files;
+        }
+
+        int permits() {
+            return Math.min(sizes.length, PERMITS);
+        }
+    }
+
+    private static class Task {
+        final Request request;
+        final long size;
+
+        Task(Request request, long size) {
+            this.request = request;
+            this.size = size;
+        }
+    }
+
+    private static class Stats {
+        final List<Double> latencies = new ArrayList<>();
+        int requests;
+        int rejected;
+
+        double p95() {
+            if (latencies.isEmpty()) {
+                return Double.NaN;
+            }
+            List<Double> sorted = latencies.stream().sorted().toList();
+            return sorted.get((int) Math.ceil(sorted.size() * 0.95) - 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d / %.1f", rejected, p95());
+        }
+    }
+}